@@ -0,0 +1,55 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soh.x4.x4tress_analyzer.analyzer.EventAnalyzer;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+/**
+ * Clustering the Global Events into Processed Events with
+ * {@link EventAnalyzer#processGlobalEvents(GlobalEventStore, java.util.Map, java.util.Map)}
+ *
+ * @author Son of Hubert
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	private int events;
+
+	private GlobalEventStore globalEvents;
+
+	@Setup(Level.Trial)
+	public void setUp() throws XMLStreamException {
+		globalEvents = BenchmarkData.load(BenchmarkData.saveGame(events)).getGlobalEventStore();
+	}
+
+	@Benchmark
+	public List<ProcessedEvent> processGlobalEvents() {
+		return new EventAnalyzer().processGlobalEvents(globalEvents, new HashMap<>(), new HashMap<>());
+	}
+
+}
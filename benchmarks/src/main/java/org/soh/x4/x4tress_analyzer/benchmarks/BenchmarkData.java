@@ -0,0 +1,60 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.io.ByteArrayInputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.soh.x4.x4tress_analyzer.analyzer.EventAnalyzer;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameHandler;
+import org.soh.x4.x4tress_analyzer.savegame.StaxSaveGameReader;
+import org.soh.x4.x4tress_analyzer.savegame.SyntheticSaveGame;
+
+/**
+ * Shared setup of the benchmarks. All benchmarks use savegames of the same
+ * seed, so their results can be compared between runs.
+ *
+ * @author Son of Hubert
+ *
+ */
+final class BenchmarkData {
+
+	static final long SEED = 4;
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Create the savegame XML with the given number of Global Events
+	 */
+	static byte[] saveGame(int events) {
+		return new SyntheticSaveGame(events, SEED).toBytes();
+	}
+
+	/**
+	 * Parse a savegame without resolving its Global Events
+	 */
+	static SaveGameHandler parse(byte[] saveGame) throws XMLStreamException {
+		SaveGameHandler handler = new SaveGameHandler();
+		new StaxSaveGameReader().read(new ByteArrayInputStream(saveGame), handler);
+		return handler;
+	}
+
+	/**
+	 * Parse a savegame and resolve its Global Events
+	 */
+	static DataStorage load(byte[] saveGame) throws XMLStreamException {
+		return parse(saveGame).getData();
+	}
+
+	/**
+	 * Parse a savegame, resolve and analyze its Global Events
+	 */
+	static DataStorage loadAndAnalyze(byte[] saveGame) throws XMLStreamException {
+		DataStorage data = load(saveGame);
+		data.setProcessedEvents(new EventAnalyzer().processGlobalEvents(data.getGlobalEventStore(),
+				data.getEventNames(), data.getEligibleForRenaming()));
+		return data;
+	}
+
+}
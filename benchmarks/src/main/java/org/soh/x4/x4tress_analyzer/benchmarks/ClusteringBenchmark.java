@@ -0,0 +1,69 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soh.x4.x4tress_analyzer.analyzer.ClusteringStrategy;
+import org.soh.x4.x4tress_analyzer.analyzer.EventAnalyzer;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.savegame.SyntheticSaveGame;
+
+/**
+ * The clustering strategies of the {@link EventAnalyzer} against each other.
+ * All Global Events are in a single sector, analyzed in the calling thread, so
+ * the benchmark measures the clustering of one large sector.
+ *
+ * @author Son of Hubert
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClusteringBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int events;
+
+	@Param({ "greedy", "dbscan" })
+	private String strategy;
+
+	private GlobalEventStore globalEvents;
+
+	private ClusteringStrategy clusteringStrategy;
+
+	@Setup(Level.Trial)
+	public void setUp() throws XMLStreamException {
+		SyntheticSaveGame saveGame = new SyntheticSaveGame(events, BenchmarkData.SEED);
+		saveGame.setSectors(1);
+		globalEvents = BenchmarkData.load(saveGame.toBytes()).getGlobalEventStore();
+		clusteringStrategy = "dbscan".equals(strategy) ? ClusteringStrategy.dbscan() : ClusteringStrategy.greedy();
+	}
+
+	@Benchmark
+	public List<ProcessedEvent> cluster() {
+		EventAnalyzer analyzer = new EventAnalyzer();
+		analyzer.setPool(null);
+		analyzer.setClusteringStrategy(clusteringStrategy);
+		return analyzer.processGlobalEvents(globalEvents, new HashMap<>(), new HashMap<>());
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.soh.x4.x4tress_analyzer.savegame.FastDoubleParser;
+
+/**
+ * Parsing savegame coordinates and times with {@link FastDoubleParser}
+ * compared to {@link Double#parseDouble(String)}.
+ *
+ * @author Son of Hubert
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DoubleParserBenchmark {
+
+	private static final int VALUES = 10000;
+
+	private String[] values;
+
+	private ByteBuffer bytes;
+
+	private int[] offsets;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// Coordinates and times as written by the game
+		Random random = new Random(BenchmarkData.SEED);
+		values = new String[VALUES];
+		offsets = new int[VALUES + 1];
+		StringBuilder all = new StringBuilder();
+		for (int i = 0; i < VALUES; i++) {
+			values[i] = i % 4 == 0 ? String.format(Locale.ROOT, "%.3f", random.nextDouble() * 1_000_000)
+					: Double.toString(random.nextGaussian() * 200000);
+			offsets[i] = all.length();
+			all.append(values[i]);
+		}
+		offsets[VALUES] = all.length();
+		bytes = ByteBuffer.wrap(all.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Benchmark
+	public void parseDouble(Blackhole blackhole) {
+		for (String value : values) {
+			blackhole.consume(Double.parseDouble(value));
+		}
+	}
+
+	@Benchmark
+	public void fastString(Blackhole blackhole) {
+		for (String value : values) {
+			blackhole.consume(FastDoubleParser.parseDouble(value));
+		}
+	}
+
+	@Benchmark
+	public void fastBytes(Blackhole blackhole) {
+		for (int i = 0; i < VALUES; i++) {
+			blackhole.consume(FastDoubleParser.parseDouble(bytes, offsets[i], offsets[i + 1]));
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soh.x4.x4tress_analyzer.savegame.MappedSaveGameScanner;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameHandler;
+import org.soh.x4.x4tress_analyzer.savegame.StaxSaveGameReader;
+
+/**
+ * Parsing throughput of the {@link SaveGameHandler}, fed by the StAX reader
+ * and by the scanner used for uncompressed savegames. Does not include
+ * resolving the Global Events.
+ *
+ * @author Son of Hubert
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int events;
+
+	private byte[] saveGame;
+
+	private File saveGameFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		saveGame = BenchmarkData.saveGame(events);
+		saveGameFile = File.createTempFile("benchmark", ".xml");
+		Files.write(saveGameFile.toPath(), saveGame);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		saveGameFile.delete();
+	}
+
+	@Benchmark
+	public SaveGameHandler stax() throws XMLStreamException {
+		SaveGameHandler handler = new SaveGameHandler();
+		new StaxSaveGameReader().read(new ByteArrayInputStream(saveGame), handler);
+		return handler;
+	}
+
+	@Benchmark
+	public SaveGameHandler mapped() throws IOException {
+		SaveGameHandler handler = new SaveGameHandler();
+		new MappedSaveGameScanner().read(saveGameFile, handler);
+		return handler;
+	}
+
+}
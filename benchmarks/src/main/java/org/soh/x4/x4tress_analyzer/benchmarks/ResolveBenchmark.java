@@ -0,0 +1,61 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameHandler;
+
+/**
+ * Resolving the parsed refs into Global Events with
+ * {@link SaveGameHandler#getData()}, which includes resolving the table keys
+ * of the savegame. Resolving consumes the parsed savegame, so every invocation
+ * parses a fresh copy outside of the measurement.
+ *
+ * @author Son of Hubert
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResolveBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int events;
+
+	private byte[] saveGame;
+
+	private SaveGameHandler handler;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		saveGame = BenchmarkData.saveGame(events);
+	}
+
+	@Setup(Level.Invocation)
+	public void parse() throws XMLStreamException {
+		handler = BenchmarkData.parse(saveGame);
+	}
+
+	@Benchmark
+	public DataStorage getData() {
+		return handler.getData();
+	}
+
+}
@@ -0,0 +1,101 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.soh.x4.x4tress_analyzer.savegame.SyntheticSaveGame;
+
+/**
+ * Command line tool writing a {@link SyntheticSaveGame} to a file, to test the
+ * loader and analyzer at scale without real savegames.<br>
+ * <br>
+ * Usage:
+ * <code>java -cp benchmarks.jar org.soh.x4.x4tress_analyzer.benchmarks.SaveGameGenerator [options] &lt;file&gt;</code><br>
+ * A file name ending in .gz writes a compressed savegame.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class SaveGameGenerator {
+
+	private static final String USAGE = "Usage: SaveGameGenerator [options] <file[.gz]>\n"
+			+ "  --events <n>          number of Global Events (default 10000)\n"
+			+ "  --sectors <n>         number of sectors (default 8)\n"
+			+ "  --ships <n>           number of ships (default 200)\n"
+			+ "  --factions <n>        number of factions (default 6)\n"
+			+ "  --battle-density <d>  share of events in battles, 0 to 1 (default 0.5)\n"
+			+ "  --seed <n>            seed of the savegame content (default 1)";
+
+	public static void main(String[] args) {
+		int events = 10000;
+		long seed = 1;
+		Integer sectors = null;
+		Integer ships = null;
+		Integer factions = null;
+		Double battleDensity = null;
+		File file = null;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--events":
+					events = Integer.parseInt(args[++i]);
+					break;
+				case "--sectors":
+					sectors = Integer.parseInt(args[++i]);
+					break;
+				case "--ships":
+					ships = Integer.parseInt(args[++i]);
+					break;
+				case "--factions":
+					factions = Integer.parseInt(args[++i]);
+					break;
+				case "--battle-density":
+					battleDensity = Double.parseDouble(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					if (args[i].startsWith("--") || file != null) {
+						throw new IllegalArgumentException("Unexpected argument " + args[i]);
+					}
+					file = new File(args[i]);
+				}
+			}
+			if (file == null) {
+				throw new IllegalArgumentException("No output file given");
+			}
+			if (events < 0) {
+				throw new IllegalArgumentException("The number of events must not be negative");
+			}
+
+			SyntheticSaveGame saveGame = new SyntheticSaveGame(events, seed);
+			if (sectors != null) {
+				saveGame.setSectors(sectors);
+			}
+			if (ships != null) {
+				saveGame.setShips(ships);
+			}
+			if (factions != null) {
+				saveGame.setFactions(factions);
+			}
+			if (battleDensity != null) {
+				saveGame.setBattleDensity(battleDensity);
+			}
+
+			long startTime = System.nanoTime();
+			saveGame.write(file);
+			System.out.println("Wrote " + events + " Global Events to " + file.getAbsolutePath() + " ("
+					+ file.length() + " bytes) in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		} catch (IOException e) {
+			System.err.println("Could not write " + file + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
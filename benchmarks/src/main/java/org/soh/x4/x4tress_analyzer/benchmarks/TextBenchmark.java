@@ -0,0 +1,77 @@
+package org.soh.x4.x4tress_analyzer.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.pocessor.EventProcessor_En;
+
+/**
+ * Generating the text of all Processed Events of the unit that took part in
+ * the most events, like the GUI does when a unit is selected
+ *
+ * @author Son of Hubert
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextBenchmark {
+
+	@Param({ "10000" })
+	private int events;
+
+	private List<ProcessedEvent> processedEvents;
+
+	private String playerName;
+
+	private String unitCode;
+
+	@Setup(Level.Trial)
+	public void setUp() throws XMLStreamException {
+		DataStorage data = BenchmarkData.loadAndAnalyze(BenchmarkData.saveGame(events));
+		playerName = data.getPlayerName();
+		processedEvents = data.getProcessedEvents();
+
+		Map<String, Integer> participations = new HashMap<>();
+		for (ProcessedEvent processedEvent : processedEvents) {
+			for (String shipId : processedEvent.getParticipants().keySet()) {
+				participations.merge(shipId, 1, Integer::sum);
+			}
+		}
+		unitCode = participations.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey)
+				.orElse(null);
+	}
+
+	@Benchmark
+	public void processEvent(Blackhole blackhole) {
+		EventProcessor_En processor = new EventProcessor_En(playerName);
+		for (ProcessedEvent processedEvent : processedEvents) {
+			if (processedEvent.matchesUnit(unitCode)) {
+				blackhole.consume(processor.processEvent(processedEvent, unitCode));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,15 @@
+module org.soh.x4.x4tress_analyzer {
+	requires java.base;
+	requires java.xml;
+	requires java.xml.crypto;
+	requires org.slf4j;
+	requires transitive java.sql;
+	requires java.management;
+	requires jdk.management;
+	
+	exports org.soh.x4.x4tress_analyzer.analyzer;
+	exports org.soh.x4.x4tress_analyzer.batch;
+	exports org.soh.x4.x4tress_analyzer.model;
+	exports org.soh.x4.x4tress_analyzer.pocessor;
+	exports org.soh.x4.x4tress_analyzer.savegame;
+}
@@ -0,0 +1,73 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.List;
+
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+/**
+ * Decides which {@link org.soh.x4.x4tress_analyzer.model.GlobalEvent
+ * GlobalEvents} of a sector are combined into a {@link ProcessedEvent}.<br>
+ * <br>
+ * The strategies build their Processed Events with the steps of the
+ * {@link EventAnalyzer}, so all strategies fill the events the same way and
+ * only differ in how they group the Global Events.
+ *
+ * @author Son of Hubert
+ *
+ */
+public interface ClusteringStrategy {
+
+	/**
+	 * Collect the Global Events of a sector into Processed Events
+	 *
+	 * @param analyzer        the analyzer creating and extending the Processed
+	 *                        Events
+	 * @param globalEvents    the Global Events store
+	 * @param sectorEvents    the event indices, grouped by sector. The events of
+	 *                        the sector are sorted by time.
+	 * @param from            the first event index of the sector in sectorEvents
+	 * @param to              the end of the sector in sectorEvents, exclusive
+	 * @param processedEvents the Processed Events of the sector so far, in order
+	 *                        of creation. New Processed Events are added.
+	 */
+	void cluster(EventAnalyzer analyzer, GlobalEventStore globalEvents, int[] sectorEvents, int from, int to,
+			List<ProcessedEvent> processedEvents);
+
+	/**
+	 * The default strategy: each Global Event joins the first Processed Event
+	 * that is in time and whose center is in range, otherwise it starts a new
+	 * one. The result depends on the order of the Global Events.
+	 *
+	 * @return the greedy strategy
+	 */
+	static ClusteringStrategy greedy() {
+		return GreedyClustering.INSTANCE;
+	}
+
+	/**
+	 * Density based clustering (DBSCAN) of the Global Events in space and time,
+	 * with Global Events of at least {@value DbscanClustering#DEFAULT_MIN_POINTS}
+	 * neighbors as core events
+	 *
+	 * @return the DBSCAN strategy
+	 * @see #dbscan(int)
+	 */
+	static ClusteringStrategy dbscan() {
+		return new DbscanClustering(DbscanClustering.DEFAULT_MIN_POINTS);
+	}
+
+	/**
+	 * Density based clustering (DBSCAN) of the Global Events in space and time.
+	 * Two Global Events are neighbors if they are in range and in time of each
+	 * other. The result does not depend on the order of Global Events with
+	 * different timestamps, but on how an incremental analysis is split.
+	 *
+	 * @param minPoints the number of neighbors, including the event itself, that
+	 *                  make a Global Event the core of a Processed Event
+	 * @return the DBSCAN strategy
+	 */
+	static ClusteringStrategy dbscan(int minPoints) {
+		return new DbscanClustering(minPoints);
+	}
+}
@@ -0,0 +1,237 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+/**
+ * Density based clustering (DBSCAN) of the Global Events of a sector in space
+ * and time.<br>
+ * <br>
+ * Two Global Events are neighbors if they are less than
+ * {@link EventAnalyzer#EVENT_MAX_RANGE} apart and less than
+ * {@link EventAnalyzer#EVENT_MAX_TIME} apart in time. A Global Event with at
+ * least minPoints neighbors (counting itself) is a core event. Core events
+ * that are neighbors form one Processed Event, other Global Events join the
+ * Processed Event of their nearest core neighbor. Global Events without a core
+ * neighbor are noise and get a Processed Event of their own, like lone Global
+ * Events of the greedy clustering.<br>
+ * <br>
+ * The neighbors are found by sweeping over the Global Events in order of time,
+ * keeping the Global Events of the time window in an {@link EventGrid}, so each
+ * Global Event is only compared with the Global Events close to it in space
+ * and time. The Global Events of a Processed Event are added in order of
+ * time.<br>
+ * <br>
+ * The Processed Events only depend on the order of the Global Events within
+ * the same timestamp. Such Global Events keep their order from the input, which
+ * decides the Global Event that starts a Processed Event, the order the others
+ * are added in and the core a border event joins if two cores are at the same
+ * distance.<br>
+ * Previous Processed Events of an incremental analysis are kept as they are,
+ * the new Global Events only form new Processed Events. The result therefore
+ * depends on how the Global Events are split between the savegames: Global
+ * Events on both sides of a split are never clustered together.
+ *
+ * @author Son of Hubert
+ *
+ */
+class DbscanClustering implements ClusteringStrategy {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DbscanClustering.class);
+
+	/**
+	 * The default number of neighbors of a core event, including itself
+	 */
+	static final int DEFAULT_MIN_POINTS = 3;
+
+	private static final int NONE = -1;
+
+	private final int minPoints;
+
+	/**
+	 * Receives the pairs of neighbors found by a sweep
+	 */
+	private interface NeighborVisitor {
+		/**
+		 * @param point    the later point
+		 * @param neighbor the earlier point
+		 * @param distance the distance of the points
+		 */
+		void visit(int point, int neighbor, double distance);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param minPoints the number of neighbors, including the event itself, that
+	 *                  make a Global Event a core event
+	 */
+	DbscanClustering(int minPoints) {
+		if (minPoints < 1) {
+			throw new IllegalArgumentException("minPoints must be at least 1, but was " + minPoints);
+		}
+		this.minPoints = minPoints;
+	}
+
+	@Override
+	public void cluster(EventAnalyzer analyzer, GlobalEventStore globalEvents, int[] sectorEvents, int from, int to,
+			List<ProcessedEvent> processedEvents) {
+		// The points are the Global Events with a position, in order of time
+		int[] points = new int[to - from];
+		int pointCount = 0;
+		for (int i = from; i < to; i++) {
+			int sectorEvent = sectorEvents[i];
+			if (globalEvents.hasAttackedPos(sectorEvent)) {
+				points[pointCount++] = sectorEvent;
+			} else {
+				LOGGER.error("Global Event " + globalEvents.getTimestamp(sectorEvent) + " in sector '"
+						+ globalEvents.getSector(sectorEvent) + "' has no attacked position!");
+			}
+		}
+
+		// Count the neighbors to find the core points
+		int[] neighbors = new int[pointCount];
+		Arrays.fill(neighbors, 1);
+		sweep(globalEvents, points, pointCount, (point, neighbor, distance) -> {
+			neighbors[point]++;
+			neighbors[neighbor]++;
+		});
+
+		// Join the neighboring core points, and find the nearest core point of the
+		// other points
+		int[] parent = new int[pointCount];
+		int[] nearestCore = new int[pointCount];
+		double[] nearestCoreDistance = new double[pointCount];
+		for (int point = 0; point < pointCount; point++) {
+			parent[point] = point;
+		}
+		Arrays.fill(nearestCore, NONE);
+		Arrays.fill(nearestCoreDistance, Double.POSITIVE_INFINITY);
+		sweep(globalEvents, points, pointCount, (point, neighbor, distance) -> {
+			boolean pointIsCore = neighbors[point] >= minPoints;
+			boolean neighborIsCore = neighbors[neighbor] >= minPoints;
+			if (pointIsCore && neighborIsCore) {
+				union(parent, point, neighbor);
+			} else if (neighborIsCore) {
+				offerCore(nearestCore, nearestCoreDistance, point, neighbor, distance);
+			} else if (pointIsCore) {
+				offerCore(nearestCore, nearestCoreDistance, neighbor, point, distance);
+			}
+		});
+
+		// Build the Processed Events, in order of their first Global Event
+		int[] clusterEvents = new int[pointCount];
+		Arrays.fill(clusterEvents, NONE);
+		int clusters = 0;
+		for (int point = 0; point < pointCount; point++) {
+			int cluster;
+			if (neighbors[point] >= minPoints) {
+				cluster = find(parent, point);
+			} else if (nearestCore[point] != NONE) {
+				cluster = find(parent, nearestCore[point]);
+			} else {
+				cluster = point;
+			}
+			if (clusterEvents[cluster] == NONE) {
+				clusterEvents[cluster] = processedEvents.size();
+				processedEvents.add(analyzer.createEvent(globalEvents, points[point]));
+				clusters++;
+			} else {
+				analyzer.addToEvent(processedEvents.get(clusterEvents[cluster]), globalEvents, points[point]);
+			}
+		}
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Clustered " + pointCount + " events into " + clusters + " processed events!");
+		}
+	}
+
+	/**
+	 * Find all pairs of neighbors. Each pair is visited once.
+	 *
+	 * @param globalEvents the Global Events store
+	 * @param points       the Global Event index of each point, in order of time
+	 * @param pointCount   the number of points
+	 * @param visitor      receives the pairs of neighbors
+	 */
+	private void sweep(GlobalEventStore globalEvents, int[] points, int pointCount, NeighborVisitor visitor) {
+		EventGrid grid = new EventGrid(EventAnalyzer.EVENT_MAX_RANGE);
+		int oldest = 0;
+		for (int point = 0; point < pointCount; point++) {
+			int event = points[point];
+			long timestamp = globalEvents.getTimestampMillis(event);
+			if (timestamp == GlobalEventStore.NO_TIMESTAMP) {
+				// Events without a time have no neighbors
+				grid.add(point, null);
+				continue;
+			}
+
+			// Drop the points that are too old to be neighbors of this or any later
+			// point
+			while (oldest < point && (globalEvents.getTimestampMillis(points[oldest]) == GlobalEventStore.NO_TIMESTAMP
+					|| timestamp - globalEvents.getTimestampMillis(points[oldest]) >= EventAnalyzer.EVENT_MAX_TIME)) {
+				grid.remove(oldest++);
+			}
+
+			double x = globalEvents.getAttackedX(event);
+			double y = globalEvents.getAttackedY(event);
+			double z = globalEvents.getAttackedZ(event);
+			int current = point;
+			grid.forEachNear(x, y, z, neighbor -> {
+				int neighborEvent = points[neighbor];
+				double dx = globalEvents.getAttackedX(neighborEvent) - x;
+				double dy = globalEvents.getAttackedY(neighborEvent) - y;
+				double dz = globalEvents.getAttackedZ(neighborEvent) - z;
+				double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+				if (distance < EventAnalyzer.EVENT_MAX_RANGE) {
+					visitor.visit(current, neighbor, distance);
+				}
+			});
+			grid.add(point, x, y, z);
+		}
+	}
+
+	/**
+	 * Remember a core point as the nearest one of a point if it is nearer than
+	 * the nearest one so far. Of two core points at the same distance the
+	 * earlier one wins.
+	 */
+	private static void offerCore(int[] nearestCore, double[] nearestCoreDistance, int point, int core,
+			double distance) {
+		if (distance < nearestCoreDistance[point]
+				|| (distance == nearestCoreDistance[point] && core < nearestCore[point])) {
+			nearestCore[point] = core;
+			nearestCoreDistance[point] = distance;
+		}
+	}
+
+	private static int find(int[] parent, int point) {
+		while (parent[point] != point) {
+			parent[point] = parent[parent[point]];
+			point = parent[point];
+		}
+		return point;
+	}
+
+	/**
+	 * Join the sets of two points. The earlier root becomes the root of both.
+	 */
+	private static void union(int[] parent, int a, int b) {
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		if (rootA < rootB) {
+			parent[rootB] = rootA;
+		} else if (rootB < rootA) {
+			parent[rootA] = rootB;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "dbscan(" + minPoints + ")";
+	}
+}
@@ -0,0 +1,103 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap of events ordered by their end time.<br>
+ * <br>
+ * Holds each event at most once, together with the end time it had when it
+ * was added. The end time of an event may grow afterwards, the caller compares
+ * the queued end time with the current one when the event comes out of the
+ * queue and {@link #add(int, long) adds} it again if necessary.
+ *
+ * @author Son of Hubert
+ *
+ */
+class EndTimeQueue {
+
+	private long[] endTimes = new long[16];
+	private int[] events = new int[16];
+	private int size = 0;
+
+	/**
+	 * Add an event
+	 *
+	 * @param event   the index of the event
+	 * @param endTime the current end time of the event
+	 */
+	void add(int event, long endTime) {
+		if (size == events.length) {
+			endTimes = Arrays.copyOf(endTimes, size * 2);
+			events = Arrays.copyOf(events, size * 2);
+		}
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (endTimes[parent] <= endTime) {
+				break;
+			}
+			endTimes[i] = endTimes[parent];
+			events[i] = events[parent];
+			i = parent;
+		}
+		endTimes[i] = endTime;
+		events[i] = event;
+	}
+
+	/**
+	 * @return true if no event is queued
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the earliest queued end time
+	 */
+	long peekEndTime() {
+		if (size == 0) {
+			throw new IllegalStateException("Queue is empty");
+		}
+		return endTimes[0];
+	}
+
+	/**
+	 * @return the event with the earliest queued end time
+	 */
+	int peekEvent() {
+		if (size == 0) {
+			throw new IllegalStateException("Queue is empty");
+		}
+		return events[0];
+	}
+
+	/**
+	 * Remove the event with the earliest queued end time
+	 */
+	void remove() {
+		if (size == 0) {
+			throw new IllegalStateException("Queue is empty");
+		}
+		size--;
+		long endTime = endTimes[size];
+		int event = events[size];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && endTimes[child + 1] < endTimes[child]) {
+				child++;
+			}
+			if (endTime <= endTimes[child]) {
+				break;
+			}
+			endTimes[i] = endTimes[child];
+			events[i] = events[child];
+			i = child;
+		}
+		endTimes[i] = endTime;
+		events[i] = event;
+	}
+}
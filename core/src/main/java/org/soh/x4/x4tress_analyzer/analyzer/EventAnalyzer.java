@@ -0,0 +1,991 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.model.EventName;
+import org.soh.x4.x4tress_analyzer.model.GlobalEvent;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.model.ShipInfo;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * The Event Analyzer.<br>
+ * <br>
+ * Analyzes the list of {@link org.soh.x4.x4tress_analyzer.model.GlobalEvent
+ * GlobalEvents} and combines them into
+ * {@link org.soh.x4.x4tress_analyzer.model.ProcessedEvent ProcessedEvents}
+ * 
+ * The events are read directly from the columns of their
+ * {@link org.soh.x4.x4tress_analyzer.model.GlobalEventStore GlobalEventStore}.
+ * The sectors are analyzed independently of each other, in parallel on a
+ * fork/join pool.
+ * 
+ * The Event Processor is also responsible for clearing up deprecated data /
+ * keeping memory in check.
+ * 
+ * This is the reference implementation for soh_analyzer.xml in soh_x4tress
+ * 
+ * @author Son of Hubert
+ *
+ */
+public class EventAnalyzer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EventAnalyzer.class);
+
+	/**
+	 * The maximum time that may pass for two Global Events to be combined in
+	 * milliseconds;
+	 */
+	static final long EVENT_MAX_TIME = 60000 * 5; // 5min
+
+	/**
+	 * The maximum range in meters for two Global Events to be combined
+	 */
+	static final double EVENT_MAX_RANGE = 100000.0; // 100km
+
+	/**
+	 * Event size to be classified as a battle
+	 */
+	private static final int MIN_SIZE_FIGHT = 2;
+
+	/**
+	 * Event size to be classified as a skirmish
+	 */
+	private static final int MIN_SIZE_SKIRMISH = 4;
+
+	/**
+	 * Event size to be classified as a battle
+	 */
+	private static final int MIN_SIZE_BATTLE = 30;
+
+	/*
+	 * Dictionary codes of the Strings the analyzer compares against, looked up
+	 * once per run. Strings missing from the dictionary get
+	 * StringDictionary.UNKNOWN_CODE, which never matches any event.
+	 */
+	private int destroyedCode = StringDictionary.UNKNOWN_CODE;
+	private int destroyerCode = StringDictionary.UNKNOWN_CODE;
+	private int battleshipCode = StringDictionary.UNKNOWN_CODE;
+	private int carrierCode = StringDictionary.UNKNOWN_CODE;
+	private int resupplierCode = StringDictionary.UNKNOWN_CODE;
+
+	/**
+	 * The pool analyzing the sectors in parallel, null to analyze them one after
+	 * another in the calling thread
+	 */
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	/**
+	 * Set the pool analyzing the sectors in parallel. Sectors are independent of
+	 * each other, the result is the same as analyzing them one after another.
+	 * 
+	 * @param pool the pool, null to analyze the sectors in the calling thread
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/*
+	 * The thread running the current analysis, and the CPU time and heap bytes
+	 * its sector tasks used on the threads of the pool
+	 */
+	private Thread analyzingThread = null;
+	private final AtomicLong pooledCpuNanos = new AtomicLong();
+	private final AtomicLong pooledAllocatedBytes = new AtomicLong();
+
+	/**
+	 * Get the CPU time the last analysis spent on the threads of the pool. The
+	 * work done by the calling thread itself is not included.
+	 * 
+	 * @return the CPU time in nanoseconds, -1 if unknown
+	 */
+	public long getPooledCpuNanos() {
+		return pooledCpuNanos.get();
+	}
+
+	/**
+	 * Get the heap bytes the last analysis allocated on the threads of the pool.
+	 * The allocations of the calling thread itself are not included.
+	 * 
+	 * @return the allocated bytes, -1 if unknown
+	 */
+	public long getPooledAllocatedBytes() {
+		return pooledAllocatedBytes.get();
+	}
+
+	/**
+	 * Decides which Global Events of a sector form a Processed Event
+	 */
+	private ClusteringStrategy clusteringStrategy = ClusteringStrategy.greedy();
+
+	/**
+	 * Set the strategy deciding which Global Events of a sector form a Processed
+	 * Event
+	 * 
+	 * @param clusteringStrategy the strategy, null for the
+	 *                           {@link ClusteringStrategy#greedy() greedy} one
+	 */
+	public void setClusteringStrategy(ClusteringStrategy clusteringStrategy) {
+		this.clusteringStrategy = clusteringStrategy != null ? clusteringStrategy : ClusteringStrategy.greedy();
+	}
+
+	/**
+	 * Process the Global Events
+	 * 
+	 * @param globalEvents the Global Events store
+	 */
+	public List<ProcessedEvent> processGlobalEvents(GlobalEventStore globalEvents, Map<String, Integer> eventNames, Map<String, List<String>> eligibleForRenaming) {
+
+		LOGGER.debug("Starting to process " + globalEvents.size() + " global events!");
+
+		lookupCodes(globalEvents.getDictionary());
+
+		int[] sectorStart = new int[globalEvents.getDictionary().size() + 2];
+		int[] eventsBySector = sortBySector(globalEvents, null, globalEvents.size(), sectorStart);
+
+		// Collect / summarize the events for each sector
+		List<SectorTask> tasks = new ArrayList<>();
+		for (int i = 0; i < sectorStart.length - 1; i++) {
+			if (sectorStart[i] < sectorStart[i + 1]) {
+				tasks.add(new SectorTask(globalEvents, eventsBySector, sectorStart[i], sectorStart[i + 1], new ArrayList<>(),
+						Map.of(), eventNames));
+			}
+		}
+
+		return runSectorTasks(tasks, eventNames, eligibleForRenaming);
+	}
+
+	/**
+	 * Continue a previous analysis with the Global Events of a newer savegame of
+	 * the same campaign.<br>
+	 * Only the Global Events after the newest event known to the previous
+	 * analysis, in order of time and position, are processed. They are added to
+	 * the previous Processed Events of their sector, exactly as if they had been
+	 * part of the previous analysis. The previous Processed Events may still be
+	 * on display, so they are left untouched and copies of them are continued.
+	 * The major events of the copies are bound to the newer store, so the store
+	 * of the previous analysis can be released.<br>
+	 * The renaming candidates depend on the kill totals of each event and are
+	 * collected again from all Processed Events.
+	 * 
+	 * @param globalEvents        the Global Events store of the newer savegame
+	 * @param previousEvents      the Processed Events of the previous analysis,
+	 *                            not changed
+	 * @param latestKnownEvent    the index in the newer store of the newest
+	 *                            Global Event of the previous analysis
+	 * @param eventNames          the event names of the previous analysis, updated
+	 *                            with the new battles
+	 * @param eligibleForRenaming the renaming candidates to fill
+	 * @return the continued copies of the previous Processed Events and the new
+	 *         Processed Events
+	 */
+	public List<ProcessedEvent> processNewGlobalEvents(GlobalEventStore globalEvents, List<ProcessedEvent> previousEvents,
+			int latestKnownEvent, Map<String, Integer> eventNames, Map<String, List<String>> eligibleForRenaming) {
+
+		StringDictionary dictionary = globalEvents.getDictionary();
+		lookupCodes(dictionary);
+
+		// Events of the same millisecond as the newest known one are only new if
+		// they come after it
+		long latestKnownTimestamp = globalEvents.getTimestampMillis(latestKnownEvent);
+		int[] newEvents = new int[globalEvents.size()];
+		int newEventCount = 0;
+		for (int event = 0; event < globalEvents.size(); event++) {
+			long timestamp = globalEvents.getTimestampMillis(event);
+			if (timestamp > latestKnownTimestamp || (timestamp == latestKnownTimestamp && event > latestKnownEvent)) {
+				newEvents[newEventCount++] = event;
+			}
+		}
+		LOGGER.debug("Starting to process " + newEventCount + " new global events!");
+
+		// Continue the previous Processed Events of each sector, indexed by sector
+		// code. Sectors no longer known to the savegame are kept as they are.
+		List<List<ProcessedEvent>> previousBySector = new ArrayList<>(dictionary.size() + 1);
+		for (int i = 0; i <= dictionary.size(); i++) {
+			previousBySector.add(null);
+		}
+		List<ProcessedEvent> unknownSectorEvents = new ArrayList<>();
+		Map<ProcessedEvent, String> previousEventTypes = new IdentityHashMap<>();
+		List<ProcessedEvent> continuedEvents = new ArrayList<>(previousEvents.size());
+		for (ProcessedEvent previousEvent : previousEvents) {
+			ProcessedEvent pEvent = previousEvent.copy(dictionary);
+			continuedEvents.add(pEvent);
+			previousEventTypes.put(pEvent, pEvent.getEventType());
+			int sectorCode = dictionary.lookup(pEvent.getSector());
+			if (sectorCode == StringDictionary.UNKNOWN_CODE) {
+				unknownSectorEvents.add(pEvent);
+			} else {
+				List<ProcessedEvent> sectorProcessedEvents = previousBySector.get(sectorCode + 1);
+				if (sectorProcessedEvents == null) {
+					sectorProcessedEvents = new ArrayList<>();
+					previousBySector.set(sectorCode + 1, sectorProcessedEvents);
+				}
+				sectorProcessedEvents.add(pEvent);
+			}
+		}
+
+		rebindMajorEvents(globalEvents, continuedEvents);
+
+		int[] sectorStart = new int[dictionary.size() + 2];
+		int[] eventsBySector = sortBySector(globalEvents, newEvents, newEventCount, sectorStart);
+
+		List<SectorTask> tasks = new ArrayList<>();
+		for (int i = 0; i < sectorStart.length - 1; i++) {
+			List<ProcessedEvent> sectorProcessedEvents = previousBySector.get(i);
+			if (sectorStart[i] < sectorStart[i + 1] && sectorProcessedEvents == null) {
+				sectorProcessedEvents = new ArrayList<>();
+			}
+			if (sectorProcessedEvents != null) {
+				tasks.add(new SectorTask(globalEvents, eventsBySector, sectorStart[i], sectorStart[i + 1], sectorProcessedEvents,
+						previousEventTypes, eventNames));
+			}
+		}
+		if (!unknownSectorEvents.isEmpty()) {
+			tasks.add(new SectorTask(globalEvents, eventsBySector, 0, 0, unknownSectorEvents, previousEventTypes, eventNames));
+		}
+
+		return runSectorTasks(tasks, eventNames, eligibleForRenaming);
+	}
+
+	/**
+	 * Bind the major events of continued Processed Events to the same Global
+	 * Events of the newer store. A Global Event is the same if its time, type,
+	 * attacker and attacked match, several equal Global Events are bound in
+	 * order. Major events that are no longer part of the newer savegame are
+	 * copied into a store of their own.
+	 * 
+	 * @param globalEvents    the Global Events store of the newer savegame
+	 * @param continuedEvents the copies of the previous Processed Events
+	 */
+	private void rebindMajorEvents(GlobalEventStore globalEvents, List<ProcessedEvent> continuedEvents) {
+		// The major events of other stores by their timestamp
+		Map<Long, List<GlobalEvent>> unbound = new HashMap<>();
+		long minTimestamp = Long.MAX_VALUE;
+		long maxTimestamp = Long.MIN_VALUE;
+		for (ProcessedEvent pEvent : continuedEvents) {
+			for (GlobalEvent majorEvent : pEvent.getMajorEvents()) {
+				if (majorEvent.getStore() != globalEvents) {
+					long timestamp = majorEvent.getStore().getTimestampMillis(majorEvent.getIndex());
+					unbound.computeIfAbsent(timestamp, t -> new ArrayList<>()).add(majorEvent);
+					minTimestamp = Math.min(minTimestamp, timestamp);
+					maxTimestamp = Math.max(maxTimestamp, timestamp);
+				}
+			}
+		}
+		if (unbound.isEmpty()) {
+			return;
+		}
+
+		Map<GlobalEvent, GlobalEvent> rebound = new IdentityHashMap<>();
+		for (int event = 0; event < globalEvents.size(); event++) {
+			long timestamp = globalEvents.getTimestampMillis(event);
+			if (timestamp < minTimestamp || timestamp > maxTimestamp) {
+				continue;
+			}
+			List<GlobalEvent> candidates = unbound.get(timestamp);
+			if (candidates == null) {
+				continue;
+			}
+			for (int i = 0; i < candidates.size(); i++) {
+				GlobalEvent candidate = candidates.get(i);
+				if (globalEvents.isSameEvent(event, candidate.getStore(), candidate.getIndex())) {
+					rebound.put(candidate, globalEvents.get(event));
+					candidates.remove(i);
+					break;
+				}
+			}
+		}
+
+		GlobalEventStore removedEvents = null;
+		for (List<GlobalEvent> candidates : unbound.values()) {
+			for (GlobalEvent candidate : candidates) {
+				if (removedEvents == null) {
+					removedEvents = new GlobalEventStore(new StringDictionary(), candidates.size());
+				}
+				rebound.put(candidate, removedEvents.get(removedEvents.addCopy(candidate.getStore(), candidate.getIndex())));
+			}
+		}
+		if (removedEvents != null) {
+			LOGGER.debug("Kept " + removedEvents.size() + " major events that are no longer part of the savegame!");
+		}
+
+		for (ProcessedEvent pEvent : continuedEvents) {
+			List<GlobalEvent> majorEvents = pEvent.getMajorEvents();
+			for (int i = 0; i < majorEvents.size(); i++) {
+				GlobalEvent reboundEvent = rebound.get(majorEvents.get(i));
+				if (reboundEvent != null) {
+					majorEvents.set(i, reboundEvent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Run the analysis of the sectors, in parallel if a pool is set. The results
+	 * are merged in the order of the tasks, so they do not depend on the order
+	 * the tasks finish in.
+	 * 
+	 * @param tasks               the sector tasks
+	 * @param eventNames          the event names, updated with the names of the
+	 *                            sectors
+	 * @param eligibleForRenaming the renaming candidates to fill
+	 * @return the Processed Events of all sectors
+	 */
+	private List<ProcessedEvent> runSectorTasks(List<SectorTask> tasks, Map<String, Integer> eventNames,
+			Map<String, List<String>> eligibleForRenaming) {
+		analyzingThread = Thread.currentThread();
+		pooledCpuNanos.set(0);
+		pooledAllocatedBytes.set(0);
+		if (pool == null || tasks.size() < 2) {
+			for (SectorTask task : tasks) {
+				task.invoke();
+			}
+		} else {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		}
+
+		List<ProcessedEvent> processedEvents = new ArrayList<>();
+		Map<String, Integer> sectorEventNames = new HashMap<>();
+		for (SectorTask task : tasks) {
+			processedEvents.addAll(task.processedEvents);
+			// Each sector only names the battles of its own sector
+			for (Map.Entry<String, Integer> entry : task.eventNames.entrySet()) {
+				if (!Objects.equals(entry.getValue(), eventNames.get(entry.getKey()))) {
+					sectorEventNames.put(entry.getKey(), entry.getValue());
+				}
+			}
+			for (Map.Entry<String, List<String>> entry : task.eligibleForRenaming.entrySet()) {
+				List<String> nameList = eligibleForRenaming.get(entry.getKey());
+				if (nameList == null) {
+					eligibleForRenaming.put(entry.getKey(), entry.getValue());
+				} else {
+					nameList.addAll(entry.getValue());
+				}
+			}
+		}
+		eventNames.putAll(sectorEventNames);
+		return processedEvents;
+	}
+
+	/**
+	 * Look up the codes of the Strings the analyzer compares against
+	 * 
+	 * @param dictionary the dictionary of the Global Events
+	 */
+	void lookupCodes(StringDictionary dictionary) {
+		destroyedCode = dictionary.lookup("SoHDestroyed");
+		destroyerCode = dictionary.lookup("destroyer");
+		battleshipCode = dictionary.lookup("battleship");
+		carrierCode = dictionary.lookup("carrier");
+		resupplierCode = dictionary.lookup("resupplier");
+	}
+
+	/**
+	 * Split events by sector with a counting sort over the sector codes. The event
+	 * indices of sector code c end up in the result from sectorStart[c + 1] to
+	 * sectorStart[c + 2], events without a sector first. The order of the events
+	 * within a sector is kept.
+	 * 
+	 * @param globalEvents the Global Events store
+	 * @param events       the indices of the events to sort, null for all events
+	 * @param eventCount   the number of events to sort
+	 * @param sectorStart  filled with the start of each sector, must have room for
+	 *                     the dictionary size + 2 entries
+	 * @return the event indices grouped by sector
+	 */
+	private int[] sortBySector(GlobalEventStore globalEvents, int[] events, int eventCount, int[] sectorStart) {
+		for (int i = 0; i < eventCount; i++) {
+			int event = events == null ? i : events[i];
+			sectorStart[globalEvents.getSectorCode(event) + 2]++;
+		}
+		int sectorCount = 0;
+		for (int i = 1; i < sectorStart.length; i++) {
+			if (sectorStart[i] > 0) {
+				sectorCount++;
+			}
+			sectorStart[i] += sectorStart[i - 1];
+		}
+		int[] eventsBySector = new int[eventCount];
+		int[] sectorEnd = Arrays.copyOf(sectorStart, sectorStart.length);
+		for (int i = 0; i < eventCount; i++) {
+			int event = events == null ? i : events[i];
+			eventsBySector[sectorEnd[globalEvents.getSectorCode(event) + 1]++] = event;
+		}
+
+		LOGGER.debug("Recorded Events in " + sectorCount + " sectors!");
+		return eventsBySector;
+	}
+
+	/**
+	 * Classify a Processed Event by its size. Events that just became a battle
+	 * also get a name.
+	 * 
+	 * @param pEvent            the Processed Event
+	 * @param previousEventType the type of the event before the current analysis,
+	 *                          null for new events
+	 * @param eventNames        the event names
+	 */
+	void classifyEvent(ProcessedEvent pEvent, String previousEventType, Map<String, Integer> eventNames) {
+		Integer numberOfParticipants = pEvent.getNumberOfParticipants();
+		if (numberOfParticipants < MIN_SIZE_FIGHT) {
+			pEvent.setEventType("nothing");
+			pEvent.setScale("false");
+		} else if (numberOfParticipants >= MIN_SIZE_FIGHT && numberOfParticipants < MIN_SIZE_SKIRMISH) {
+			pEvent.setEventType("fight");
+			pEvent.setScale("tiny");
+		} else if (numberOfParticipants >= MIN_SIZE_SKIRMISH && numberOfParticipants < MIN_SIZE_BATTLE) {
+			pEvent.setEventType("skirmish");
+			pEvent.setScale("medium");
+		} else if (numberOfParticipants >= MIN_SIZE_BATTLE) {
+			pEvent.setEventType("battle");
+			pEvent.setScale("large");
+			// Battles also deserve their own names
+			if (!"battle".equals(previousEventType)) {
+				EventName eventName = new EventName();
+				eventName.setEventName("Battle of " + pEvent.getSector());
+				Integer eventNo = eventNames.get(eventName.getEventName());
+				if (eventNo == null || eventNo == 0) {
+					eventNo = 0;
+				} else {
+					eventNo = eventNo + 1;
+				}
+				eventName.setEventNo(eventNo);
+				eventNames.put(eventName.getEventName(), eventNo);
+			}
+		}
+	}
+
+	/**
+	 * Collect the events of a sector into Processed Events
+	 * 
+	 * @param globalEvents the Global Events store
+	 * @param sectorEvents the event indices, grouped by sector
+	 * @param from the first event index of the sector in sectorEvents
+	 * @param to the end of the sector in sectorEvents, exclusive
+	 * @param processedEvents the Processed Events of the sector so far, in order of creation. New Processed Events are added.
+	 */
+	private void collectSectorEvents(GlobalEventStore globalEvents, int[] sectorEvents, int from, int to, List<ProcessedEvent> processedEvents) {
+		String sector = globalEvents.getSector(sectorEvents[from]);
+		LOGGER.info(
+				"Processing " + (to - from) + " events for sector '" + sector + "'!");
+
+		sortByTime(globalEvents, sectorEvents, from, to);
+		clusteringStrategy.cluster(this, globalEvents, sectorEvents, from, to, processedEvents);
+	}
+
+	/**
+	 * Create a new Processed Event for a Global Event
+	 * 
+	 * @param globalEvents the Global Events store
+	 * @param sectorEvent  the Global Event index
+	 * @return the Processed Event
+	 */
+	ProcessedEvent createEvent(GlobalEventStore globalEvents, int sectorEvent) {
+		LOGGER.debug("Creating new Event in sector '" + globalEvents.getSector(sectorEvent) + "'!");
+		ProcessedEvent pEvent = new ProcessedEvent();
+		pEvent.setSector(globalEvents.getSector(sectorEvent));
+		pEvent.setNumberOfEvents(1);
+		long timestamp = globalEvents.getTimestampMillis(sectorEvent);
+		pEvent.setStartTimeMillis(timestamp);
+		pEvent.setEndTimeMillis(timestamp);
+		pEvent.setCenter(globalEvents.getAttackedPos(sectorEvent));
+		pEvent.addParticipant(globalEvents.getAttackerId(sectorEvent), globalEvents.getAttackerType(sectorEvent), globalEvents.getAttackerFaction(sectorEvent));
+		pEvent.addParticipant(globalEvents.getAttackedId(sectorEvent), globalEvents.getAttackedType(sectorEvent), globalEvents.getAttackedFaction(sectorEvent));
+		if (globalEvents.getEventTypeCode(sectorEvent) == destroyedCode) {
+			pEvent.addKillForParticipant(globalEvents.getAttackerId(sectorEvent));
+		}
+		pEvent.addFaction(globalEvents.getAttackerFactionCode(sectorEvent), globalEvents.getAttackerFaction(sectorEvent));
+		pEvent.addFaction(globalEvents.getAttackedFactionCode(sectorEvent), globalEvents.getAttackedFaction(sectorEvent));
+		if (isEventMajor(globalEvents, sectorEvent)) {
+			pEvent.getMajorEvents().add(globalEvents.get(sectorEvent));
+		}
+		return pEvent;
+	}
+
+	/**
+	 * Sort the events of a sector by their timestamp. Events with the same
+	 * timestamp keep their order.
+	 * 
+	 * @param globalEvents the Global Events store
+	 * @param sectorEvents the event indices, grouped by sector
+	 * @param from         the first event index of the sector in sectorEvents
+	 * @param to           the end of the sector in sectorEvents, exclusive
+	 */
+	void sortByTime(GlobalEventStore globalEvents, int[] sectorEvents, int from, int to) {
+		boolean sorted = true;
+		for (int i = from + 1; i < to && sorted; i++) {
+			sorted = globalEvents.getTimestampMillis(sectorEvents[i - 1]) <= globalEvents.getTimestampMillis(sectorEvents[i]);
+		}
+		if (sorted) {
+			return;
+		}
+		// Sort the rank of each timestamp together with the position of the event,
+		// packed into one long, so equal timestamps keep their order
+		int count = to - from;
+		long[] timestamps = new long[count];
+		for (int i = 0; i < count; i++) {
+			timestamps[i] = globalEvents.getTimestampMillis(sectorEvents[from + i]);
+		}
+		long[] sortedTimestamps = Arrays.copyOf(timestamps, count);
+		Arrays.sort(sortedTimestamps);
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = (long) Arrays.binarySearch(sortedTimestamps, timestamps[i]) << 32 | i;
+		}
+		Arrays.sort(keys);
+		int[] events = Arrays.copyOfRange(sectorEvents, from, to);
+		for (int i = 0; i < count; i++) {
+			sectorEvents[from + i] = events[(int) keys[i]];
+		}
+	}
+
+	/**
+	 * Checks if a Global Event belongs to a Processed event
+	 * 
+	 * @param pEvent the processed Event
+	 * @param globalEvents the Global Events store
+	 * @param gEvent the global Event index
+	 * @return true if the Global Event should be considered as part of the
+	 *         Processed Event
+	 */
+	private boolean belongsToEvent(ProcessedEvent pEvent, GlobalEventStore globalEvents, int gEvent) {
+		return IsInTime(pEvent, globalEvents, gEvent) && isInDistance(pEvent, globalEvents, gEvent);
+	}
+
+	/**
+	 * Add a Global Event to the Processed Event it belongs to
+	 * 
+	 * @param pEvent the processed Event
+	 * @param globalEvents the Global Events store
+	 * @param gEvent the global Event index
+	 */
+	void addToEvent(ProcessedEvent pEvent, GlobalEventStore globalEvents, int gEvent) {
+		// shift the processed events center point according to its weight
+		long timestamp = globalEvents.getTimestampMillis(gEvent);
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Adding Global Event at timestamp '" + globalEvents.getTimestamp(gEvent)
+					+ "' to processed Event starting at " + pEvent.getStartTime() + "!");
+		}
+		pEvent = ShiftEventCenter(pEvent, globalEvents, gEvent);
+		pEvent.setEndTimeMillis(timestamp);
+		pEvent.addParticipant(globalEvents.getAttackerId(gEvent), globalEvents.getAttackerType(gEvent), globalEvents.getAttackerFaction(gEvent));
+		pEvent.addParticipant(globalEvents.getAttackedId(gEvent), globalEvents.getAttackedType(gEvent), globalEvents.getAttackedFaction(gEvent));
+		if (globalEvents.getEventTypeCode(gEvent) == destroyedCode) {
+			pEvent.addKillForParticipant(globalEvents.getAttackerId(gEvent));
+		}
+		pEvent.addFaction(globalEvents.getAttackerFactionCode(gEvent), globalEvents.getAttackerFaction(gEvent));
+		pEvent.addFaction(globalEvents.getAttackedFactionCode(gEvent), globalEvents.getAttackedFaction(gEvent));
+		pEvent.setNumberOfEvents(pEvent.getNumberOfEvents() + 1);
+		if (isEventMajor(globalEvents, gEvent)) {
+			pEvent.getMajorEvents().add(globalEvents.get(gEvent));
+		}
+	}
+
+	/**
+	 * Checks if a given Global Event is within time range of a processed Event.<br>
+	 * A Processed Event without an end time takes Global Events of any time. A
+	 * Global Event without a timestamp is not in time of a Processed Event that
+	 * has one, so a Processed Event never loses its end time and can always be
+	 * retired.
+	 * 
+	 * @param pEvent the processed Event
+	 * @param globalEvents the Global Events store
+	 * @param gEvent the global Event index
+	 * @return true if the global Event is within time range
+	 */
+	private boolean IsInTime(ProcessedEvent pEvent, GlobalEventStore globalEvents, int gEvent) {
+		// NO_TIMESTAMP is Long.MIN_VALUE, check for it before subtracting or the
+		// difference overflows
+		long endTime = pEvent.getEndTimeMillis();
+		if (endTime == GlobalEventStore.NO_TIMESTAMP) {
+			return true;
+		}
+		long timestamp = globalEvents.getTimestampMillis(gEvent);
+		if (timestamp == GlobalEventStore.NO_TIMESTAMP) {
+			return false;
+		}
+		return (timestamp - endTime) < EVENT_MAX_TIME;
+	}
+
+	/**
+	 * Checks if a given Global Event is within range of a processed Event<br>
+	 * 
+	 * @param pEvent the processed Event
+	 * @param globalEvents the Global Events store
+	 * @param gEvent the global Event index
+	 * @return true if the global Event is within range
+	 */
+	private boolean isInDistance(ProcessedEvent pEvent, GlobalEventStore globalEvents, int gEvent) {
+		// Check distance
+		Position center = pEvent.getCenter();
+		if (!globalEvents.hasAttackedPos(gEvent) || center == null) {
+			LOGGER.error("Processed Event " + pEvent.getStartTime() + " center is : " + pEvent.getCenter()
+					+ " Global Event " + globalEvents.getTimestamp(gEvent) + " Attacked Pos is: " + globalEvents.getAttackedPos(gEvent));
+			return false;
+		}
+		double distance = Math.sqrt(Math.pow(globalEvents.getAttackedX(gEvent) - center.getX(), 2)
+				+ Math.pow(globalEvents.getAttackedY(gEvent) - center.getY(), 2) + Math.pow(globalEvents.getAttackedZ(gEvent) - center.getZ(), 2));
+
+		return distance < EVENT_MAX_RANGE;
+	}
+
+	/**
+	 * Shift the center of a processed Event by including a new global Event
+	 * 
+	 * @param pEvent the Processed Event
+	 * @param globalEvents the Global Events store
+	 * @param gEvent the Global Event index
+	 * @return the Processed Event
+	 */
+	private ProcessedEvent ShiftEventCenter(ProcessedEvent pEvent, GlobalEventStore globalEvents, int gEvent) {
+		Integer numberOfEvents = pEvent.getNumberOfEvents();
+		Position center = pEvent.getCenter();
+		Double centerX = center.getX() * numberOfEvents;
+		Double centerY = center.getY() * numberOfEvents;
+		Double centerZ = center.getZ() * numberOfEvents;
+
+		centerX = centerX + globalEvents.getAttackedX(gEvent);
+		centerY = centerY + globalEvents.getAttackedY(gEvent);
+		centerZ = centerZ + globalEvents.getAttackedZ(gEvent);
+
+		numberOfEvents++;
+		centerX = centerX / numberOfEvents;
+		centerY = centerY / numberOfEvents;
+		centerZ = centerZ / numberOfEvents;
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Shifting center of processed Event starting at '" + pEvent.getStartTime() + "' from x: "
+					+ pEvent.getCenter().getX() + " y: " + pEvent.getCenter().getY() + " z: " + pEvent.getCenter().getZ()
+					+ " to x: " + centerX + " y: " + centerY + " z: " + centerZ + "!");
+		}
+
+		center.setX(centerX);
+		center.setX(centerY);
+		center.setX(centerZ);
+		pEvent.setCenter(center);
+
+		return pEvent;
+	}
+
+	/**
+	 * Checks if a global Event can be considered a major event<br>
+	 * E.g. if a capital ship was destroyed
+	 * @param globalEvents the Global Events store
+	 * @param gEvent the global event index
+	 * @return true if the event is considered to be major
+	 */
+	private boolean isEventMajor(GlobalEventStore globalEvents, int gEvent) {
+		int shipType = globalEvents.getAttackedTypeCode(gEvent);
+		if (globalEvents.getEventTypeCode(gEvent) == destroyedCode && shipType == destroyerCode || shipType == battleshipCode
+				|| shipType == carrierCode || shipType == resupplierCode) {
+			if(globalEvents.getTargetComponent(gEvent) == null) {
+				return true;				
+			}
+		}
+
+		return false;
+	}
+	
+	/**
+	 * Check if there are any ships in an event that are eligible for renaming
+	 * @param pEvent
+	 */
+	void checkRenamingPossibility(ProcessedEvent pEvent, Map<String, List<String>> eligibleForRenaming) {
+		for (ShipInfo participant : pEvent.getParticipants().values()) {
+			
+			List<String> nameList = eligibleForRenaming.get(participant.getShipId());
+			if (nameList == null) {
+				nameList = new ArrayList<>();
+			}
+			
+			int noOfKills = participant.getNoOfKills();
+			if (noOfKills > 30) {
+				nameList.add("Slayer of " + pEvent.getSector());
+			} else if (noOfKills > 20) {
+				nameList.add("Hero of " + pEvent.getSector());
+			} else if (noOfKills > 10) {
+				nameList.add("Defender of " + pEvent.getSector());
+			}
+			if (nameList.size() > 0) {
+				eligibleForRenaming.put(participant.getShipId(), nameList);
+			}
+		}
+	}
+
+	/**
+	 * The analysis of a single sector: collecting its new Global Events into its
+	 * Processed Events and post processing them. Names and renaming candidates
+	 * are collected in maps of the task, to be merged by
+	 * {@link EventAnalyzer#runSectorTasks(List, Map, Map) runSectorTasks}.
+	 */
+	private class SectorTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final GlobalEventStore globalEvents;
+		private final int[] eventsBySector;
+		private final int from;
+		private final int to;
+		private final List<ProcessedEvent> processedEvents;
+		private final Map<ProcessedEvent, String> previousEventTypes;
+		private final Map<String, Integer> eventNames;
+		private final Map<String, List<String>> eligibleForRenaming = new HashMap<>();
+
+		/**
+		 * Constructor
+		 * 
+		 * @param globalEvents       the Global Events store
+		 * @param eventsBySector     the event indices, grouped by sector
+		 * @param from               the first event index of the sector in
+		 *                           eventsBySector
+		 * @param to                 the end of the sector in eventsBySector,
+		 *                           exclusive. Equal to from if the sector has no
+		 *                           new events.
+		 * @param processedEvents    the Processed Events of the sector so far
+		 * @param previousEventTypes the types of previous Processed Events
+		 * @param eventNames         the event names before the analysis, copied
+		 */
+		SectorTask(GlobalEventStore globalEvents, int[] eventsBySector, int from, int to, List<ProcessedEvent> processedEvents,
+				Map<ProcessedEvent, String> previousEventTypes, Map<String, Integer> eventNames) {
+			this.globalEvents = globalEvents;
+			this.eventsBySector = eventsBySector;
+			this.from = from;
+			this.to = to;
+			this.processedEvents = processedEvents;
+			this.previousEventTypes = previousEventTypes;
+			this.eventNames = new HashMap<>(eventNames);
+		}
+
+		@Override
+		protected void compute() {
+			// The calling thread measures its own work
+			boolean pooled = Thread.currentThread() != analyzingThread;
+			long cpuStart = pooled ? ThreadUsage.cpuNanos() : -1;
+			long allocatedStart = pooled ? ThreadUsage.allocatedBytes() : -1;
+
+			if (from < to) {
+				collectSectorEvents(globalEvents, eventsBySector, from, to, processedEvents);
+			}
+
+			// Post Process the Events
+			for (ProcessedEvent pEvent : processedEvents) {
+				classifyEvent(pEvent, previousEventTypes.get(pEvent), eventNames);
+				checkRenamingPossibility(pEvent, eligibleForRenaming);
+			}
+
+			if (pooled) {
+				long cpuNanos = ThreadUsage.between(cpuStart, ThreadUsage.cpuNanos());
+				long allocatedBytes = ThreadUsage.between(allocatedStart, ThreadUsage.allocatedBytes());
+				pooledCpuNanos.accumulateAndGet(cpuNanos, ThreadUsage::sum);
+				pooledAllocatedBytes.accumulateAndGet(allocatedBytes, ThreadUsage::sum);
+			}
+		}
+	}
+
+	/**
+	 * The Processed Events of a sector while its Global Events are collected.<br>
+	 * <br>
+	 * Only Processed Events whose center is in one of the neighboring cells of a
+	 * Global Event can be in range. Processed Events that ended too long ago are
+	 * retired from the grid, the queue hands them out in order of their end
+	 * time.<br>
+	 * If retired Processed Events are not kept, their slots are dropped once
+	 * they are the majority, so the memory follows the open Processed Events.<br>
+	 * The Global Events must be added in order of time.
+	 */
+	class SectorClusters {
+
+		private final List<ProcessedEvent> processedEvents;
+		private final boolean keepRetired;
+		private EventGrid grid;
+		private EndTimeQueue activeEvents;
+		private final BitSet retiredEvents = new BitSet();
+		private int retiredCount = 0;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param processedEvents the Processed Events of the sector so far, in order
+		 *                        of creation. New Processed Events are added.
+		 * @param keepRetired     true to keep retired Processed Events in the list,
+		 *                        false to remove them from the list once they are
+		 *                        retired
+		 */
+		SectorClusters(List<ProcessedEvent> processedEvents, boolean keepRetired) {
+			this.processedEvents = processedEvents;
+			this.keepRetired = keepRetired;
+			index();
+		}
+
+		/**
+		 * @return true if all Processed Events of the sector are retired
+		 */
+		boolean isEmpty() {
+			return retiredCount == processedEvents.size();
+		}
+
+		/**
+		 * @return the number of Processed Events in the list, including the
+		 *         retired ones that were not removed yet
+		 */
+		int size() {
+			return processedEvents.size();
+		}
+
+		/**
+		 * Add a Global Event to the first Processed Event in range and in time, or
+		 * create a new Processed Event for it
+		 * 
+		 * @param globalEvents the Global Events store
+		 * @param sectorEvent  the Global Event index
+		 */
+		void add(GlobalEventStore globalEvents, int sectorEvent) {
+			if (!globalEvents.hasAttackedPos(sectorEvent)) {
+				LOGGER.error("Global Event " + globalEvents.getTimestamp(sectorEvent) + " in sector '"
+						+ globalEvents.getSector(sectorEvent) + "' has no attacked position!");
+				return;
+			}
+
+			// Check if any existing processed Events are in range and in time. The
+			// first one in order of creation takes the event.
+			int found = grid.findFirst(globalEvents.getAttackedX(sectorEvent), globalEvents.getAttackedY(sectorEvent),
+					globalEvents.getAttackedZ(sectorEvent), p -> belongsToEvent(processedEvents.get(p), globalEvents, sectorEvent));
+			if (found != EventGrid.NOT_FOUND) {
+				ProcessedEvent pEvent = processedEvents.get(found);
+				long previousEndTime = pEvent.getEndTimeMillis();
+				addToEvent(pEvent, globalEvents, sectorEvent);
+				grid.move(found, pEvent.getCenter());
+				if (previousEndTime == GlobalEventStore.NO_TIMESTAMP && pEvent.getEndTimeMillis() != GlobalEventStore.NO_TIMESTAMP) {
+					activeEvents.add(found, pEvent.getEndTimeMillis());
+				}
+			} else {
+				// If no processed event takes it, create a new one
+				ProcessedEvent pEvent = createEvent(globalEvents, sectorEvent);
+				long timestamp = pEvent.getStartTimeMillis();
+				grid.add(processedEvents.size(), pEvent.getCenter());
+				if (timestamp != GlobalEventStore.NO_TIMESTAMP) {
+					activeEvents.add(processedEvents.size(), timestamp);
+				}
+				processedEvents.add(pEvent);
+			}
+		}
+
+		/**
+		 * Retire the Processed Events that can no longer take any Global Event. The
+		 * Global Events are added in order of time, so once a Global Event is not
+		 * {@link EventAnalyzer#IsInTime(ProcessedEvent, GlobalEventStore, int) in
+		 * time} of a Processed Event, no later one is either.
+		 * 
+		 * @param timestamp the timestamp of the next Global Event
+		 * @param retired   receives the retired Processed Events, may be null
+		 */
+		void retire(long timestamp, Consumer<ProcessedEvent> retired) {
+			// Only Processed Events with an end time are queued, and IsInTime keeps
+			// them from taking Global Events without one, so the differences below
+			// never involve NO_TIMESTAMP
+			if (timestamp == GlobalEventStore.NO_TIMESTAMP) {
+				return;
+			}
+			while (!activeEvents.isEmpty() && timestamp - activeEvents.peekEndTime() >= EVENT_MAX_TIME) {
+				int event = activeEvents.peekEvent();
+				long queuedEndTime = activeEvents.peekEndTime();
+				activeEvents.remove();
+				long endTime = processedEvents.get(event).getEndTimeMillis();
+				if (endTime != queuedEndTime) {
+					// The event took Global Events since it was queued
+					activeEvents.add(event, endTime);
+				} else {
+					retire(event, retired);
+				}
+			}
+			if (!keepRetired && retiredCount > processedEvents.size() / 2) {
+				compact();
+			}
+		}
+
+		/**
+		 * Retire all Processed Events that are not retired yet, in order of
+		 * creation
+		 * 
+		 * @param retired receives the retired Processed Events, may be null
+		 */
+		void retireAll(Consumer<ProcessedEvent> retired) {
+			while (!activeEvents.isEmpty()) {
+				activeEvents.remove();
+			}
+			for (int event = 0; event < processedEvents.size(); event++) {
+				if (!retiredEvents.get(event)) {
+					retire(event, retired);
+				}
+			}
+		}
+
+		private void retire(int event, Consumer<ProcessedEvent> retired) {
+			grid.remove(event);
+			retiredEvents.set(event);
+			retiredCount++;
+			if (retired != null) {
+				retired.accept(processedEvents.get(event));
+			}
+			if (!keepRetired) {
+				processedEvents.set(event, null);
+			}
+		}
+
+		/**
+		 * Remove the retired Processed Events from the list and index the others
+		 * again. The Processed Events keep their order of creation, so the same
+		 * one takes the next Global Event.
+		 */
+		private void compact() {
+			int open = 0;
+			for (int event = 0; event < processedEvents.size(); event++) {
+				if (!retiredEvents.get(event)) {
+					processedEvents.set(open++, processedEvents.get(event));
+				}
+			}
+			processedEvents.subList(open, processedEvents.size()).clear();
+			retiredEvents.clear();
+			retiredCount = 0;
+			index();
+		}
+
+		/**
+		 * Build the grid and the queue of the Processed Events in the list, none of
+		 * them retired
+		 */
+		private void index() {
+			grid = new EventGrid(EVENT_MAX_RANGE);
+			activeEvents = new EndTimeQueue();
+			for (int p = 0; p < processedEvents.size(); p++) {
+				ProcessedEvent pEvent = processedEvents.get(p);
+				grid.add(p, pEvent.getCenter());
+				if (pEvent.getEndTimeMillis() != GlobalEventStore.NO_TIMESTAMP) {
+					activeEvents.add(p, pEvent.getEndTimeMillis());
+				}
+			}
+		}
+	}
+}
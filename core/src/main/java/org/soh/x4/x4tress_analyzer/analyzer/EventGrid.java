@@ -0,0 +1,288 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import org.soh.x4.x4tress_analyzer.model.Position;
+
+/**
+ * Uniform 3D hash grid over the centers of the Processed Events of a sector,
+ * or over its Global Events.<br>
+ * <br>
+ * Space is divided into cubic cells of the size of the maximum combining
+ * range. Two points closer than the range lie in the same or in adjacent
+ * cells, so a Global Event only has to be tested against the events of the 27
+ * cells around it instead of every event of the sector.<br>
+ * Events are identified by their index in creation order. The centers move
+ * while Global Events are added, so an event has to be {@link #move(int,
+ * Position) moved} after its center changed.<br>
+ * Events without a complete center are not part of the grid and are never
+ * returned as candidates.
+ *
+ * @author Son of Hubert
+ *
+ */
+class EventGrid {
+
+	/**
+	 * Returned by {@link #findFirst(double, double, double, IntPredicate)} if no
+	 * event matches
+	 */
+	static final int NOT_FOUND = -1;
+
+	private static final long NO_CELL = Long.MIN_VALUE;
+
+	/*
+	 * Bits per axis of a packed cell key. Cells further apart than 2^21 cells
+	 * share a key, which only adds candidates that fail the distance test.
+	 */
+	private static final int AXIS_BITS = 21;
+
+	private static final long AXIS_MASK = (1L << AXIS_BITS) - 1;
+
+	private final double cellSize;
+
+	/*
+	 * Open addressing table of the occupied cells. A slot is free as long as its
+	 * bucket is null. Cells are never removed, emptied cells just keep an empty
+	 * bucket.
+	 */
+	private long[] keys = new long[64];
+	private int[][] buckets = new int[64][];
+	private int[] bucketSizes = new int[64];
+	private int cellCount = 0;
+
+	/*
+	 * The cell key of each event, NO_CELL for events outside of the grid
+	 */
+	private long[] eventCells = new long[16];
+	private int eventCount = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cellSize the edge length of a cell, at least the maximum distance of
+	 *                 two matching points
+	 */
+	EventGrid(double cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Add the next event. Events must be added in order of their index.
+	 *
+	 * @param event  the index of the event
+	 * @param center the center of the event, may be null
+	 */
+	void add(int event, Position center) {
+		addEvent(event);
+		move(event, center);
+	}
+
+	/**
+	 * Add the next event at a point. Events must be added in order of their
+	 * index.
+	 *
+	 * @param event the index of the event
+	 * @param x     the x coordinate of the event
+	 * @param y     the y coordinate of the event
+	 * @param z     the z coordinate of the event
+	 */
+	void add(int event, double x, double y, double z) {
+		addEvent(event);
+		long cell = key(cellIndex(x), cellIndex(y), cellIndex(z));
+		insert(cell, event);
+		eventCells[event] = cell;
+	}
+
+	private void addEvent(int event) {
+		if (event != eventCount) {
+			throw new IllegalArgumentException("Expected event " + eventCount + " but got " + event);
+		}
+		if (eventCount == eventCells.length) {
+			eventCells = Arrays.copyOf(eventCells, eventCount * 2);
+		}
+		eventCount++;
+		eventCells[event] = NO_CELL;
+	}
+
+	/**
+	 * Update the cell of an event after its center changed
+	 *
+	 * @param event  the index of the event
+	 * @param center the new center of the event, may be null
+	 */
+	void move(int event, Position center) {
+		long cell = cellOf(center);
+		long previousCell = eventCells[event];
+		if (cell == previousCell) {
+			return;
+		}
+		if (previousCell != NO_CELL) {
+			removeFromCell(slotOf(previousCell), event);
+		}
+		if (cell != NO_CELL) {
+			insert(cell, event);
+		}
+		eventCells[event] = cell;
+	}
+
+	/**
+	 * Remove an event from the grid. It is never returned as a candidate again.
+	 *
+	 * @param event the index of the event
+	 */
+	void remove(int event) {
+		move(event, null);
+	}
+
+	/**
+	 * Find the event with the lowest index among the events near a point that
+	 * matches a test
+	 *
+	 * @param x       the x coordinate of the point
+	 * @param y       the y coordinate of the point
+	 * @param z       the z coordinate of the point
+	 * @param matches the test, only called for events near the point
+	 * @return the index of the first matching event, {@link #NOT_FOUND} if none
+	 *         matches
+	 */
+	int findFirst(double x, double y, double z, IntPredicate matches) {
+		if (cellCount == 0) {
+			return NOT_FOUND;
+		}
+		long cellX = cellIndex(x);
+		long cellY = cellIndex(y);
+		long cellZ = cellIndex(z);
+		int first = NOT_FOUND;
+		for (long dx = -1; dx <= 1; dx++) {
+			for (long dy = -1; dy <= 1; dy++) {
+				for (long dz = -1; dz <= 1; dz++) {
+					int slot = slotOf(key(cellX + dx, cellY + dy, cellZ + dz));
+					int[] bucket = buckets[slot];
+					if (bucket == null) {
+						continue;
+					}
+					for (int i = 0; i < bucketSizes[slot]; i++) {
+						int event = bucket[i];
+						// Only events created before the best match so far can win
+						if ((first == NOT_FOUND || event < first) && matches.test(event)) {
+							first = event;
+						}
+					}
+				}
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Visit all events near a point, in no particular order
+	 *
+	 * @param x       the x coordinate of the point
+	 * @param y       the y coordinate of the point
+	 * @param z       the z coordinate of the point
+	 * @param visitor receives the index of each event near the point
+	 */
+	void forEachNear(double x, double y, double z, IntConsumer visitor) {
+		if (cellCount == 0) {
+			return;
+		}
+		long cellX = cellIndex(x);
+		long cellY = cellIndex(y);
+		long cellZ = cellIndex(z);
+		for (long dx = -1; dx <= 1; dx++) {
+			for (long dy = -1; dy <= 1; dy++) {
+				for (long dz = -1; dz <= 1; dz++) {
+					int slot = slotOf(key(cellX + dx, cellY + dy, cellZ + dz));
+					int[] bucket = buckets[slot];
+					if (bucket == null) {
+						continue;
+					}
+					for (int i = 0; i < bucketSizes[slot]; i++) {
+						visitor.accept(bucket[i]);
+					}
+				}
+			}
+		}
+	}
+
+	private long cellOf(Position center) {
+		if (center == null || center.getX() == null || center.getY() == null || center.getZ() == null) {
+			return NO_CELL;
+		}
+		return key(cellIndex(center.getX()), cellIndex(center.getY()), cellIndex(center.getZ()));
+	}
+
+	private long cellIndex(double coordinate) {
+		return (long) Math.floor(coordinate / cellSize);
+	}
+
+	private static long key(long cellX, long cellY, long cellZ) {
+		return (cellX & AXIS_MASK) << (2 * AXIS_BITS) | (cellY & AXIS_MASK) << AXIS_BITS | (cellZ & AXIS_MASK);
+	}
+
+	/**
+	 * Find the slot of a cell
+	 *
+	 * @param key the cell key
+	 * @return the slot holding the cell, or the free slot it belongs into
+	 */
+	private int slotOf(long key) {
+		int mask = keys.length - 1;
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+		while (buckets[slot] != null && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void insert(long key, int event) {
+		int slot = slotOf(key);
+		int[] bucket = buckets[slot];
+		if (bucket == null) {
+			if ((cellCount + 1) * 2 > keys.length) {
+				rehash();
+				slot = slotOf(key);
+			}
+			bucket = new int[4];
+			keys[slot] = key;
+			buckets[slot] = bucket;
+			cellCount++;
+		} else if (bucketSizes[slot] == bucket.length) {
+			bucket = Arrays.copyOf(bucket, bucket.length * 2);
+			buckets[slot] = bucket;
+		}
+		bucket[bucketSizes[slot]++] = event;
+	}
+
+	private void removeFromCell(int slot, int event) {
+		int[] bucket = buckets[slot];
+		int size = bucketSizes[slot];
+		for (int i = 0; i < size; i++) {
+			if (bucket[i] == event) {
+				bucket[i] = bucket[size - 1];
+				bucketSizes[slot] = size - 1;
+				return;
+			}
+		}
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[][] oldBuckets = buckets;
+		int[] oldSizes = bucketSizes;
+		keys = new long[oldKeys.length * 2];
+		buckets = new int[oldKeys.length * 2][];
+		bucketSizes = new int[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldBuckets[i] != null) {
+				int slot = slotOf(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				buckets[slot] = oldBuckets[i];
+				bucketSizes[slot] = oldSizes[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.List;
+
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+/**
+ * Greedy first fit clustering against the moving center of the Processed
+ * Events, as done by soh_analyzer.xml in soh_x4tress.<br>
+ * Processed Events that can no longer take any Global Event are retired while
+ * the Global Events are added.
+ *
+ * @author Son of Hubert
+ *
+ */
+class GreedyClustering implements ClusteringStrategy {
+
+	static final GreedyClustering INSTANCE = new GreedyClustering();
+
+	private GreedyClustering() {
+	}
+
+	@Override
+	public void cluster(EventAnalyzer analyzer, GlobalEventStore globalEvents, int[] sectorEvents, int from, int to,
+			List<ProcessedEvent> processedEvents) {
+		EventAnalyzer.SectorClusters clusters = analyzer.new SectorClusters(processedEvents, true);
+		for (int i = from; i < to; i++) {
+			int sectorEvent = sectorEvents[i];
+			clusters.retire(globalEvents.getTimestampMillis(sectorEvent), null);
+			clusters.add(globalEvents, sectorEvent);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "greedy";
+	}
+}
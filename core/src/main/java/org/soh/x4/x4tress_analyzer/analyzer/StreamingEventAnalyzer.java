@@ -0,0 +1,235 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * The Streaming Event Analyzer.<br>
+ * <br>
+ * Combines {@link org.soh.x4.x4tress_analyzer.model.GlobalEvent GlobalEvents}
+ * into {@link ProcessedEvent ProcessedEvents} like the {@link EventAnalyzer},
+ * but the Global Events are pushed one at a time while they become available,
+ * e.g. while a {@link GlobalEventStore} is being filled or from a live
+ * source.<br>
+ * The open Processed Events are kept per sector. Once the time window of a
+ * Processed Event has closed, no later Global Event can join it any more. It
+ * is classified and handed to the listener as final. The analyzer drops its
+ * slot once most Processed Events of the sector are final, and stops looking
+ * at a sector until its next Global Event once all of them are, so the memory
+ * follows the open Processed Events rather than all Global Events pushed.<br>
+ * <br>
+ * The Global Events must be pushed in order of time. A Global Event older than
+ * the newest one pushed so far is only combined with the Processed Events that
+ * are still open.<br>
+ * All Global Events must come from the same store. The analyzer is not thread
+ * safe.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class StreamingEventAnalyzer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingEventAnalyzer.class);
+
+	private final EventAnalyzer analyzer = new EventAnalyzer();
+
+	private final Consumer<ProcessedEvent> listener;
+
+	private final Consumer<ProcessedEvent> finalizer = this::finalizeEvent;
+
+	private final Map<String, Integer> eventNames = new HashMap<>();
+
+	private final Map<String, List<String>> eligibleForRenaming = new HashMap<>();
+
+	/*
+	 * The Processed Events by sector code + 1, and the sectors that have open
+	 * ones
+	 */
+	private final List<EventAnalyzer.SectorClusters> sectors = new ArrayList<>();
+	private final List<EventAnalyzer.SectorClusters> activeSectors = new ArrayList<>();
+
+	private GlobalEventStore globalEvents = null;
+
+	/**
+	 * The dictionary size at the last lookup of the analyzer codes. Strings like
+	 * the event types may be added to the dictionary after the first Global
+	 * Events were pushed.
+	 */
+	private int lookupDictionarySize = -1;
+
+	private long latestTimestamp = GlobalEventStore.NO_TIMESTAMP;
+
+	private int finalizedEvents = 0;
+
+	private boolean finished = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param listener receives the Processed Events once they are final
+	 */
+	public StreamingEventAnalyzer(Consumer<ProcessedEvent> listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("The listener must not be null");
+		}
+		this.listener = listener;
+	}
+
+	/**
+	 * Push the next Global Event
+	 *
+	 * @param globalEvents the Global Events store holding the event
+	 * @param event        the Global Event index
+	 * @throws IllegalArgumentException if the event is from a different store
+	 *                                  than the previous events
+	 * @throws IllegalStateException    if the analysis is already finished
+	 */
+	public void push(GlobalEventStore globalEvents, int event) {
+		checkStore(globalEvents);
+		StringDictionary dictionary = globalEvents.getDictionary();
+		if (dictionary.size() != lookupDictionarySize) {
+			analyzer.lookupCodes(dictionary);
+			lookupDictionarySize = dictionary.size();
+		}
+
+		advanceTo(globalEvents.getTimestampMillis(event));
+
+		int sectorIndex = globalEvents.getSectorCode(event) + 1;
+		while (sectors.size() <= sectorIndex) {
+			sectors.add(null);
+		}
+		EventAnalyzer.SectorClusters clusters = sectors.get(sectorIndex);
+		if (clusters == null) {
+			clusters = analyzer.new SectorClusters(new ArrayList<>(), false);
+			sectors.set(sectorIndex, clusters);
+		}
+		if (clusters.isEmpty()) {
+			activeSectors.add(clusters);
+		}
+		clusters.add(globalEvents, event);
+	}
+
+	/**
+	 * Push a batch of Global Events
+	 *
+	 * @param globalEvents the Global Events store holding the events
+	 * @param from         the first Global Event index
+	 * @param to           the end of the Global Events, exclusive
+	 * @throws IllegalArgumentException if the events are from a different store
+	 *                                  than the previous events
+	 * @throws IllegalStateException    if the analysis is already finished
+	 */
+	public void pushAll(GlobalEventStore globalEvents, int from, int to) {
+		for (int event = from; event < to; event++) {
+			push(globalEvents, event);
+		}
+	}
+
+	/**
+	 * Let the time pass without a new Global Event, e.g. for a live source.
+	 * Processed Events whose time window closed until then are final.
+	 *
+	 * @param timestamp the current time in epoch milliseconds
+	 * @throws IllegalStateException if the analysis is already finished
+	 */
+	public void advanceTo(long timestamp) {
+		if (finished) {
+			throw new IllegalStateException("The analysis is already finished");
+		}
+		if (timestamp == GlobalEventStore.NO_TIMESTAMP || timestamp <= latestTimestamp) {
+			return;
+		}
+		latestTimestamp = timestamp;
+		int active = 0;
+		for (int i = 0; i < activeSectors.size(); i++) {
+			EventAnalyzer.SectorClusters clusters = activeSectors.get(i);
+			clusters.retire(timestamp, finalizer);
+			if (!clusters.isEmpty()) {
+				activeSectors.set(active++, clusters);
+			}
+		}
+		activeSectors.subList(active, activeSectors.size()).clear();
+	}
+
+	/**
+	 * Finish the analysis. All Processed Events that are still open are final,
+	 * sector by sector in order of creation.
+	 *
+	 * @throws IllegalStateException if the analysis is already finished
+	 */
+	public void finish() {
+		if (finished) {
+			throw new IllegalStateException("The analysis is already finished");
+		}
+		for (EventAnalyzer.SectorClusters clusters : sectors) {
+			if (clusters != null) {
+				clusters.retireAll(finalizer);
+			}
+		}
+		finished = true;
+		LOGGER.debug("Finished the analysis with " + finalizedEvents + " processed events!");
+	}
+
+	/**
+	 * @return the number of Processed Events the analyzer still holds, open or
+	 *         final but not dropped yet
+	 */
+	int getRetainedEvents() {
+		int retained = 0;
+		for (EventAnalyzer.SectorClusters clusters : activeSectors) {
+			retained += clusters.size();
+		}
+		return retained;
+	}
+
+	/**
+	 * @return the names of the battles so far
+	 */
+	public Map<String, Integer> getEventNames() {
+		return eventNames;
+	}
+
+	/**
+	 * @return the ships eligible for renaming so far, by ship id
+	 */
+	public Map<String, List<String>> getEligibleForRenaming() {
+		return eligibleForRenaming;
+	}
+
+	private void checkStore(GlobalEventStore globalEvents) {
+		if (finished) {
+			throw new IllegalStateException("The analysis is already finished");
+		}
+		if (this.globalEvents == null) {
+			this.globalEvents = globalEvents;
+		} else if (this.globalEvents != globalEvents) {
+			throw new IllegalArgumentException("All Global Events must come from the same store");
+		}
+	}
+
+	/**
+	 * Post process a Processed Event that can not change any more and hand it to
+	 * the listener
+	 *
+	 * @param pEvent the Processed Event
+	 */
+	private void finalizeEvent(ProcessedEvent pEvent) {
+		analyzer.classifyEvent(pEvent, null, eventNames);
+		analyzer.checkRenamingPossibility(pEvent, eligibleForRenaming);
+		finalizedEvents++;
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Processed Event starting at " + pEvent.getStartTime() + " in sector '" + pEvent.getSector()
+					+ "' is final!");
+		}
+		listener.accept(pEvent);
+	}
+}
@@ -0,0 +1,73 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The CPU time and the heap bytes allocated by the current thread, as far as
+ * the JVM supports measuring them. Work spread over several threads is
+ * measured on each of them and the figures are summed.
+ *
+ * @author Son of Hubert
+ *
+ */
+public final class ThreadUsage {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private ThreadUsage() {
+	}
+
+	/**
+	 * @return the CPU time of the current thread in nanoseconds, -1 if unknown
+	 */
+	public static long cpuNanos() {
+		try {
+			return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+		} catch (UnsupportedOperationException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * The allocated bytes of a thread are only available in the HotSpot
+	 * extension of the thread bean
+	 *
+	 * @return the heap bytes allocated by the current thread, -1 if unknown
+	 */
+	public static long allocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+			try {
+				if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+					return threads.getCurrentThreadAllocatedBytes();
+				}
+			} catch (UnsupportedOperationException e) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The difference of two measurements
+	 *
+	 * @param start the measurement at the start, -1 if unknown
+	 * @param end   the measurement at the end, -1 if unknown
+	 * @return the difference, -1 if unknown
+	 */
+	public static long between(long start, long end) {
+		return start < 0 || end < 0 ? -1 : end - start;
+	}
+
+	/**
+	 * The sum of two figures
+	 *
+	 * @param a a figure, -1 if unknown
+	 * @param b another figure, -1 if unknown
+	 * @return the sum, -1 if any figure is unknown
+	 */
+	public static long sum(long a, long b) {
+		return a < 0 || b < 0 ? -1 : a + b;
+	}
+}
@@ -0,0 +1,414 @@
+package org.soh.x4.x4tress_analyzer.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.analyzer.ClusteringStrategy;
+import org.soh.x4.x4tress_analyzer.savegame.LoadMonitor;
+import org.soh.x4.x4tress_analyzer.savegame.LoadResult;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameLoader;
+
+/**
+ * Headless command line mode analyzing many savegames without the Gui.<br>
+ * <br>
+ * Each savegame is loaded and analyzed like in the Gui, and a report is
+ * written to the output directory by the {@link SaveGameReportWriter}.
+ * Savegames are processed in parallel on a bounded pool of workers, sized to
+ * the available cores and to the heap, as every worker holds a whole savegame
+ * in memory. A savegame that fails is logged and listed in the summary, the
+ * others are still processed.<br>
+ * <br>
+ * Usage, with the core jar and the slf4j and logback jars on the module path:
+ * <code>java -p &lt;module path&gt; -m org.soh.x4.x4tress_analyzer/org.soh.x4.x4tress_analyzer.batch.BatchAnalyzer [options] &lt;directory|glob&gt;...</code>
+ *
+ * @author Son of Hubert
+ *
+ */
+public class BatchAnalyzer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BatchAnalyzer.class);
+
+	private static final String USAGE = "Usage: BatchAnalyzer [options] <directory|glob>...\n"
+			+ "  --output <dir>              directory to write the reports to (default reports)\n"
+			+ "  --threads <n>               number of savegames analyzed in parallel (default: by cores and heap)\n"
+			+ "  --memory-per-save <MB>      heap reserved per worker when sizing the pool (default 1024)\n"
+			+ "  --scoped                    only capture the refs of the Global Events, reading each savegame twice\n"
+			+ "  --clustering <strategy>     greedy (default), dbscan or dbscan:<minPoints>\n"
+			+ "A directory stands for all .xml and .gz savegames in it. Quote globs like \"saves/**/*.xml.gz\".";
+
+	private static final String REPORT_SUFFIX = ".report.txt";
+
+	private static final String SUMMARY_FILE = "summary.txt";
+
+	private static final long MEGABYTE = 1024L * 1024L;
+
+	private static final long DEFAULT_MEMORY_PER_SAVE = 1024 * MEGABYTE;
+
+	private final File outputDirectory;
+
+	private final int threads;
+
+	private final boolean scoped;
+
+	private final SaveGameReportWriter reportWriter = new SaveGameReportWriter();
+
+	private ClusteringStrategy clusteringStrategy = ClusteringStrategy.greedy();
+
+	/**
+	 * The outcome of analyzing one savegame. Only keeps the figures of the
+	 * summary, so the savegame data can be collected as soon as its report is
+	 * written.
+	 */
+	private static class Outcome {
+		private final File saveGame;
+		private final File report;
+		private final int globalEvents;
+		private final int processedEvents;
+		private final Exception error;
+		private final long wallNanos;
+
+		private Outcome(File saveGame, File report, int globalEvents, int processedEvents, Exception error,
+				long wallNanos) {
+			this.saveGame = saveGame;
+			this.report = report;
+			this.globalEvents = globalEvents;
+			this.processedEvents = processedEvents;
+			this.error = error;
+			this.wallNanos = wallNanos;
+		}
+	}
+
+	/**
+	 * Creates a new batch analyzer
+	 *
+	 * @param outputDirectory the directory to write the reports to
+	 * @param threads         the number of savegames analyzed in parallel
+	 * @param scoped          true to only capture the refs reachable from the
+	 *                        Global Events
+	 */
+	public BatchAnalyzer(File outputDirectory, int threads, boolean scoped) {
+		this.outputDirectory = outputDirectory;
+		this.threads = threads;
+		this.scoped = scoped;
+	}
+
+	public static void main(String[] args) {
+		File outputDirectory = new File("reports");
+		Integer threads = null;
+		long memoryPerSave = DEFAULT_MEMORY_PER_SAVE;
+		boolean scoped = false;
+		ClusteringStrategy clusteringStrategy = ClusteringStrategy.greedy();
+		List<String> inputs = new ArrayList<>();
+
+		List<File> saveGames;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--output":
+					outputDirectory = new File(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--memory-per-save":
+					memoryPerSave = Long.parseLong(args[++i]) * MEGABYTE;
+					break;
+				case "--scoped":
+					scoped = true;
+					break;
+				case "--clustering":
+					clusteringStrategy = parseClusteringStrategy(args[++i]);
+					break;
+				default:
+					if (args[i].startsWith("--")) {
+						throw new IllegalArgumentException("Unexpected argument " + args[i]);
+					}
+					inputs.add(args[i]);
+				}
+			}
+			if (inputs.isEmpty()) {
+				throw new IllegalArgumentException("No savegames given");
+			}
+			if ((threads != null && threads < 1) || memoryPerSave < 1) {
+				throw new IllegalArgumentException("The number of threads and the memory per save must be positive");
+			}
+			saveGames = findSaveGames(inputs);
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		} catch (IOException e) {
+			System.err.println("Could not list the savegames: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+
+		if (saveGames.isEmpty()) {
+			System.err.println("No savegames found in " + inputs);
+			System.exit(1);
+		}
+		int workers = threads != null ? threads : defaultThreads(memoryPerSave);
+		BatchAnalyzer batchAnalyzer = new BatchAnalyzer(outputDirectory, Math.min(workers, saveGames.size()), scoped);
+		batchAnalyzer.setClusteringStrategy(clusteringStrategy);
+		try {
+			int failed = batchAnalyzer.analyze(saveGames);
+			System.exit(failed == 0 ? 0 : 1);
+		} catch (IOException e) {
+			System.err.println("Could not write the reports to " + outputDirectory + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Parse the clustering strategy option
+	 *
+	 * @param value greedy, dbscan or dbscan:&lt;minPoints&gt;
+	 * @return the clustering strategy
+	 * @throws IllegalArgumentException if the value is no known strategy
+	 */
+	static ClusteringStrategy parseClusteringStrategy(String value) {
+		if ("greedy".equals(value)) {
+			return ClusteringStrategy.greedy();
+		} else if ("dbscan".equals(value)) {
+			return ClusteringStrategy.dbscan();
+		} else if (value.startsWith("dbscan:")) {
+			return ClusteringStrategy.dbscan(Integer.parseInt(value.substring("dbscan:".length())));
+		}
+		throw new IllegalArgumentException("Unknown clustering strategy " + value);
+	}
+
+	/**
+	 * Set the strategy deciding which Global Events of a sector are combined into
+	 * a Processed Event
+	 *
+	 * @param clusteringStrategy the strategy, null for the greedy clustering
+	 */
+	public void setClusteringStrategy(ClusteringStrategy clusteringStrategy) {
+		this.clusteringStrategy = clusteringStrategy != null ? clusteringStrategy : ClusteringStrategy.greedy();
+	}
+
+	/**
+	 * Get the number of workers the cores and the heap allow for
+	 *
+	 * @param memoryPerSave the heap a worker needs to analyze a savegame
+	 * @return the number of workers, at least 1
+	 */
+	static int defaultThreads(long memoryPerSave) {
+		int cores = Runtime.getRuntime().availableProcessors();
+		long memoryBound = Runtime.getRuntime().maxMemory() / memoryPerSave;
+		return (int) Math.max(1, Math.min(cores, memoryBound));
+	}
+
+	/**
+	 * Analyze savegames and write a report for each, plus a summary of all
+	 *
+	 * @param saveGames the savegame files
+	 * @return the number of savegames that could not be analyzed
+	 * @throws IOException if the output directory cannot be created or the
+	 *                     summary cannot be written
+	 */
+	public int analyze(List<File> saveGames) throws IOException {
+		Files.createDirectories(outputDirectory.toPath());
+		List<File> reports = reportFiles(saveGames);
+		LOGGER.info("Analyzing " + saveGames.size() + " savegames with " + threads + " workers into "
+				+ outputDirectory.getAbsolutePath());
+
+		long startTime = System.nanoTime();
+		AtomicInteger done = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Outcome> outcomes = new ArrayList<>(saveGames.size());
+		try {
+			List<Future<Outcome>> futures = new ArrayList<>(saveGames.size());
+			for (int i = 0; i < saveGames.size(); i++) {
+				File saveGame = saveGames.get(i);
+				File report = reports.get(i);
+				futures.add(executor.submit(() -> {
+					Outcome outcome = analyze(saveGame, report);
+					LOGGER.info("[" + done.incrementAndGet() + "/" + saveGames.size() + "] "
+							+ (outcome.error == null ? "Analyzed " : "Failed ") + saveGame.getName() + " in "
+							+ outcome.wallNanos / 1_000_000 + " ms");
+					return outcome;
+				}));
+			}
+			for (Future<Outcome> future : futures) {
+				outcomes.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while analyzing the savegames", e);
+		} catch (ExecutionException e) {
+			// analyze(File, File) catches everything a savegame can throw
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		int failed = writeSummary(outcomes);
+		LOGGER.info("Analyzed " + (outcomes.size() - failed) + " of " + outcomes.size() + " savegames in "
+				+ (System.nanoTime() - startTime) / 1_000_000 + " ms, see "
+				+ new File(outputDirectory, SUMMARY_FILE).getAbsolutePath());
+		return failed;
+	}
+
+	/**
+	 * Load, analyze and report a single savegame
+	 *
+	 * @param saveGame the savegame file
+	 * @param report   the report file
+	 * @return the outcome, including the error if the savegame failed
+	 */
+	private Outcome analyze(File saveGame, File report) {
+		long startTime = System.nanoTime();
+		try {
+			SaveGameLoader loader = new SaveGameLoader();
+			if (scoped) {
+				loader.setScopeRootGlobals(Set.of());
+			}
+			loader.setClusteringStrategy(clusteringStrategy);
+			LoadResult result = loader.load(saveGame, null, LoadMonitor.NONE);
+			reportWriter.write(saveGame, result, report);
+			return new Outcome(saveGame, report, result.getData().getGlobalEventStore().size(),
+					result.getData().getProcessedEvents().size(), null, System.nanoTime() - startTime);
+		} catch (Exception | OutOfMemoryError e) {
+			LOGGER.error("Could not analyze " + saveGame.getAbsolutePath(), e);
+			Exception error = e instanceof Exception ? (Exception) e : new IllegalStateException(e.toString());
+			return new Outcome(saveGame, report, 0, 0, error, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Write the summary of all savegames, one tab separated line per savegame
+	 *
+	 * @param outcomes the outcomes in order of the savegames
+	 * @return the number of failed savegames
+	 */
+	private int writeSummary(List<Outcome> outcomes) throws IOException {
+		int failed = 0;
+		File summary = new File(outputDirectory, SUMMARY_FILE);
+		try (PrintWriter out = new PrintWriter(summary, StandardCharsets.UTF_8)) {
+			out.println(String.join("\t", "Savegame", "Status", "Global Events", "Processed Events", "Time (ms)",
+					"Report"));
+			for (Outcome outcome : outcomes) {
+				String wallMillis = String.valueOf(outcome.wallNanos / 1_000_000);
+				if (outcome.error == null) {
+					out.println(String.join("\t", outcome.saveGame.getPath(), "ok",
+							String.valueOf(outcome.globalEvents), String.valueOf(outcome.processedEvents), wallMillis,
+							outcome.report.getName()));
+				} else {
+					failed++;
+					String error = String.valueOf(outcome.error).replaceAll("\\s+", " ");
+					out.println(String.join("\t", outcome.saveGame.getPath(), "failed: " + error, "", "", wallMillis,
+							""));
+				}
+			}
+			if (out.checkError()) {
+				throw new IOException("Could not write " + summary);
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Name the reports after the savegames, numbering savegames of the same
+	 * name from different directories
+	 *
+	 * @param saveGames the savegame files
+	 * @return the report files in order of the savegames
+	 */
+	private List<File> reportFiles(List<File> saveGames) {
+		List<File> reports = new ArrayList<>(saveGames.size());
+		Set<String> names = new HashSet<>();
+		for (File saveGame : saveGames) {
+			String baseName = saveGame.getName().replaceFirst("(\\.xml)?(\\.gz)?$", "");
+			String name = baseName;
+			for (int i = 2; !names.add(name); i++) {
+				name = baseName + "-" + i;
+			}
+			reports.add(new File(outputDirectory, name + REPORT_SUFFIX));
+		}
+		return reports;
+	}
+
+	/**
+	 * Find the savegames given on the command line
+	 *
+	 * @param inputs directories, savegame files or glob patterns
+	 * @return the savegame files in a stable order, without duplicates
+	 * @throws IOException              if a directory cannot be listed
+	 * @throws IllegalArgumentException if an input is neither a file, a
+	 *                                  directory nor a glob
+	 */
+	static List<File> findSaveGames(List<String> inputs) throws IOException, IllegalArgumentException {
+		Set<Path> saveGames = new LinkedHashSet<>();
+		for (String input : inputs) {
+			Path path = isGlob(input) ? null : Paths.get(input);
+			if (path != null && Files.isDirectory(path)) {
+				try (Stream<Path> files = Files.list(path)) {
+					saveGames.addAll(files.filter(BatchAnalyzer::isSaveGame).sorted().collect(Collectors.toList()));
+				}
+			} else if (path != null && Files.isRegularFile(path)) {
+				saveGames.add(path);
+			} else if (path == null) {
+				saveGames.addAll(findGlob(input));
+			} else {
+				throw new IllegalArgumentException("No such file or directory: " + input);
+			}
+		}
+		return saveGames.stream().map(Path::toFile).collect(Collectors.toList());
+	}
+
+	/**
+	 * Find the files matching a glob pattern, e.g. <i>saves/**&#47;*.xml.gz</i>
+	 */
+	private static List<Path> findGlob(String glob) throws IOException {
+		String[] segments = glob.replace('\\', '/').split("/");
+		int firstPattern = 0;
+		while (firstPattern < segments.length && !isGlob(segments[firstPattern])) {
+			firstPattern++;
+		}
+		String base = String.join("/", Arrays.copyOf(segments, firstPattern));
+		Path baseDirectory = Paths.get(base.isEmpty() ? "." : base);
+		if (!Files.isDirectory(baseDirectory)) {
+			return List.of();
+		}
+		PathMatcher matcher = FileSystems.getDefault()
+				.getPathMatcher("glob:" + (base.isEmpty() ? baseDirectory + "/" + glob : glob));
+		try (Stream<Path> files = Files.walk(baseDirectory)) {
+			return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().collect(Collectors.toList());
+		}
+	}
+
+	private static boolean isGlob(String input) {
+		return input.indexOf('*') >= 0 || input.indexOf('?') >= 0 || input.indexOf('[') >= 0
+				|| input.indexOf('{') >= 0;
+	}
+
+	private static boolean isSaveGame(Path path) {
+		String name = path.getFileName().toString();
+		return Files.isRegularFile(path) && (name.endsWith(".xml") || name.endsWith(".gz"));
+	}
+
+}
@@ -0,0 +1,91 @@
+package org.soh.x4.x4tress_analyzer.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.EventName;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.savegame.LoadResult;
+
+/**
+ * Writes the analysis of a savegame to a plain text report.<br>
+ * <br>
+ * The report starts with a summary of the savegame and the load, followed by
+ * tab separated sections for the Processed Events, the event names and the
+ * ships eligible for renaming. Each section starts with a line in square
+ * brackets, e.g. <i>[Processed Events]</i>, and a header line.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class SaveGameReportWriter {
+
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * Write the report of a savegame
+	 *
+	 * @param saveGame the savegame file
+	 * @param result   the loaded and analyzed savegame
+	 * @param report   the report file to write
+	 * @throws IOException if the report cannot be written
+	 */
+	public void write(File saveGame, LoadResult result, File report) throws IOException {
+		try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+			DataStorage data = result.getData();
+			List<ProcessedEvent> processedEvents = data.getProcessedEvents();
+			out.println("Savegame: " + saveGame.getAbsolutePath());
+			out.println("Player: " + data.getPlayerName());
+			out.println("Components: " + data.getObjectList().size());
+			out.println("Global Events: " + data.getGlobalEventStore().size());
+			out.println("Processed Events: " + processedEvents.size());
+			out.println("Load: " + result.getReport());
+
+			out.println();
+			out.println("[Processed Events]");
+			out.println(String.join(SEPARATOR, "Start time", "End time", "Event Type", "Event Scale", "Sector",
+					"# of Events", "Participants", "Event Name", "Factions"));
+			for (ProcessedEvent pEvent : processedEvents) {
+				out.println(String.join(SEPARATOR, String.valueOf(pEvent.getStartTime()),
+						String.valueOf(pEvent.getEndTime()), String.valueOf(pEvent.getEventType()),
+						String.valueOf(pEvent.getScale()), String.valueOf(pEvent.getSector()),
+						String.valueOf(pEvent.getNumberOfEvents()), String.valueOf(pEvent.getNumberOfParticipants()),
+						eventName(pEvent.getEventName()), String.join(", ", pEvent.getFactions())));
+			}
+
+			out.println();
+			out.println("[Event Names]");
+			out.println(String.join(SEPARATOR, "Event Name", "Count"));
+			for (Map.Entry<String, Integer> eventName : new TreeMap<>(data.getEventNames()).entrySet()) {
+				out.println(eventName.getKey() + SEPARATOR + eventName.getValue());
+			}
+
+			out.println();
+			out.println("[Renaming Candidates]");
+			out.println(String.join(SEPARATOR, "Ship", "Names"));
+			for (Map.Entry<String, List<String>> candidate : new TreeMap<>(data.getEligibleForRenaming())
+					.entrySet()) {
+				out.println(candidate.getKey() + SEPARATOR + String.join(", ", candidate.getValue()));
+			}
+
+			if (out.checkError()) {
+				throw new IOException("Could not write " + report);
+			}
+		}
+	}
+
+	private static String eventName(EventName eventName) {
+		if (eventName == null) {
+			return "";
+		}
+		return eventName.getEventNo() > 0 ? eventName.getEventNo() + ". " + eventName.getEventName()
+				: eventName.getEventName();
+	}
+
+}
@@ -12,7 +12,7 @@ import java.util.Map;
  */
 public class DataStorage {
 
-	public DataStorage(String playerName, List<Component> objectList, List<GlobalEvent> globalEvents) {
+	public DataStorage(String playerName, List<Component> objectList, GlobalEventStore globalEvents) {
 		this.playerName = playerName;
 		this.objectList = objectList;
 		this.globalEvents = globalEvents;
@@ -22,7 +22,7 @@ public class DataStorage {
 
 	private final List<Component> objectList;
 
-	private final List<GlobalEvent> globalEvents;
+	private final GlobalEventStore globalEvents;
 
 	private final Map<String, Integer> eventNames = new HashMap<>();
 
@@ -56,9 +56,27 @@ public class DataStorage {
 	 * @return the Global Events list
 	 */
 	public List<GlobalEvent> getGlobalEvents() {
+		return globalEvents.asList();
+	}
+
+	/**
+	 * Get the columnar store of the loaded SoH x4tress Global Events
+	 * 
+	 * @return the Global Events store
+	 */
+	public GlobalEventStore getGlobalEventStore() {
 		return globalEvents;
 	}
 
+	/**
+	 * Get the dictionary encoding the String values of the Global Events
+	 * 
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return globalEvents.getDictionary();
+	}
+
 	/**
 	 * Get the current highest number for all known event names<br>
 	 * 
@@ -0,0 +1,242 @@
+package org.soh.x4.x4tress_analyzer.model;
+
+import java.sql.Timestamp;
+
+/**
+ * Representation of a Global Event entry from x4tress.<br>
+ * Any changes here must also reflect in
+ * {@link org.soh.x4.x4tress_analyzer.savegame.sax.Savegame Savegame}<br>
+ * <br>
+ * A Global Event is a lightweight view of a single event of a
+ * {@link GlobalEventStore}. All values are read from and written to the
+ * columns of the store.
+ * 
+ * 
+ * @author Son of Hubert
+ *
+ */
+public class GlobalEvent {
+
+	private final GlobalEventStore store;
+
+	private final int index;
+
+	/**
+	 * Creates a view of a Global Event
+	 * 
+	 * @param store the store holding the event
+	 * @param index the index of the event in the store
+	 */
+	public GlobalEvent(GlobalEventStore store, int index) {
+		this.store = store;
+		this.index = index;
+	}
+
+
+	/**
+	 * Checks if a given unit (ship / station) is involved in this Global Event
+	 * 
+	 * @param unitCode The unit code to compare to
+	 * @return true if the unit is involved in this event.
+	 */
+	public Boolean matchesUnit(String unitCode) {
+		if (unitCode != null) {
+			int unitId = store.getDictionary().lookup(unitCode);
+			if (unitId == store.getAttackerIdCode(index) || unitId == store.getAttackedIdCode(index)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the store holding this event
+	 * 
+	 * @return the Global Event store
+	 */
+	public GlobalEventStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Get the index of this event in its store
+	 * 
+	 * @return the event index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Get the dictionary encoding the String values of this event
+	 * 
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return store.getDictionary();
+	}
+
+	public Timestamp getTimestamp() {
+		return store.getTimestamp(index);
+	}
+
+	/**
+	 * Get the timestamp in epoch milliseconds
+	 * 
+	 * @return the timestamp, {@link GlobalEventStore#NO_TIMESTAMP} if the event
+	 *         has none
+	 */
+	public long getTimestampMillis() {
+		return store.getTimestampMillis(index);
+	}
+
+	public void setTimestampMillis(long timestamp) {
+		store.setTimestampMillis(index, timestamp);
+	}
+
+	public String getEventType() {
+		return store.getEventType(index);
+	}
+
+	public int getEventTypeCode() {
+		return store.getEventTypeCode(index);
+	}
+
+	public void setEventType(String eventType) {
+		store.setEventType(index, eventType);
+	}
+
+	public String getAttackerId() {
+		return store.getAttackerId(index);
+	}
+
+	public int getAttackerIdCode() {
+		return store.getAttackerIdCode(index);
+	}
+
+	public void setAttackerId(String attackerId) {
+		store.setAttackerId(index, attackerId);
+	}
+
+	public String getAttacker() {
+		return store.getAttacker(index);
+	}
+
+	public void setAttacker(String attacker) {
+		store.setAttacker(index, attacker);
+	}
+
+	public String getAttackerType() {
+		return store.getAttackerType(index);
+	}
+
+	public int getAttackerTypeCode() {
+		return store.getAttackerTypeCode(index);
+	}
+
+	public void setAttackerType(String attackerType) {
+		store.setAttackerType(index, attackerType);
+	}
+
+	public String getAttackerFaction() {
+		return store.getAttackerFaction(index);
+	}
+
+	public int getAttackerFactionCode() {
+		return store.getAttackerFactionCode(index);
+	}
+
+	public void setAttackerFaction(String attackerFaction) {
+		store.setAttackerFaction(index, attackerFaction);
+	}
+
+	public String getAttackedId() {
+		return store.getAttackedId(index);
+	}
+
+	public int getAttackedIdCode() {
+		return store.getAttackedIdCode(index);
+	}
+
+	public void setAttackedId(String attackedId) {
+		store.setAttackedId(index, attackedId);
+	}
+
+	public String getAttacked() {
+		return store.getAttacked(index);
+	}
+
+	public void setAttacked(String attacked) {
+		store.setAttacked(index, attacked);
+	}
+
+	public String getAttackedType() {
+		return store.getAttackedType(index);
+	}
+
+	public int getAttackedTypeCode() {
+		return store.getAttackedTypeCode(index);
+	}
+
+	public void setAttackedType(String attackedType) {
+		store.setAttackedType(index, attackedType);
+	}
+
+	public String getTargetComponent() {
+		return store.getTargetComponent(index);
+	}
+
+	public void setTargetComponent(String targetComponent) {
+		store.setTargetComponent(index, targetComponent);
+	}
+
+	public String getAttackedFaction() {
+		return store.getAttackedFaction(index);
+	}
+
+	public int getAttackedFactionCode() {
+		return store.getAttackedFactionCode(index);
+	}
+
+	public void setAttackedFaction(String attackedFaction) {
+		store.setAttackedFaction(index, attackedFaction);
+	}
+
+	public String getSector() {
+		return store.getSector(index);
+	}
+
+	public int getSectorCode() {
+		return store.getSectorCode(index);
+	}
+
+	public void setSector(String sector) {
+		store.setSector(index, sector);
+	}
+
+	public Position getAttackedPos() {
+		return store.getAttackedPos(index);
+	}
+
+	public void setAttackedPos(Position attackedPos) {
+		store.setAttackedPos(index, attackedPos);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(store) + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof GlobalEvent)) {
+			return false;
+		}
+		GlobalEvent other = (GlobalEvent) obj;
+		return store == other.store && index == other.index;
+	}
+
+}
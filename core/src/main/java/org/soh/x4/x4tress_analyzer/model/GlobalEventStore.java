@@ -0,0 +1,572 @@
+package org.soh.x4.x4tress_analyzer.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Columnar storage of the Global Events of a load.<br>
+ * <br>
+ * Every attribute of the events is kept in its own array, indexed by the event
+ * number: timestamps as epoch milliseconds, positions as plain doubles and the
+ * low cardinality Strings as codes of the {@link StringDictionary} of the
+ * load. Only the ship names and the target component remain String
+ * references.<br>
+ * The analyzer scans the columns directly, while the GUI works with
+ * {@link GlobalEvent} views created on demand by {@link #get(int)} and
+ * {@link #asList()}.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class GlobalEventStore {
+
+	/**
+	 * Marks an event without a timestamp
+	 */
+	public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+	private final StringDictionary dictionary;
+
+	private int size = 0;
+
+	private long[] timestamps;
+	private int[] eventTypes;
+	private int[] attackerIds;
+	private String[] attackers;
+	private int[] attackerTypes;
+	private int[] attackerFactions;
+	private int[] attackedIds;
+	private String[] attackeds;
+	private int[] attackedTypes;
+	private String[] targetComponents;
+	private int[] attackedFactions;
+	private int[] sectors;
+	private double[] attackedX;
+	private double[] attackedY;
+	private double[] attackedZ;
+
+	/**
+	 * Events that have an attacked position
+	 */
+	private final BitSet attackedPositions = new BitSet();
+
+	private final List<GlobalEvent> view = new GlobalEventList();
+
+	/**
+	 * Creates a new Global Event store
+	 *
+	 * @param dictionary   the dictionary encoding the String values of the load
+	 * @param expectedSize the number of events expected
+	 */
+	public GlobalEventStore(StringDictionary dictionary, int expectedSize) {
+		this.dictionary = dictionary;
+		allocate(Math.max(8, expectedSize));
+	}
+
+	/**
+	 * Append an empty event
+	 *
+	 * @return the index of the new event
+	 */
+	public int add() {
+		if (size == timestamps.length) {
+			allocate(size * 2);
+		}
+		int index = size++;
+		timestamps[index] = NO_TIMESTAMP;
+		eventTypes[index] = StringDictionary.NULL_CODE;
+		attackerIds[index] = StringDictionary.NULL_CODE;
+		attackerTypes[index] = StringDictionary.NULL_CODE;
+		attackerFactions[index] = StringDictionary.NULL_CODE;
+		attackedIds[index] = StringDictionary.NULL_CODE;
+		attackedTypes[index] = StringDictionary.NULL_CODE;
+		attackedFactions[index] = StringDictionary.NULL_CODE;
+		sectors[index] = StringDictionary.NULL_CODE;
+		return index;
+	}
+
+	/**
+	 * Append a copy of an event of another store
+	 *
+	 * @param source the store holding the event
+	 * @param index  the index of the event in the source store
+	 * @return the index of the copy
+	 */
+	public int addCopy(GlobalEventStore source, int index) {
+		source.checkIndex(index);
+		int copy = add();
+		timestamps[copy] = source.getTimestampMillis(index);
+		setEventType(copy, source.getEventType(index));
+		setAttackerId(copy, source.getAttackerId(index));
+		setAttacker(copy, source.getAttacker(index));
+		setAttackerType(copy, source.getAttackerType(index));
+		setAttackerFaction(copy, source.getAttackerFaction(index));
+		setAttackedId(copy, source.getAttackedId(index));
+		setAttacked(copy, source.getAttacked(index));
+		setAttackedType(copy, source.getAttackedType(index));
+		setTargetComponent(copy, source.getTargetComponent(index));
+		setAttackedFaction(copy, source.getAttackedFaction(index));
+		setSector(copy, source.getSector(index));
+		setAttackedPos(copy, source.getAttackedPos(index));
+		return copy;
+	}
+
+	/**
+	 * Checks if an event is the same event of the campaign as an event of
+	 * another store, e.g. of an older savegame
+	 *
+	 * @param index      the event index
+	 * @param other      the other store
+	 * @param otherIndex the index of the event in the other store
+	 * @return true if time, type, attacker and attacked match
+	 */
+	public boolean isSameEvent(int index, GlobalEventStore other, int otherIndex) {
+		return timestamps[index] == other.timestamps[otherIndex]
+				&& Objects.equals(getEventType(index), other.getEventType(otherIndex))
+				&& Objects.equals(getAttackerId(index), other.getAttackerId(otherIndex))
+				&& Objects.equals(getAttackedId(index), other.getAttackedId(otherIndex));
+	}
+
+	/**
+	 * Remove the last event, e.g. if it could not be read completely
+	 */
+	public void removeLast() {
+		if (size > 0) {
+			size--;
+			attackers[size] = null;
+			attackeds[size] = null;
+			targetComponents[size] = null;
+			attackedPositions.clear(size);
+		}
+	}
+
+	/**
+	 * Get the number of events
+	 *
+	 * @return the number of events
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the dictionary encoding the String values of the events
+	 *
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Get a view of an event
+	 *
+	 * @param index the event index
+	 * @return a new view of the event
+	 */
+	public GlobalEvent get(int index) {
+		checkIndex(index);
+		return new GlobalEvent(this, index);
+	}
+
+	/**
+	 * Get a read only list view of all events. Its elements are created on
+	 * access.
+	 *
+	 * @return the list of Global Events
+	 */
+	public List<GlobalEvent> asList() {
+		return view;
+	}
+
+	/**
+	 * Get the index of the newest event
+	 *
+	 * @return the index of the event with the latest timestamp, the last one of
+	 *         several events with that timestamp, -1 if no event has a timestamp
+	 */
+	public int getLatestEvent() {
+		int latest = -1;
+		for (int i = 0; i < size; i++) {
+			if (timestamps[i] != NO_TIMESTAMP && (latest < 0 || timestamps[i] >= timestamps[latest])) {
+				latest = i;
+			}
+		}
+		return latest;
+	}
+
+	public long getTimestampMillis(int index) {
+		return timestamps[index];
+	}
+
+	/**
+	 * Get the timestamp of an event for display
+	 * 
+	 * @param index the event index
+	 * @return a new Timestamp, null if the event has no timestamp
+	 */
+	public Timestamp getTimestamp(int index) {
+		long timestamp = timestamps[index];
+		return timestamp == NO_TIMESTAMP ? null : new Timestamp(timestamp);
+	}
+
+	public void setTimestampMillis(int index, long timestamp) {
+		timestamps[index] = timestamp;
+	}
+
+	public int getEventTypeCode(int index) {
+		return eventTypes[index];
+	}
+
+	public String getEventType(int index) {
+		return dictionary.decode(eventTypes[index]);
+	}
+
+	public void setEventType(int index, String eventType) {
+		eventTypes[index] = dictionary.encode(eventType);
+	}
+
+	public int getAttackerIdCode(int index) {
+		return attackerIds[index];
+	}
+
+	public String getAttackerId(int index) {
+		return dictionary.decode(attackerIds[index]);
+	}
+
+	public void setAttackerId(int index, String attackerId) {
+		attackerIds[index] = dictionary.encode(attackerId);
+	}
+
+	public String getAttacker(int index) {
+		return attackers[index];
+	}
+
+	public void setAttacker(int index, String attacker) {
+		attackers[index] = attacker;
+	}
+
+	public int getAttackerTypeCode(int index) {
+		return attackerTypes[index];
+	}
+
+	public String getAttackerType(int index) {
+		return dictionary.decode(attackerTypes[index]);
+	}
+
+	public void setAttackerType(int index, String attackerType) {
+		attackerTypes[index] = dictionary.encode(attackerType);
+	}
+
+	public int getAttackerFactionCode(int index) {
+		return attackerFactions[index];
+	}
+
+	public String getAttackerFaction(int index) {
+		return dictionary.decode(attackerFactions[index]);
+	}
+
+	public void setAttackerFaction(int index, String attackerFaction) {
+		attackerFactions[index] = dictionary.encode(attackerFaction);
+	}
+
+	public int getAttackedIdCode(int index) {
+		return attackedIds[index];
+	}
+
+	public String getAttackedId(int index) {
+		return dictionary.decode(attackedIds[index]);
+	}
+
+	public void setAttackedId(int index, String attackedId) {
+		attackedIds[index] = dictionary.encode(attackedId);
+	}
+
+	public String getAttacked(int index) {
+		return attackeds[index];
+	}
+
+	public void setAttacked(int index, String attacked) {
+		attackeds[index] = attacked;
+	}
+
+	public int getAttackedTypeCode(int index) {
+		return attackedTypes[index];
+	}
+
+	public String getAttackedType(int index) {
+		return dictionary.decode(attackedTypes[index]);
+	}
+
+	public void setAttackedType(int index, String attackedType) {
+		attackedTypes[index] = dictionary.encode(attackedType);
+	}
+
+	public String getTargetComponent(int index) {
+		return targetComponents[index];
+	}
+
+	public void setTargetComponent(int index, String targetComponent) {
+		targetComponents[index] = targetComponent;
+	}
+
+	public int getAttackedFactionCode(int index) {
+		return attackedFactions[index];
+	}
+
+	public String getAttackedFaction(int index) {
+		return dictionary.decode(attackedFactions[index]);
+	}
+
+	public void setAttackedFaction(int index, String attackedFaction) {
+		attackedFactions[index] = dictionary.encode(attackedFaction);
+	}
+
+	public int getSectorCode(int index) {
+		return sectors[index];
+	}
+
+	public String getSector(int index) {
+		return dictionary.decode(sectors[index]);
+	}
+
+	public void setSector(int index, String sector) {
+		sectors[index] = dictionary.encode(sector);
+	}
+
+	public boolean hasAttackedPos(int index) {
+		return attackedPositions.get(index);
+	}
+
+	public double getAttackedX(int index) {
+		return attackedX[index];
+	}
+
+	public double getAttackedY(int index) {
+		return attackedY[index];
+	}
+
+	public double getAttackedZ(int index) {
+		return attackedZ[index];
+	}
+
+	/**
+	 * Get the attacked position of an event
+	 *
+	 * @param index the event index
+	 * @return a new Position or null if the event has no position
+	 */
+	public Position getAttackedPos(int index) {
+		if (!attackedPositions.get(index)) {
+			return null;
+		}
+		return new Position(fromColumn(attackedX[index]), fromColumn(attackedY[index]), fromColumn(attackedZ[index]));
+	}
+
+	public void setAttackedPos(int index, Position attackedPos) {
+		if (attackedPos == null) {
+			attackedPositions.clear(index);
+		} else {
+			attackedPositions.set(index);
+			attackedX[index] = toColumn(attackedPos.getX());
+			attackedY[index] = toColumn(attackedPos.getY());
+			attackedZ[index] = toColumn(attackedPos.getZ());
+		}
+	}
+
+	/**
+	 * Unknown position coordinates are stored as NaN
+	 */
+	private static double toColumn(Double coordinate) {
+		return coordinate == null ? Double.NaN : coordinate;
+	}
+
+	private static Double fromColumn(double coordinate) {
+		return Double.isNaN(coordinate) ? null : coordinate;
+	}
+
+	/**
+	 * Write all events to a snapshot, column by column. The dictionary is not
+	 * part of the output.
+	 *
+	 * @param out the snapshot output
+	 * @throws IOException if writing fails
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeLong(timestamps[i]);
+		}
+		writeCodes(out, eventTypes);
+		writeCodes(out, attackerIds);
+		writeStrings(out, attackers);
+		writeCodes(out, attackerTypes);
+		writeCodes(out, attackerFactions);
+		writeCodes(out, attackedIds);
+		writeStrings(out, attackeds);
+		writeCodes(out, attackedTypes);
+		writeStrings(out, targetComponents);
+		writeCodes(out, attackedFactions);
+		writeCodes(out, sectors);
+		long[] positions = attackedPositions.toLongArray();
+		out.writeInt(positions.length);
+		for (long position : positions) {
+			out.writeLong(position);
+		}
+		writeDoubles(out, attackedX);
+		writeDoubles(out, attackedY);
+		writeDoubles(out, attackedZ);
+	}
+
+	/**
+	 * Read events written by {@link #writeTo(DataOutput)}
+	 *
+	 * @param in         the snapshot input
+	 * @param dictionary the dictionary the events were encoded with
+	 * @return the Global Event store
+	 * @throws IOException if reading fails or the snapshot does not match the
+	 *                     dictionary
+	 */
+	public static GlobalEventStore readFrom(DataInput in, StringDictionary dictionary) throws IOException {
+		int size = in.readInt();
+		if (size < 0) {
+			throw new IOException("Invalid Global Event count in snapshot: " + size);
+		}
+		GlobalEventStore store = new GlobalEventStore(dictionary, size);
+		store.size = size;
+		for (int i = 0; i < size; i++) {
+			store.timestamps[i] = in.readLong();
+		}
+		store.readCodes(in, store.eventTypes);
+		store.readCodes(in, store.attackerIds);
+		store.readStrings(in, store.attackers);
+		store.readCodes(in, store.attackerTypes);
+		store.readCodes(in, store.attackerFactions);
+		store.readCodes(in, store.attackedIds);
+		store.readStrings(in, store.attackeds);
+		store.readCodes(in, store.attackedTypes);
+		store.readStrings(in, store.targetComponents);
+		store.readCodes(in, store.attackedFactions);
+		store.readCodes(in, store.sectors);
+		long[] positions = new long[in.readInt()];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = in.readLong();
+		}
+		store.attackedPositions.or(BitSet.valueOf(positions));
+		store.readDoubles(in, store.attackedX);
+		store.readDoubles(in, store.attackedY);
+		store.readDoubles(in, store.attackedZ);
+		return store;
+	}
+
+	private void writeCodes(DataOutput out, int[] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			out.writeInt(column[i]);
+		}
+	}
+
+	private void readCodes(DataInput in, int[] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			int code = in.readInt();
+			if (code < StringDictionary.NULL_CODE || code >= dictionary.size()) {
+				throw new IOException("Invalid dictionary code in snapshot: " + code);
+			}
+			column[i] = code;
+		}
+	}
+
+	private void writeStrings(DataOutput out, String[] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			out.writeBoolean(column[i] != null);
+			if (column[i] != null) {
+				StringDictionary.writeString(out, column[i]);
+			}
+		}
+	}
+
+	private void readStrings(DataInput in, String[] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			column[i] = in.readBoolean() ? StringDictionary.readString(in) : null;
+		}
+	}
+
+	private void writeDoubles(DataOutput out, double[] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			out.writeDouble(column[i]);
+		}
+	}
+
+	private void readDoubles(DataInput in, double[] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			column[i] = in.readDouble();
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Global Event index " + index + " out of bounds for " + size + " events");
+		}
+	}
+
+	private void allocate(int capacity) {
+		if (timestamps == null) {
+			timestamps = new long[capacity];
+			eventTypes = new int[capacity];
+			attackerIds = new int[capacity];
+			attackers = new String[capacity];
+			attackerTypes = new int[capacity];
+			attackerFactions = new int[capacity];
+			attackedIds = new int[capacity];
+			attackeds = new String[capacity];
+			attackedTypes = new int[capacity];
+			targetComponents = new String[capacity];
+			attackedFactions = new int[capacity];
+			sectors = new int[capacity];
+			attackedX = new double[capacity];
+			attackedY = new double[capacity];
+			attackedZ = new double[capacity];
+		} else {
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			eventTypes = Arrays.copyOf(eventTypes, capacity);
+			attackerIds = Arrays.copyOf(attackerIds, capacity);
+			attackers = Arrays.copyOf(attackers, capacity);
+			attackerTypes = Arrays.copyOf(attackerTypes, capacity);
+			attackerFactions = Arrays.copyOf(attackerFactions, capacity);
+			attackedIds = Arrays.copyOf(attackedIds, capacity);
+			attackeds = Arrays.copyOf(attackeds, capacity);
+			attackedTypes = Arrays.copyOf(attackedTypes, capacity);
+			targetComponents = Arrays.copyOf(targetComponents, capacity);
+			attackedFactions = Arrays.copyOf(attackedFactions, capacity);
+			sectors = Arrays.copyOf(sectors, capacity);
+			attackedX = Arrays.copyOf(attackedX, capacity);
+			attackedY = Arrays.copyOf(attackedY, capacity);
+			attackedZ = Arrays.copyOf(attackedZ, capacity);
+		}
+	}
+
+	/**
+	 * Read only list of event views
+	 */
+	private class GlobalEventList extends AbstractList<GlobalEvent> implements RandomAccess {
+
+		@Override
+		public GlobalEvent get(int index) {
+			return GlobalEventStore.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+}
@@ -2,14 +2,11 @@ package org.soh.x4.x4tress_analyzer.model;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javafx.scene.control.TableColumn;
-import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
-
 /**
  * An Event entry as processed by the EventProcessor This is the summary of
  * several {@link org.soh.x4.x4tress_analyzer.model.GlobalEvent GlobalEvents}.
@@ -27,8 +24,16 @@ public class ProcessedEvent {
 	private Integer numberOfParticipants = null;
 	private Map<String, ShipInfo> participants = new HashMap<>();
 	private List<String> factions = new ArrayList<>();
-	private Timestamp startTime = null;
-	private Timestamp endTime = null;
+	/**
+	 * {@link StringDictionary} codes of the factions, for quick duplicate checks
+	 */
+	private int[] factionCodes = new int[4];
+	/**
+	 * Start and end in epoch milliseconds, converted to a Timestamp only for
+	 * display
+	 */
+	private long startTime = GlobalEventStore.NO_TIMESTAMP;
+	private long endTime = GlobalEventStore.NO_TIMESTAMP;
 	private List<GlobalEvent> majorEvents = new ArrayList<>();
 	
 	/**
@@ -36,50 +41,6 @@ public class ProcessedEvent {
 	 */
 	private Position center = null;
 
-	/**
-	 * Creates an empty JavaFX TableView for representation of the ProcessedEvent in
-	 * the UI
-	 * 
-	 * @return the TableView of GlobalEvent
-	 */
-	@SuppressWarnings("unchecked")
-	public static TableView<ProcessedEvent> createUITable() {
-		TableView<ProcessedEvent> eventTable = new TableView<>();
-		// eventTable.setPrefWidth(1000);
-
-		TableColumn<ProcessedEvent, String> eventType = new TableColumn<>("Event Type");
-		eventType.setPrefWidth(80);
-		eventType.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, String>("eventType"));
-		
-		TableColumn<ProcessedEvent, Integer> numberOfEvents = new TableColumn<>("# of Events");
-		numberOfEvents.setPrefWidth(80);
-		numberOfEvents.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, Integer>("numberOfEvents"));
-
-		TableColumn<ProcessedEvent, String> scale = new TableColumn<>("Event Scale");
-		scale.setPrefWidth(100);
-		scale.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, String>("scale"));
-
-		TableColumn<ProcessedEvent, String> sector = new TableColumn<>("Sector");
-		sector.setPrefWidth(150);
-		sector.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, String>("sector"));
-
-		TableColumn<ProcessedEvent, Integer> numberOfParticipants = new TableColumn<>("Participants");
-		numberOfParticipants.setPrefWidth(80);
-		numberOfParticipants
-				.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, Integer>("numberOfParticipants"));
-
-		TableColumn<ProcessedEvent, Timestamp> startTime = new TableColumn<>("Start time");
-		startTime.setPrefWidth(160);
-		startTime.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, Timestamp>("startTime"));
-
-		TableColumn<ProcessedEvent, Timestamp> endTime = new TableColumn<>("End time");
-		endTime.setPrefWidth(160);
-		endTime.setCellValueFactory(new PropertyValueFactory<ProcessedEvent, Timestamp>("endTime"));
-
-		eventTable.getColumns().addAll(eventType, numberOfEvents, scale, sector, numberOfParticipants, startTime, endTime);
-
-		return eventTable;
-	}
 	
 	/**
 	 * Checks if a given unit (ship / station) is involved in this Global Event
@@ -161,30 +122,61 @@ public class ProcessedEvent {
 	
 	/**
 	 * Add a faction to this event if it was not yet registered
+	 * @param factionCode the dictionary code of the faction
 	 * @param faction the faction name
 	 */
-	public void addFaction(String faction) {
-		if (!this.factions.contains(faction)) {
-			this.factions.add(faction);
+	public void addFaction(int factionCode, String faction) {
+		int factionCount = factions.size();
+		for (int i = 0; i < factionCount; i++) {
+			if (factionCodes[i] == factionCode) {
+				return;
+			}
+		}
+		if (factionCount == factionCodes.length) {
+			factionCodes = Arrays.copyOf(factionCodes, factionCount * 2);
 		}
+		factionCodes[factionCount] = factionCode;
+		factions.add(faction);
 	}
 
+	/**
+	 * Get the start time for display
+	 * 
+	 * @return a new Timestamp, null if the start time is unknown
+	 */
 	public Timestamp getStartTime() {
+		return toTimestamp(startTime);
+	}
+
+	/**
+	 * Get the end time for display
+	 * 
+	 * @return a new Timestamp, null if the end time is unknown
+	 */
+	public Timestamp getEndTime() {
+		return toTimestamp(endTime);
+	}
+
+	public long getStartTimeMillis() {
 		return startTime;
 	}
 
-	public void setStartTime(Timestamp startTime) {
+	public void setStartTimeMillis(long startTime) {
 		this.startTime = startTime;
 	}
 
-	public Timestamp getEndTime() {
+	public long getEndTimeMillis() {
 		return endTime;
 	}
 
-	public void setEndTime(Timestamp endTime) {
+	public void setEndTimeMillis(long endTime) {
 		this.endTime = endTime;
 	}
 
+	private static Timestamp toTimestamp(long time) {
+		return time == GlobalEventStore.NO_TIMESTAMP ? null : new Timestamp(time);
+	}
+
 	public Position getCenter() {
 		return center;
 	}
@@ -196,7 +188,50 @@ public class ProcessedEvent {
 	public List<GlobalEvent> getMajorEvents() {
 		return majorEvents;
 	}
-	
+
+	/**
+	 * Create a copy of this event that can be continued with the Global Events
+	 * of another load without changing this event. The faction codes are
+	 * encoded with the dictionary of that load, the major events still refer to
+	 * their Global Events.
+	 *
+	 * @param dictionary the dictionary of the Global Events the copy is continued
+	 *                   with
+	 * @return the copy
+	 */
+	public ProcessedEvent copy(StringDictionary dictionary) {
+		ProcessedEvent copy = new ProcessedEvent();
+		if (eventName != null) {
+			copy.eventName = new EventName();
+			copy.eventName.setEventName(eventName.getEventName());
+			copy.eventName.setEventNo(eventName.getEventNo());
+		}
+		copy.eventType = eventType;
+		copy.numberOfEvents = numberOfEvents;
+		copy.scale = scale;
+		copy.sector = sector;
+		copy.numberOfParticipants = numberOfParticipants;
+		for (Map.Entry<String, ShipInfo> entry : participants.entrySet()) {
+			ShipInfo shipInfo = entry.getValue();
+			ShipInfo shipInfoCopy = new ShipInfo(shipInfo.getShipId(), shipInfo.getShipType(), shipInfo.getShipFaction());
+			shipInfoCopy.setNoOfKills(shipInfo.getNoOfKills());
+			copy.participants.put(entry.getKey(), shipInfoCopy);
+		}
+		// The codes of this event may belong to another dictionary
+		copy.factions.addAll(factions);
+		copy.factionCodes = new int[Math.max(4, factions.size())];
+		for (int i = 0; i < factions.size(); i++) {
+			copy.factionCodes[i] = dictionary.lookup(factions.get(i));
+		}
+		copy.startTime = startTime;
+		copy.endTime = endTime;
+		copy.majorEvents.addAll(majorEvents);
+		if (center != null) {
+			copy.center = new Position(center.getX(), center.getY(), center.getZ());
+		}
+		return copy;
+	}
+
 	
 
 }
@@ -0,0 +1,162 @@
+package org.soh.x4.x4tress_analyzer.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary assigning compact int codes to Strings.<br>
+ * <br>
+ * Values like factions, sectors, ship types and ship ids repeat hundreds of
+ * thousands of times in the {@link GlobalEvent GlobalEvents} of a savegame. A
+ * dictionary is created per load, and the events store the codes instead of
+ * the Strings, so they can be compared and grouped by a plain int
+ * comparison.<br>
+ * Codes are assigned in order of first appearance, starting at 0.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class StringDictionary {
+
+	/**
+	 * The code of a null String
+	 */
+	public static final int NULL_CODE = -1;
+
+	/**
+	 * Returned by {@link #lookup(String)} for Strings that are not part of the
+	 * dictionary. Never equal to the code of any String, including null.
+	 */
+	public static final int UNKNOWN_CODE = -2;
+
+	private final Map<String, Integer> codes = new HashMap<>();
+
+	private final List<String> values = new ArrayList<>();
+
+	/**
+	 * Get the code of a String, adding it to the dictionary if necessary
+	 *
+	 * @param value the String
+	 * @return the code of the String
+	 */
+	public int encode(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = values.size();
+			codes.put(value, code);
+			values.add(value);
+		}
+		return code;
+	}
+
+	/**
+	 * Get the code of a String without adding it to the dictionary
+	 *
+	 * @param value the String
+	 * @return the code of the String, {@link #UNKNOWN_CODE} if the String is not
+	 *         part of the dictionary
+	 */
+	public int lookup(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+		Integer code = codes.get(value);
+		return code == null ? UNKNOWN_CODE : code;
+	}
+
+	/**
+	 * Get the String of a code
+	 *
+	 * @param code the code
+	 * @return the String, null for {@link #NULL_CODE}
+	 */
+	public String decode(int code) {
+		if (code < 0) {
+			return null;
+		}
+		return values.get(code);
+	}
+
+	/**
+	 * Get the number of Strings in the dictionary. All codes are smaller than the
+	 * size.
+	 *
+	 * @return the dictionary size
+	 */
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * Write the dictionary to a snapshot
+	 *
+	 * @param out the snapshot output
+	 * @throws IOException if writing fails
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	/**
+	 * Read a dictionary written by {@link #writeTo(DataOutput)}. The Strings keep
+	 * their codes.
+	 *
+	 * @param in the snapshot input
+	 * @return the dictionary
+	 * @throws IOException if reading fails
+	 */
+	public static StringDictionary readFrom(DataInput in) throws IOException {
+		StringDictionary dictionary = new StringDictionary();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			if (dictionary.encode(readString(in)) != i) {
+				throw new IOException("Duplicate dictionary entry in snapshot");
+			}
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Write a String to a snapshot as its length followed by its UTF-8 bytes.
+	 * Unlike {@link DataOutput#writeUTF(String)} there is no limit of 64 KB.
+	 *
+	 * @param out   the snapshot output
+	 * @param value the String, not null
+	 * @throws IOException if writing fails
+	 */
+	public static void writeString(DataOutput out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Read a String written by {@link #writeString(DataOutput, String)}
+	 *
+	 * @param in the snapshot input
+	 * @return the String
+	 * @throws IOException if reading fails or the length is invalid
+	 */
+	public static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid String length in snapshot: " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -56,7 +56,9 @@ public class EventProcessor_En {
 
 			DisplayEvent displayEvent = new DisplayEvent();
 			Timestamp displayTime = pEvent.getStartTime();
-			displayTime.setMinutes(0);
+			if (displayTime != null) {
+				displayTime.setMinutes(0);
+			}
 			displayEvent.setDate(displayTime);
 			displayEvent.setDisplayText(text);
 			return displayEvent;
@@ -0,0 +1,161 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Decides which savegame components are captured for the object list.<br>
+ * The filter is evaluated by the {@link SaveGameHandler} on the raw element
+ * attributes, so components that are not captured are never decoded into
+ * Strings or {@link org.soh.x4.x4tress_analyzer.model.Component Component}
+ * objects.<br>
+ * <br>
+ * A component is captured if it has a class and a code and matches all set
+ * criteria. Each criterion matches if any of its values match. Without any
+ * criteria, every component is captured.<br>
+ * <br>
+ * Components are written to the savegame before the Global Events, so
+ * {@link #setReferencedOnly(boolean) referenced only} is applied once the
+ * Global Events were resolved.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class ComponentFilter {
+
+	/**
+	 * Parts of the component class, e.g. <i>"ship"</i> to match
+	 * <i>"ship_s"</i> and <i>"ship_xl"</i>. Null to match any class.
+	 */
+	private String[] classes = null;
+
+	/**
+	 * Owner factions, e.g. <i>"player"</i>. Null to match any owner.
+	 */
+	private String[] owners = null;
+
+	/**
+	 * Prefixes of the component code. Null to match any code.
+	 */
+	private String[] codePrefixes = null;
+
+	private boolean referencedOnly = false;
+
+	/**
+	 * Get the filter capturing all ships and stations, as the analyzer always
+	 * did
+	 *
+	 * @return a new filter for ships and stations
+	 */
+	public static ComponentFilter shipsAndStations() {
+		ComponentFilter filter = new ComponentFilter();
+		filter.setClasses(Arrays.asList("station", "ship"));
+		return filter;
+	}
+
+	/**
+	 * Only capture components whose class contains one of the given Strings
+	 *
+	 * @param classes the parts of the component class, null to match any class
+	 */
+	public void setClasses(Collection<String> classes) {
+		this.classes = toArray(classes);
+	}
+
+	/**
+	 * Only capture components owned by one of the given factions
+	 *
+	 * @param owners the owner factions, e.g. <i>"player"</i>, null to match any
+	 *               owner
+	 */
+	public void setOwners(Collection<String> owners) {
+		this.owners = toArray(owners);
+	}
+
+	/**
+	 * Only capture components whose code starts with one of the given Strings
+	 *
+	 * @param codePrefixes the code prefixes, null to match any code
+	 */
+	public void setCodePrefixes(Collection<String> codePrefixes) {
+		this.codePrefixes = toArray(codePrefixes);
+	}
+
+	/**
+	 * Only keep components that take part in a Global Event, as attacker or as
+	 * attacked
+	 *
+	 * @param referencedOnly true to drop components no Global Event refers to
+	 */
+	public void setReferencedOnly(boolean referencedOnly) {
+		this.referencedOnly = referencedOnly;
+	}
+
+	public boolean isReferencedOnly() {
+		return referencedOnly;
+	}
+
+	/**
+	 * Checks if the component element currently read is captured
+	 *
+	 * @param attr the attributes of the component element
+	 * @return true if the component has a class and a code and matches all
+	 *         criteria
+	 */
+	boolean accepts(ElementAttributes attr) {
+		int classIndex = attr.getIndex("class");
+		int codeIndex = attr.getIndex("code");
+		if (classIndex == ElementAttributes.NOT_FOUND || codeIndex == ElementAttributes.NOT_FOUND) {
+			return false;
+		}
+		if (classes != null && !containsAny(attr, classIndex, classes)) {
+			return false;
+		}
+		if (codePrefixes != null && !startsWithAny(attr, codeIndex, codePrefixes)) {
+			return false;
+		}
+		return owners == null || equalsAny(attr, attr.getIndex("owner"), owners);
+	}
+
+	private static boolean containsAny(ElementAttributes attr, int index, String[] parts) {
+		for (String part : parts) {
+			if (attr.valueContains(index, part)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean startsWithAny(ElementAttributes attr, int index, String[] prefixes) {
+		for (String prefix : prefixes) {
+			if (attr.valueStartsWith(index, prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean equalsAny(ElementAttributes attr, int index, String[] values) {
+		for (String value : values) {
+			if (attr.valueEquals(index, value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String[] toArray(Collection<String> values) {
+		return values == null ? null : values.toArray(new String[0]);
+	}
+
+	/**
+	 * Describes the criteria, e.g. to tell snapshots of differently filtered
+	 * savegames apart
+	 */
+	@Override
+	public String toString() {
+		return "ComponentFilter [classes=" + Arrays.toString(classes) + ", owners=" + Arrays.toString(owners)
+				+ ", codePrefixes=" + Arrays.toString(codePrefixes) + ", referencedOnly=" + referencedOnly + "]";
+	}
+
+}
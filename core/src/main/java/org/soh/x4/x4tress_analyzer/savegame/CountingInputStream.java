@@ -0,0 +1,93 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream counting the bytes read from the underlying stream and reporting
+ * them to a {@link LoadMonitor}.<br>
+ * Placed directly on the file, below any decompression, so the progress of a
+ * compressed savegame is measured in compressed bytes.
+ * 
+ * @author Son of Hubert
+ *
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	/**
+	 * Report the progress at most once per megabyte
+	 */
+	private static final long REPORT_INTERVAL = 1024 * 1024;
+
+	private final LoadMonitor monitor;
+
+	private final long total;
+
+	private long count = 0;
+
+	private long nextReport = REPORT_INTERVAL;
+
+	/**
+	 * Creates a new counting stream
+	 * 
+	 * @param in      the underlying stream
+	 * @param total   the total number of bytes expected, e.g. the file size
+	 * @param monitor the monitor to report to
+	 */
+	public CountingInputStream(InputStream in, long total, LoadMonitor monitor) {
+		super(in);
+		this.total = total;
+		this.monitor = monitor;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b >= 0) {
+			count(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int read = super.read(b, off, len);
+		if (read > 0) {
+			count(read);
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(n);
+		if (skipped > 0) {
+			count(skipped);
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * Get the number of bytes read so far
+	 * 
+	 * @return the byte count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	private void count(long bytes) {
+		count += bytes;
+		if (count >= nextReport || count == total) {
+			nextReport = count + REPORT_INTERVAL;
+			monitor.progress(count, total);
+		}
+	}
+
+}
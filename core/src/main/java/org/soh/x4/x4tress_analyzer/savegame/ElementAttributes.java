@@ -0,0 +1,124 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+/**
+ * Read access to the attributes of the xml element currently being parsed.<br>
+ * Decouples the {@link SaveGameElementHandler} from the parser implementation
+ * used to read the savegame.<br>
+ * <br>
+ * Attributes are looked up once by name with {@link #getIndex(String)} and then
+ * accessed by index. The typed accessors let readers that work on the raw
+ * savegame bytes compare and parse values without creating a String for them.
+ *
+ * @author Son of Hubert
+ *
+ */
+public interface ElementAttributes {
+
+	/**
+	 * Index returned for attributes the current element does not have
+	 */
+	int NOT_FOUND = -1;
+
+	/**
+	 * Get the index of an attribute of the current element
+	 *
+	 * @param name the attribute name
+	 * @return the attribute index or {@link #NOT_FOUND}
+	 */
+	int getIndex(String name);
+
+	/**
+	 * Get the value of an attribute of the current element
+	 *
+	 * @param index the attribute index
+	 * @return the attribute value
+	 */
+	String getValue(int index);
+
+	/**
+	 * Get the value of an attribute of the current element
+	 *
+	 * @param name the attribute name
+	 * @return the attribute value or null if the element has no such attribute
+	 */
+	default String getValue(String name) {
+		int index = getIndex(name);
+		return index == NOT_FOUND ? null : getValue(index);
+	}
+
+	/**
+	 * Get the value of an attribute as an int
+	 *
+	 * @param index the attribute index
+	 * @return the attribute value
+	 * @throws NumberFormatException if the value is not an int
+	 */
+	default int getIntValue(int index) throws NumberFormatException {
+		return Integer.parseInt(getValue(index));
+	}
+
+	/**
+	 * Get the value of an attribute as a double
+	 *
+	 * @param index the attribute index
+	 * @return the attribute value
+	 * @throws NumberFormatException if the value is not a number
+	 */
+	default double getDoubleValue(int index) throws NumberFormatException {
+		return FastDoubleParser.parseDouble(getValue(index));
+	}
+
+	/**
+	 * Check if the value of an attribute equals a String
+	 *
+	 * @param index    the attribute index, may be {@link #NOT_FOUND}
+	 * @param expected the expected value
+	 * @return true if the attribute exists and has the expected value
+	 */
+	default boolean valueEquals(int index, String expected) {
+		return index != NOT_FOUND && expected.equals(getValue(index));
+	}
+
+	/**
+	 * Check if the value of an attribute contains a String
+	 *
+	 * @param index the attribute index, may be {@link #NOT_FOUND}
+	 * @param part  the String to look for
+	 * @return true if the attribute exists and contains the String
+	 */
+	default boolean valueContains(int index, String part) {
+		return index != NOT_FOUND && getValue(index).contains(part);
+	}
+
+	/**
+	 * Check if the value of an attribute starts with a String
+	 *
+	 * @param index  the attribute index, may be {@link #NOT_FOUND}
+	 * @param prefix the String to look for
+	 * @return true if the attribute exists and starts with the String
+	 */
+	default boolean valueStartsWith(int index, String prefix) {
+		return index != NOT_FOUND && getValue(index).startsWith(prefix);
+	}
+
+	/**
+	 * Map the value of an attribute to one of a set of known values, e.g. to
+	 * switch over it
+	 *
+	 * @param index       the attribute index, may be {@link #NOT_FOUND}
+	 * @param knownValues the known values
+	 * @return the known value equal to the attribute value, or null if the
+	 *         attribute does not exist or has another value
+	 */
+	default String getKnownValue(int index, String[] knownValues) {
+		if (index != NOT_FOUND) {
+			for (String knownValue : knownValues) {
+				if (valueEquals(index, knownValue)) {
+					return knownValue;
+				}
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,366 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decimal to double conversion for the coordinates and times in savegames.<br>
+ * <br>
+ * Parses plain decimal numbers (<i>-12345.678</i>, <i>1.5e-3</i>) directly from
+ * the bytes or chars of the parser, without creating a String. The result is
+ * always the same as {@link Double#parseDouble(String)}:
+ * <ul>
+ * <li>Numbers whose digits fit into 53 bits and with a small exponent are
+ * converted exactly with a single double multiplication or division (Clinger's
+ * fast path).</li>
+ * <li>Other numbers with up to 19 significant digits use the Eisel-Lemire
+ * algorithm, which multiplies the digits with a 128 bit approximation of the
+ * power of ten and detects the rare cases where the approximation is not
+ * precise enough to round correctly.</li>
+ * <li>Everything else, i.e. more digits, subnormal results, those rare cases
+ * and any syntax beyond plain decimals, falls back to
+ * {@link Double#parseDouble(String)}.</li>
+ * </ul>
+ *
+ * @author Son of Hubert
+ *
+ */
+public final class FastDoubleParser {
+
+	/**
+	 * The range of powers of ten covered by the Eisel-Lemire table
+	 */
+	private static final int SMALLEST_POWER_OF_TEN = -342;
+	private static final int LARGEST_POWER_OF_TEN = 308;
+
+	/**
+	 * Powers of ten that are exact doubles, for the fast path
+	 */
+	private static final double[] EXACT_POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Integers up to this value are exact doubles
+	 */
+	private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+	private static final int MAX_SIGNIFICANT_DIGITS = 19;
+
+	/**
+	 * Exponents beyond this can not be represented and are left to the fallback,
+	 * which also keeps the exponent accumulation from overflowing
+	 */
+	private static final int MAX_EXPONENT_DIGITS_VALUE = 100_000;
+
+	private static final int DOUBLE_EXPONENT_BIAS = 1023;
+
+	private static final int DOUBLE_SIGNIFICAND_WIDTH = 53;
+
+	/**
+	 * The 128 bit mantissas of the powers of five 5^q for q from
+	 * SMALLEST_POWER_OF_TEN to LARGEST_POWER_OF_TEN, normalized so the highest bit
+	 * is set. Two longs per power, high bits first. Negative powers are rounded
+	 * up, positive powers truncated.
+	 */
+	private static final long[] MANTISSA_128 = createMantissaTable();
+
+	/**
+	 * Marks that the fast algorithms could not determine the result
+	 */
+	private static final long NO_RESULT = -1;
+
+	private FastDoubleParser() {
+	}
+
+	/**
+	 * Parse a decimal number from a range of ASCII bytes
+	 *
+	 * @param bytes the bytes, e.g. a mapped savegame
+	 * @param from  the index of the first byte (inclusive)
+	 * @param to    the index of the last byte (exclusive)
+	 * @return the number
+	 * @throws NumberFormatException if the bytes are not a number
+	 */
+	public static double parseDouble(ByteBuffer bytes, int from, int to) throws NumberFormatException {
+		int i = from;
+		boolean negative = false;
+		if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+			negative = bytes.get(i) == '-';
+			i++;
+		}
+		long significand = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		int digits = 0;
+		byte b = 0;
+		for (; i < to; i++) {
+			b = bytes.get(i);
+			if (b < '0' || b > '9') {
+				break;
+			}
+			digits++;
+			if (significand != 0 || b != '0') {
+				significand = significand * 10 + (b - '0');
+				significantDigits++;
+			}
+		}
+		if (i < to && b == '.') {
+			for (i++; i < to; i++) {
+				b = bytes.get(i);
+				if (b < '0' || b > '9') {
+					break;
+				}
+				digits++;
+				if (significand != 0 || b != '0') {
+					significand = significand * 10 + (b - '0');
+					significantDigits++;
+				}
+				exponent--;
+			}
+		}
+		if (i < to && digits > 0 && (b == 'e' || b == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+				negativeExponent = bytes.get(i) == '-';
+				i++;
+			}
+			int exponentStart = i;
+			int explicitExponent = 0;
+			for (; i < to; i++) {
+				b = bytes.get(i);
+				if (b < '0' || b > '9') {
+					break;
+				}
+				if (explicitExponent < MAX_EXPONENT_DIGITS_VALUE) {
+					explicitExponent = explicitExponent * 10 + (b - '0');
+				}
+			}
+			if (i == exponentStart) {
+				return fallback(bytes, from, to);
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+		if (i != to || digits == 0 || significantDigits > MAX_SIGNIFICANT_DIGITS) {
+			return fallback(bytes, from, to);
+		}
+		long bits = toDoubleBits(negative, significand, exponent);
+		return bits != NO_RESULT ? Double.longBitsToDouble(bits) : fallback(bytes, from, to);
+	}
+
+	/**
+	 * Parse a decimal number from a String
+	 *
+	 * @param text the text
+	 * @return the number
+	 * @throws NumberFormatException if the text is not a number
+	 */
+	public static double parseDouble(String text) throws NumberFormatException {
+		return parseDouble(text, 0, text.length());
+	}
+
+	/**
+	 * Parse a decimal number from a range of chars
+	 *
+	 * @param text the chars
+	 * @param from the index of the first char (inclusive)
+	 * @param to   the index of the last char (exclusive)
+	 * @return the number
+	 * @throws NumberFormatException if the chars are not a number
+	 */
+	public static double parseDouble(CharSequence text, int from, int to) throws NumberFormatException {
+		int i = from;
+		boolean negative = false;
+		if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+			negative = text.charAt(i) == '-';
+			i++;
+		}
+		long significand = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		int digits = 0;
+		char c = 0;
+		for (; i < to; i++) {
+			c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			digits++;
+			if (significand != 0 || c != '0') {
+				significand = significand * 10 + (c - '0');
+				significantDigits++;
+			}
+		}
+		if (i < to && c == '.') {
+			for (i++; i < to; i++) {
+				c = text.charAt(i);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				digits++;
+				if (significand != 0 || c != '0') {
+					significand = significand * 10 + (c - '0');
+					significantDigits++;
+				}
+				exponent--;
+			}
+		}
+		if (i < to && digits > 0 && (c == 'e' || c == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+				negativeExponent = text.charAt(i) == '-';
+				i++;
+			}
+			int exponentStart = i;
+			int explicitExponent = 0;
+			for (; i < to; i++) {
+				c = text.charAt(i);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				if (explicitExponent < MAX_EXPONENT_DIGITS_VALUE) {
+					explicitExponent = explicitExponent * 10 + (c - '0');
+				}
+			}
+			if (i == exponentStart) {
+				return Double.parseDouble(text.subSequence(from, to).toString());
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+		if (i != to || digits == 0 || significantDigits > MAX_SIGNIFICANT_DIGITS) {
+			return Double.parseDouble(text.subSequence(from, to).toString());
+		}
+		long bits = toDoubleBits(negative, significand, exponent);
+		return bits != NO_RESULT ? Double.longBitsToDouble(bits)
+				: Double.parseDouble(text.subSequence(from, to).toString());
+	}
+
+	private static double fallback(ByteBuffer bytes, int from, int to) throws NumberFormatException {
+		byte[] text = new byte[to - from];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = bytes.get(from + i);
+		}
+		return Double.parseDouble(new String(text, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Convert significand * 10^exponent to the bits of the nearest double
+	 *
+	 * @param negative    the sign
+	 * @param significand the decimal significand, at most 19 digits
+	 * @param exponent    the decimal exponent
+	 * @return the double bits or NO_RESULT if the fallback has to decide
+	 */
+	private static long toDoubleBits(boolean negative, long significand, int exponent) {
+		if (significand == 0) {
+			return negative ? Double.doubleToRawLongBits(-0.0) : 0L;
+		}
+		// Clinger's fast path: both operands are exact, so the single rounding of
+		// the multiplication or division is the correct rounding
+		if (exponent >= -22 && exponent <= 22 && Long.compareUnsigned(significand, MAX_EXACT_SIGNIFICAND) <= 0) {
+			double value = significand;
+			value = exponent < 0 ? value / EXACT_POWERS_OF_TEN[-exponent] : value * EXACT_POWERS_OF_TEN[exponent];
+			return Double.doubleToRawLongBits(negative ? -value : value);
+		}
+		return eiselLemire(negative, significand, exponent);
+	}
+
+	/**
+	 * The Eisel-Lemire algorithm as published by Daniel Lemire in "Number Parsing
+	 * at a Gigabyte per Second" (2021)
+	 */
+	private static long eiselLemire(boolean negative, long significand, int exponent) {
+		if (exponent < SMALLEST_POWER_OF_TEN || exponent > LARGEST_POWER_OF_TEN) {
+			return NO_RESULT;
+		}
+		int leadingZeros = Long.numberOfLeadingZeros(significand);
+		significand <<= leadingZeros;
+
+		int index = 2 * (exponent - SMALLEST_POWER_OF_TEN);
+		long factorHigh = MANTISSA_128[index];
+		// floor(log2(10^exponent)) + bias + 64, computed without a logarithm
+		long binaryExponent = (((152170L + 65536L) * exponent) >> 16) + DOUBLE_EXPONENT_BIAS + 64;
+
+		long lower = significand * factorHigh;
+		long upper = unsignedMultiplyHigh(significand, factorHigh);
+		// The truncated 64 bit product may be off. Use the next 64 bits of the
+		// power if the bits below the mantissa are all ones.
+		if ((upper & 0x1FF) == 0x1FF && Long.compareUnsigned(lower + significand, lower) < 0) {
+			long factorLow = MANTISSA_128[index + 1];
+			long productLow = significand * factorLow;
+			long productMiddle2 = unsignedMultiplyHigh(significand, factorLow);
+			long productMiddle = lower + productMiddle2;
+			long productHigh = upper;
+			if (Long.compareUnsigned(productMiddle, lower) < 0) {
+				productHigh++;
+			}
+			if (productMiddle + 1 == 0 && (productHigh & 0x1FF) == 0x1FF
+					&& Long.compareUnsigned(productLow + significand, productLow) < 0) {
+				return NO_RESULT;
+			}
+			upper = productHigh;
+			lower = productMiddle;
+		}
+
+		long upperBit = upper >>> 63;
+		long mantissa = upper >>> (upperBit + 9);
+		leadingZeros += (int) (1 ^ upperBit);
+		// Too close to a halfway point to round from the approximation
+		if ((upper & 0x1FF) == 0x1FF || ((upper & 0x1FF) == 0 && (mantissa & 3) == 1)) {
+			return NO_RESULT;
+		}
+		mantissa += 1;
+		mantissa >>>= 1;
+		if (mantissa >= (1L << DOUBLE_SIGNIFICAND_WIDTH)) {
+			mantissa = 1L << (DOUBLE_SIGNIFICAND_WIDTH - 1);
+			leadingZeros--;
+		}
+		mantissa &= ~(1L << (DOUBLE_SIGNIFICAND_WIDTH - 1));
+		long realExponent = binaryExponent - leadingZeros;
+		// Subnormal results and overflows are left to the fallback
+		if (realExponent < 1 || realExponent > 2 * DOUBLE_EXPONENT_BIAS) {
+			return NO_RESULT;
+		}
+		return mantissa | realExponent << (DOUBLE_SIGNIFICAND_WIDTH - 1) | (negative ? 1L << 63 : 0L);
+	}
+
+	/**
+	 * The high 64 bits of the unsigned 128 bit product of two longs
+	 */
+	private static long unsignedMultiplyHigh(long a, long b) {
+		return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+	}
+
+	/**
+	 * Compute the 128 bit mantissas of the powers of five
+	 */
+	private static long[] createMantissaTable() {
+		long[] table = new long[2 * (LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1)];
+		BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+		for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+			BigInteger mantissa;
+			if (q < 0) {
+				// 2^b / 5^-q rounded up, with b chosen to keep at least 128 bits
+				BigInteger power = BigInteger.valueOf(5).pow(-q);
+				int z = power.bitLength();
+				int b = q >= -27 ? z + 127 : 2 * z + 2 * 64;
+				mantissa = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+				while (mantissa.compareTo(two128) >= 0) {
+					mantissa = mantissa.shiftRight(1);
+				}
+			} else {
+				mantissa = BigInteger.valueOf(5).pow(q);
+				int bitLength = mantissa.bitLength();
+				mantissa = bitLength < 128 ? mantissa.shiftLeft(128 - bitLength)
+						: mantissa.shiftRight(bitLength - 128);
+			}
+			int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+			table[index] = mantissa.shiftRight(64).longValue();
+			table[index + 1] = mantissa.longValue();
+		}
+		return table;
+	}
+
+}
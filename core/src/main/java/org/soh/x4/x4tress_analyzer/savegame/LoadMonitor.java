@@ -0,0 +1,58 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+/**
+ * Receives the progress of a savegame load and may cancel it.<br>
+ * Methods may be called from any thread, including the thread inflating a
+ * compressed savegame.<br>
+ * Cancellation is cooperative: the loader checks {@link #isCancelled()}
+ * regularly and aborts the load with a
+ * {@link java.util.concurrent.CancellationException CancellationException}.
+ * 
+ * @author Son of Hubert
+ *
+ */
+public interface LoadMonitor {
+
+	/**
+	 * Monitor ignoring all progress and never cancelling
+	 */
+	LoadMonitor NONE = new LoadMonitor() {
+
+		@Override
+		public void stageChanged(LoadStage stage) {
+		}
+
+		@Override
+		public void progress(long done, long total) {
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+	};
+
+	/**
+	 * A new stage started. Its progress is unknown until
+	 * {@link #progress(long, long)} is called.
+	 * 
+	 * @param stage the stage
+	 */
+	void stageChanged(LoadStage stage);
+
+	/**
+	 * Progress within the current stage
+	 * 
+	 * @param done  the work done, e.g. bytes read
+	 * @param total the total work
+	 */
+	void progress(long done, long total);
+
+	/**
+	 * Checks if the load should be aborted
+	 * 
+	 * @return true to cancel the load
+	 */
+	boolean isCancelled();
+
+}
@@ -0,0 +1,222 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Timing and memory figures of the stages of a savegame load.<br>
+ * <br>
+ * Each stage records its wall time, the CPU time and the heap bytes allocated
+ * by the threads running it, and the number of items it produced. CPU time and
+ * allocated bytes are -1 if the JVM does not support measuring them.<br>
+ * Inflating a compressed savegame runs on its own thread, in parallel to
+ * parsing, so the wall times of the stages may add up to more than the total
+ * wall time of the load.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class LoadReport {
+
+	/**
+	 * Resolving the refs reachable from the scope root globals
+	 */
+	public static final String SCOPE = "scope";
+
+	/**
+	 * Reading or storing the snapshot of a savegame
+	 */
+	public static final String SNAPSHOT = "snapshot";
+
+	/**
+	 * Inflating a compressed savegame, on the inflater thread
+	 */
+	public static final String INFLATE = "inflate";
+
+	/**
+	 * Parsing the savegame elements with the {@link SaveGameHandler}
+	 */
+	public static final String PARSE = "parse";
+
+	/**
+	 * Resolving the table keys of the savegame
+	 */
+	public static final String RESOLVE_KEYS = "resolveKeys";
+
+	/**
+	 * Resolving the Global Events from the savegame refs
+	 */
+	public static final String RESOLVE_EVENTS = "resolveEvents";
+
+	/**
+	 * Analyzing the Global Events
+	 */
+	public static final String ANALYZE = "analyze";
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+	private static final double MEGABYTE = 1024.0 * 1024.0;
+
+	/**
+	 * The figures of a single stage
+	 */
+	public static class Stage {
+
+		private final String name;
+		private final long wallNanos;
+		private final long cpuNanos;
+		private final long allocatedBytes;
+		private final long count;
+		private final String countUnit;
+
+		public Stage(String name, long wallNanos, long cpuNanos, long allocatedBytes, long count, String countUnit) {
+			this.name = name;
+			this.wallNanos = wallNanos;
+			this.cpuNanos = cpuNanos;
+			this.allocatedBytes = allocatedBytes;
+			this.count = count;
+			this.countUnit = countUnit;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getWallNanos() {
+			return wallNanos;
+		}
+
+		/**
+		 * @return the CPU time of the stage threads, -1 if unknown
+		 */
+		public long getCpuNanos() {
+			return cpuNanos;
+		}
+
+		/**
+		 * @return the heap bytes allocated by the stage threads, -1 if unknown
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * @return the number of items the stage produced
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return what the items the stage produced are, e.g. "elements"
+		 */
+		public String getCountUnit() {
+			return countUnit;
+		}
+
+		/**
+		 * Combine the figures of two runs of the same stage
+		 */
+		private Stage merge(Stage other) {
+			return new Stage(name, wallNanos + other.wallNanos, sumKnown(cpuNanos, other.cpuNanos),
+					sumKnown(allocatedBytes, other.allocatedBytes), count + other.count, countUnit);
+		}
+
+		private static long sumKnown(long a, long b) {
+			return a < 0 || b < 0 ? -1 : a + b;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder text = new StringBuilder(name).append(' ').append(seconds(wallNanos)).append(" s");
+			if (cpuNanos >= 0) {
+				text.append(" cpu ").append(seconds(cpuNanos)).append(" s");
+			}
+			if (allocatedBytes >= 0) {
+				text.append(" alloc ").append(String.format(Locale.ROOT, "%.1f", allocatedBytes / MEGABYTE))
+						.append(" MB");
+			}
+			if (countUnit != null) {
+				text.append(' ').append(count).append(' ').append(countUnit);
+			}
+			return text.toString();
+		}
+	}
+
+	private final List<Stage> stages = new ArrayList<>();
+
+	private long wallNanos = 0;
+
+	/**
+	 * Add the figures of a stage. A stage that ran several times, e.g. inflating
+	 * the savegame for the scope and for the data, is reported once with the sums
+	 * of its runs.
+	 *
+	 * @param stage the stage figures
+	 */
+	public synchronized void add(Stage stage) {
+		for (int i = 0; i < stages.size(); i++) {
+			if (stages.get(i).getName().equals(stage.getName())) {
+				stages.set(i, stages.get(i).merge(stage));
+				return;
+			}
+		}
+		stages.add(stage);
+	}
+
+	/**
+	 * Get the stages in the order they were first added
+	 *
+	 * @return the stages
+	 */
+	public synchronized List<Stage> getStages() {
+		return Collections.unmodifiableList(new ArrayList<>(stages));
+	}
+
+	/**
+	 * Get the figures of a stage
+	 *
+	 * @param name the stage name, e.g. {@link #PARSE}
+	 * @return the stage figures, or null if the stage did not run
+	 */
+	public synchronized Stage getStage(String name) {
+		for (Stage stage : stages) {
+			if (stage.getName().equals(name)) {
+				return stage;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the wall time of the whole load
+	 *
+	 * @return the total wall time in nanoseconds
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	public void setWallNanos(long wallNanos) {
+		this.wallNanos = wallNanos;
+	}
+
+	/**
+	 * Summarize the report in a single line
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder text = new StringBuilder("total ").append(seconds(wallNanos)).append(" s");
+		for (Stage stage : stages) {
+			text.append(" | ").append(stage);
+		}
+		return text.toString();
+	}
+
+	private static String seconds(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_SECOND);
+	}
+
+}
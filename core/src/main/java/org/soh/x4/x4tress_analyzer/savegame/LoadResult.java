@@ -0,0 +1,30 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+
+/**
+ * The data of a loaded savegame with the report of how it was loaded
+ *
+ * @author Son of Hubert
+ *
+ */
+public class LoadResult {
+
+	private final DataStorage data;
+
+	private final LoadReport report;
+
+	public LoadResult(DataStorage data, LoadReport report) {
+		this.data = data;
+		this.report = report;
+	}
+
+	public DataStorage getData() {
+		return data;
+	}
+
+	public LoadReport getReport() {
+		return report;
+	}
+
+}
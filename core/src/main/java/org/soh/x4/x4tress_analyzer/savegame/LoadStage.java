@@ -0,0 +1,51 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+/**
+ * The stages of loading a savegame, as reported to a {@link LoadMonitor}
+ *
+ * @author Son of Hubert
+ *
+ */
+public enum LoadStage {
+
+	/**
+	 * Reading the data of a savegame from the snapshot cache
+	 */
+	SNAPSHOT("Reading snapshot"),
+
+	/**
+	 * Inflating and parsing a compressed savegame. Progress in compressed bytes.
+	 */
+	INFLATE("Inflating savegame"),
+
+	/**
+	 * Parsing an uncompressed savegame. Progress in bytes.
+	 */
+	PARSE("Parsing savegame"),
+
+	/**
+	 * Resolving the Global Events from the savegame refs
+	 */
+	RESOLVE("Resolving Global Events"),
+
+	/**
+	 * Analyzing the Global Events
+	 */
+	ANALYZE("Analyzing Global Events");
+
+	private final String description;
+
+	private LoadStage(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * Get a description of the stage for display
+	 *
+	 * @return the stage description
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+}
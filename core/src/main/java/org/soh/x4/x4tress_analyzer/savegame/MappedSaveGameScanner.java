@@ -0,0 +1,569 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Byte level scanner for uncompressed X4 savegames.<br>
+ * <br>
+ * The savegame is memory mapped and scanned for tags directly on the bytes.
+ * Only the tags a {@link SaveGameElementHandler} handles are passed on; all other
+ * elements are skipped without building any Strings. Attribute values are only
+ * decoded when the handler asks for them.<br>
+ * Like the {@link StaxSaveGameReader}, the scanner stops as soon as the handler
+ * reports that it has captured everything it needs.<br>
+ * <br>
+ * This is not a validating xml parser. It expects a well formed, UTF-8 encoded
+ * savegame as written by X4.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class MappedSaveGameScanner {
+
+	/**
+	 * Size of a single mapped window of the savegame. Tags crossing the end of a
+	 * window are re-read from a new window starting at the tag.
+	 */
+	private static final int WINDOW_SIZE = 256 * 1024 * 1024;
+
+	/**
+	 * Report the progress at most once per this many bytes
+	 */
+	private static final long REPORT_INTERVAL = 16 * 1024 * 1024;
+
+	/**
+	 * Marks an entity reference that is kept as it is
+	 */
+	private static final int INVALID_CODE_POINT = -1;
+
+	private final LoadMonitor monitor;
+
+	private String[] tags;
+
+	private byte[][] tagBytes;
+
+	private FileChannel channel;
+	private long fileSize;
+	private long windowStart;
+	private MappedByteBuffer window;
+	private int windowLimit;
+	private long nextReport;
+
+	/**
+	 * Creates a scanner that does not report its progress
+	 */
+	public MappedSaveGameScanner() {
+		this(LoadMonitor.NONE);
+	}
+
+	/**
+	 * Creates a scanner reporting the bytes scanned to a monitor
+	 *
+	 * @param monitor the monitor to report to
+	 */
+	public MappedSaveGameScanner(LoadMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Scan an uncompressed savegame
+	 *
+	 * @param file    the savegame file
+	 * @param handler the handler to feed the elements to
+	 * @return true if scanning stopped early, false if the whole file was scanned
+	 * @throws IOException if the file cannot be read or ends in the middle of a tag
+	 */
+	public boolean read(File file, SaveGameElementHandler handler) throws IOException {
+		List<String> handledTags = handler.getHandledTags();
+		tags = handledTags.toArray(new String[0]);
+		tagBytes = new byte[tags.length][];
+		for (int i = 0; i < tags.length; i++) {
+			tagBytes[i] = tags[i].getBytes(StandardCharsets.US_ASCII);
+		}
+		try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			channel = fileChannel;
+			fileSize = channel.size();
+			nextReport = REPORT_INTERVAL;
+			mapWindow(0);
+			return scan(handler);
+		} finally {
+			channel = null;
+			window = null;
+		}
+	}
+
+	/**
+	 * Scan loop
+	 */
+	private boolean scan(SaveGameElementHandler handler) throws IOException {
+		MappedAttributes attributes = new MappedAttributes();
+		int depth = 0;
+		int pos = 0;
+		while (true) {
+			// Skip text content up to the next tag
+			while (pos < windowLimit && window.get(pos) != '<') {
+				pos++;
+			}
+			if (pos >= windowLimit) {
+				if (isLastWindow()) {
+					monitor.progress(fileSize, fileSize);
+					return false;
+				}
+				mapWindow(windowStart + pos);
+				pos = 0;
+				continue;
+			}
+
+			int tagEnd = findTagEnd(pos);
+			if (tagEnd < 0) {
+				if (isLastWindow() || pos == 0) {
+					throw new IOException("Unexpected end of savegame at byte " + (windowStart + pos));
+				}
+				mapWindow(windowStart + pos);
+				pos = 0;
+				continue;
+			}
+
+			byte type = window.get(pos + 1);
+			if (type == '/') {
+				String tag = matchTag(pos + 2, tagEnd);
+				if (tag != null) {
+					handler.endElement(tag);
+				}
+				depth--;
+				if (depth == 1 && handler.isComplete()) {
+					return true;
+				}
+			} else if (type != '?' && type != '!') {
+				boolean selfClosing = window.get(tagEnd - 1) == '/';
+				int nameEnd = findNameEnd(pos + 1, tagEnd);
+				String tag = matchTag(pos + 1, nameEnd);
+				depth++;
+				if (tag != null) {
+					attributes.set(nameEnd, selfClosing ? tagEnd - 1 : tagEnd);
+					handler.startElement(tag, attributes);
+					if (selfClosing) {
+						handler.endElement(tag);
+					}
+				}
+				if (selfClosing) {
+					depth--;
+					if (depth == 1 && handler.isComplete()) {
+						return true;
+					}
+				}
+			}
+			if (windowStart + tagEnd >= nextReport) {
+				nextReport = windowStart + tagEnd + REPORT_INTERVAL;
+				monitor.progress(windowStart + tagEnd + 1, fileSize);
+			}
+			pos = tagEnd + 1;
+		}
+	}
+
+	private boolean isLastWindow() {
+		return windowStart + windowLimit >= fileSize;
+	}
+
+	private void mapWindow(long start) throws IOException {
+		windowStart = start;
+		windowLimit = (int) Math.min(WINDOW_SIZE, fileSize - start);
+		window = channel.map(MapMode.READ_ONLY, windowStart, windowLimit);
+	}
+
+	/**
+	 * Find the closing '>' of the tag starting at pos. Quoted attribute values,
+	 * comments and CDATA sections may contain '>' themselves.
+	 *
+	 * @param pos position of the opening '<'
+	 * @return the position of the closing '>' or -1 if the tag does not end within
+	 *         the current window
+	 */
+	private int findTagEnd(int pos) {
+		if (startsWith(pos, "<!--")) {
+			return findSequenceEnd(pos + 4, "-->");
+		}
+		if (startsWith(pos, "<![CDATA[")) {
+			return findSequenceEnd(pos + 9, "]]>");
+		}
+		int i = pos + 1;
+		while (i < windowLimit) {
+			byte b = window.get(i);
+			if (b == '>') {
+				return i;
+			}
+			if (b == '"' || b == '\'') {
+				i++;
+				while (i < windowLimit && window.get(i) != b) {
+					i++;
+				}
+			}
+			i++;
+		}
+		return -1;
+	}
+
+	private int findSequenceEnd(int pos, String sequence) {
+		int last = windowLimit - sequence.length();
+		for (int i = pos; i <= last; i++) {
+			if (startsWith(i, sequence)) {
+				return i + sequence.length() - 1;
+			}
+		}
+		return -1;
+	}
+
+	private boolean startsWith(int pos, String sequence) {
+		if (pos + sequence.length() > windowLimit) {
+			return false;
+		}
+		for (int i = 0; i < sequence.length(); i++) {
+			if (window.get(pos + i) != sequence.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int findNameEnd(int pos, int tagEnd) {
+		int i = pos;
+		while (i < tagEnd) {
+			byte b = window.get(i);
+			if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '/') {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Match an element name against the handled tags
+	 *
+	 * @param start start of the name
+	 * @param end   end of the name (exclusive). Trailing whitespace is ignored.
+	 * @return the matching tag or null if the tag is not handled
+	 */
+	private String matchTag(int start, int end) {
+		while (end > start && isWhitespace(window.get(end - 1))) {
+			end--;
+		}
+		int length = end - start;
+		for (int t = 0; t < tagBytes.length; t++) {
+			byte[] candidate = tagBytes[t];
+			if (candidate.length == length && matches(start, candidate)) {
+				return tags[t];
+			}
+		}
+		return null;
+	}
+
+	private boolean matches(int start, byte[] candidate) {
+		for (int i = 0; i < candidate.length; i++) {
+			if (window.get(start + i) != candidate[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Attributes of the current tag, read directly from the mapped bytes.<br>
+	 * The attribute boundaries are located once per tag, on first access. Values
+	 * are only decoded into Strings when the handler asks for a String; comparing
+	 * and parsing numbers works on the bytes.
+	 */
+	private class MappedAttributes implements ElementAttributes {
+
+		private int start;
+		private int end;
+
+		/**
+		 * Number of attributes located, -1 until the tag is split
+		 */
+		private int count = -1;
+		private int[] nameStart = new int[8];
+		private int[] nameEnd = new int[8];
+		private int[] valueStart = new int[8];
+		private int[] valueEnd = new int[8];
+
+		private byte[] scratch = new byte[256];
+
+		void set(int start, int end) {
+			this.start = start;
+			this.end = end;
+			count = -1;
+		}
+
+		@Override
+		public int getIndex(String name) {
+			if (count < 0) {
+				split();
+			}
+			for (int index = 0; index < count; index++) {
+				if (bytesMatch(name, nameStart[index], nameEnd[index])) {
+					return index;
+				}
+			}
+			return NOT_FOUND;
+		}
+
+		@Override
+		public String getValue(int index) {
+			return decodeValue(valueStart[index], valueEnd[index]);
+		}
+
+		/**
+		 * Parses plain decimal values directly. Anything else, e.g. entity
+		 * references or surrounding whitespace, is left to Integer.parseInt.
+		 */
+		@Override
+		public int getIntValue(int index) throws NumberFormatException {
+			int i = valueStart[index];
+			int limit = valueEnd[index];
+			boolean negative = i < limit && window.get(i) == '-';
+			if (negative) {
+				i++;
+			}
+			// Up to 9 digits always fit into an int
+			if (i == limit || limit - i > 9) {
+				return ElementAttributes.super.getIntValue(index);
+			}
+			int value = 0;
+			for (; i < limit; i++) {
+				int digit = window.get(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return ElementAttributes.super.getIntValue(index);
+				}
+				value = value * 10 + digit;
+			}
+			return negative ? -value : value;
+		}
+
+		@Override
+		public double getDoubleValue(int index) throws NumberFormatException {
+			if (needsDecoding(index)) {
+				return ElementAttributes.super.getDoubleValue(index);
+			}
+			return FastDoubleParser.parseDouble(window, valueStart[index], valueEnd[index]);
+		}
+
+		@Override
+		public boolean valueEquals(int index, String expected) {
+			if (index == NOT_FOUND) {
+				return false;
+			}
+			if (needsDecoding(index)) {
+				return ElementAttributes.super.valueEquals(index, expected);
+			}
+			return bytesMatch(expected, valueStart[index], valueEnd[index]);
+		}
+
+		@Override
+		public boolean valueContains(int index, String part) {
+			if (index == NOT_FOUND) {
+				return false;
+			}
+			if (needsDecoding(index)) {
+				return ElementAttributes.super.valueContains(index, part);
+			}
+			int last = valueEnd[index] - part.length();
+			for (int i = valueStart[index]; i <= last; i++) {
+				if (bytesMatch(part, i, i + part.length())) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean valueStartsWith(int index, String prefix) {
+			if (index == NOT_FOUND) {
+				return false;
+			}
+			if (needsDecoding(index)) {
+				return ElementAttributes.super.valueStartsWith(index, prefix);
+			}
+			int from = valueStart[index];
+			return from + prefix.length() <= valueEnd[index] && bytesMatch(prefix, from, from + prefix.length());
+		}
+
+		/**
+		 * Locate the names and values of all attributes of the current tag
+		 */
+		private void split() {
+			count = 0;
+			int i = start;
+			while (i < end) {
+				while (i < end && isWhitespace(window.get(i))) {
+					i++;
+				}
+				int currentNameStart = i;
+				while (i < end && window.get(i) != '=' && !isWhitespace(window.get(i))) {
+					i++;
+				}
+				int currentNameEnd = i;
+				while (i < end && window.get(i) != '"' && window.get(i) != '\'') {
+					i++;
+				}
+				if (i >= end) {
+					return;
+				}
+				byte quote = window.get(i);
+				int currentValueStart = ++i;
+				while (i < end && window.get(i) != quote) {
+					i++;
+				}
+				if (count == nameStart.length) {
+					nameStart = Arrays.copyOf(nameStart, count * 2);
+					nameEnd = Arrays.copyOf(nameEnd, count * 2);
+					valueStart = Arrays.copyOf(valueStart, count * 2);
+					valueEnd = Arrays.copyOf(valueEnd, count * 2);
+				}
+				nameStart[count] = currentNameStart;
+				nameEnd[count] = currentNameEnd;
+				valueStart[count] = currentValueStart;
+				valueEnd[count] = i++;
+				count++;
+			}
+		}
+
+		/**
+		 * Values containing entity references or whitespace that is normalized, or
+		 * any non ASCII bytes, can only be compared after decoding them
+		 */
+		private boolean needsDecoding(int index) {
+			for (int i = valueStart[index]; i < valueEnd[index]; i++) {
+				byte b = window.get(i);
+				if (b == '&' || b == '\r' || b == '\n' || b == '\t' || b < 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Compare the bytes of the mapped window with an ASCII String
+		 */
+		private boolean bytesMatch(String text, int from, int to) {
+			if (to - from != text.length()) {
+				return false;
+			}
+			for (int i = 0; i < text.length(); i++) {
+				if (window.get(from + i) != text.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Decode an attribute value, resolving entity references and normalizing
+		 * whitespace like an xml parser would.
+		 */
+		private String decodeValue(int valueStart, int valueEnd) {
+			int length = valueEnd - valueStart;
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			}
+			int out = 0;
+			int i = valueStart;
+			while (i < valueEnd) {
+				byte b = window.get(i++);
+				if (b == '&') {
+					int semicolon = i;
+					while (semicolon < valueEnd && window.get(semicolon) != ';') {
+						semicolon++;
+					}
+					out = appendEntity(i, semicolon, valueEnd, out);
+					i = semicolon + 1;
+				} else if (b == '\r') {
+					if (i < valueEnd && window.get(i) == '\n') {
+						i++;
+					}
+					scratch[out++] = ' ';
+				} else if (b == '\n' || b == '\t') {
+					scratch[out++] = ' ';
+				} else {
+					scratch[out++] = b;
+				}
+			}
+			return new String(scratch, 0, out, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Append the UTF-8 bytes of an entity reference to the scratch buffer. The
+		 * UTF-8 encoding is never longer than the entity reference itself.
+		 */
+		private int appendEntity(int start, int end, int valueEnd, int out) {
+			int codePoint;
+			if (end - start > 1 && window.get(start) == '#') {
+				codePoint = parseCharacterReference(start, end);
+			} else if (bytesMatch("lt", start, end)) {
+				codePoint = '<';
+			} else if (bytesMatch("gt", start, end)) {
+				codePoint = '>';
+			} else if (bytesMatch("amp", start, end)) {
+				codePoint = '&';
+			} else if (bytesMatch("quot", start, end)) {
+				codePoint = '"';
+			} else if (bytesMatch("apos", start, end)) {
+				codePoint = '\'';
+			} else {
+				codePoint = INVALID_CODE_POINT;
+			}
+			if (codePoint == INVALID_CODE_POINT) {
+				// Unknown entity or invalid character, keep it as it is
+				for (int i = start - 1; i <= end && i < valueEnd; i++) {
+					scratch[out++] = window.get(i);
+				}
+				return out;
+			}
+			byte[] encoded = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+			for (byte b : encoded) {
+				scratch[out++] = b;
+			}
+			return out;
+		}
+
+		/**
+		 * Parse a numeric character reference like #38 or #x26
+		 *
+		 * @return the code point, {@link #INVALID_CODE_POINT} if the reference has
+		 *         no digits, an invalid digit or is not a valid code point
+		 */
+		private int parseCharacterReference(int start, int end) {
+			boolean hex = window.get(start + 1) == 'x';
+			int radix = hex ? 16 : 10;
+			int first = hex ? start + 2 : start + 1;
+			if (first == end) {
+				return INVALID_CODE_POINT;
+			}
+			int codePoint = 0;
+			for (int i = first; i < end; i++) {
+				int digit = Character.digit(window.get(i), radix);
+				if (digit < 0) {
+					return INVALID_CODE_POINT;
+				}
+				codePoint = codePoint * radix + digit;
+				if (!Character.isValidCodePoint(codePoint)) {
+					return INVALID_CODE_POINT;
+				}
+			}
+			return codePoint;
+		}
+	}
+
+}
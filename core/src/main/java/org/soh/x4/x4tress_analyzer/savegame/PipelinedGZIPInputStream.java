@@ -0,0 +1,390 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Gzip input stream that inflates on a separate thread.<br>
+ * <br>
+ * The inflater thread decompresses into a bounded ring of large direct buffers,
+ * while the thread reading from this stream (usually the xml parser) consumes
+ * the filled buffers. Decompression and parsing thus overlap instead of being
+ * serialized on a single thread.<br>
+ * Like {@link java.util.zip.GZIPInputStream}, concatenated gzip members are
+ * read as one stream, and the header CRC, the data CRC and the size of each
+ * member are verified.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class PipelinedGZIPInputStream extends InputStream {
+
+	/**
+	 * Size of a single uncompressed buffer in bytes
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Number of uncompressed buffers in the ring
+	 */
+	public static final int DEFAULT_BUFFER_COUNT = 4;
+
+	private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+
+	private static final int CM_DEFLATE = 8;
+
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	/**
+	 * Marker put into the filled queue once the inflater thread is done
+	 */
+	private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+	private final InputStream compressedStream;
+
+	private final BlockingQueue<ByteBuffer> freeBuffers;
+
+	private final BlockingQueue<ByteBuffer> filledBuffers;
+
+	private final Thread inflaterThread;
+
+	private final Inflater inflater = new Inflater(true);
+
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * The checksum of the header bytes read so far, checked against the header
+	 * CRC of members that have one
+	 */
+	private final CRC32 headerCrc = new CRC32();
+
+	private final byte[] input = new byte[INPUT_BUFFER_SIZE];
+	private int inputPos = 0;
+	private int inputLimit = 0;
+
+	private volatile long compressedBytes = 0;
+	private volatile long uncompressedBytes = 0;
+
+	/**
+	 * Set by the inflater thread if inflating failed. Rethrown to the reader.
+	 */
+	private volatile IOException failure = null;
+
+	/**
+	 * The figures of the inflater thread, set once it is done
+	 */
+	private volatile LoadReport.Stage inflateStage = null;
+
+	private ByteBuffer current = null;
+
+	private boolean closed = false;
+
+	/**
+	 * Creates a new pipelined gzip stream with the default ring size
+	 *
+	 * @param compressedStream the gzip compressed stream
+	 */
+	public PipelinedGZIPInputStream(InputStream compressedStream) {
+		this(compressedStream, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+	}
+
+	/**
+	 * Creates a new pipelined gzip stream and starts the inflater thread
+	 *
+	 * @param compressedStream the gzip compressed stream
+	 * @param bufferSize       size of a single uncompressed buffer in bytes
+	 * @param bufferCount      number of uncompressed buffers in the ring
+	 */
+	public PipelinedGZIPInputStream(InputStream compressedStream, int bufferSize, int bufferCount) {
+		this.compressedStream = compressedStream;
+		freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+		// One more slot than buffers, so the end marker always fits
+		filledBuffers = new ArrayBlockingQueue<>(bufferCount + 1);
+		for (int i = 0; i < bufferCount; i++) {
+			freeBuffers.add(ByteBuffer.allocateDirect(bufferSize));
+		}
+		inflaterThread = new Thread(this::runInflater, "savegame-inflater");
+		inflaterThread.setDaemon(true);
+		inflaterThread.start();
+	}
+
+	/**
+	 * Get the number of compressed bytes read so far
+	 *
+	 * @return the compressed byte count
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes;
+	}
+
+	/**
+	 * Get the number of bytes inflated so far
+	 *
+	 * @return the uncompressed byte count
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	/**
+	 * Get the time and memory spent by the inflater thread. Available once the
+	 * stream was closed.
+	 *
+	 * @return the inflate stage figures, or null if the inflater thread is not
+	 *         done yet
+	 */
+	public LoadReport.Stage getInflateStage() {
+		return inflateStage;
+	}
+
+	@Override
+	public int read() throws IOException {
+		ByteBuffer buffer = nextReadableBuffer();
+		if (buffer == null) {
+			return -1;
+		}
+		return buffer.get() & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		ByteBuffer buffer = nextReadableBuffer();
+		if (buffer == null) {
+			return -1;
+		}
+		int count = Math.min(len, buffer.remaining());
+		buffer.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		return current == null ? 0 : current.remaining();
+	}
+
+	/**
+	 * Stops the inflater thread, even if the stream was not read completely, and
+	 * closes the compressed stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		inflaterThread.interrupt();
+		try {
+			inflaterThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		compressedStream.close();
+	}
+
+	/**
+	 * Returns the buffer to read from, handing exhausted buffers back to the
+	 * inflater thread.
+	 *
+	 * @return the current buffer or null at the end of the stream
+	 * @throws IOException if the stream is closed or inflating failed
+	 */
+	private ByteBuffer nextReadableBuffer() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (current == null || !current.hasRemaining()) {
+			if (current == END_OF_STREAM) {
+				if (failure != null) {
+					throw failure;
+				}
+				return null;
+			}
+			if (current != null) {
+				freeBuffers.add(current);
+			}
+			try {
+				current = filledBuffers.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for inflated data");
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Inflater thread main loop
+	 */
+	private void runInflater() {
+		StageTimer timer = new StageTimer(LoadReport.INFLATE);
+		try {
+			boolean firstMember = true;
+			while (readHeader(firstMember)) {
+				inflateMember();
+				readTrailer();
+				firstMember = false;
+			}
+		} catch (InterruptedException e) {
+			// The reader closed the stream before reaching its end
+		} catch (IOException e) {
+			failure = e;
+		} catch (RuntimeException e) {
+			failure = new IOException("Failed to inflate savegame", e);
+		} finally {
+			inflater.end();
+			inflateStage = timer.stop(uncompressedBytes, "bytes");
+			filledBuffers.add(END_OF_STREAM);
+		}
+	}
+
+	/**
+	 * Inflate a single gzip member into the buffer ring
+	 */
+	private void inflateMember() throws IOException, InterruptedException {
+		inflater.reset();
+		crc.reset();
+		while (!inflater.finished()) {
+			ByteBuffer buffer = freeBuffers.take();
+			buffer.clear();
+			try {
+				while (buffer.hasRemaining() && !inflater.finished()) {
+					if (inflater.needsInput()) {
+						if (inputPos == inputLimit && !fillInput()) {
+							throw new EOFException("Unexpected end of gzip stream");
+						}
+						inflater.setInput(input, inputPos, inputLimit - inputPos);
+						inputPos = inputLimit;
+					}
+					if (inflater.inflate(buffer) == 0 && inflater.needsDictionary()) {
+						throw new ZipException("Unexpected preset dictionary in gzip stream");
+					}
+				}
+			} catch (DataFormatException e) {
+				throw new ZipException(e.getMessage());
+			}
+			buffer.flip();
+			crc.update(buffer.duplicate());
+			uncompressedBytes += buffer.remaining();
+			filledBuffers.put(buffer);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		// Hand the bytes the inflater did not consume back to the input buffer
+		inputPos = inputLimit - inflater.getRemaining();
+	}
+
+	/**
+	 * Read a gzip member header
+	 *
+	 * @param firstMember true for the first member of the stream
+	 * @return false if there are no further members
+	 */
+	private boolean readHeader(boolean firstMember) throws IOException {
+		if (!firstMember && (inputPos == inputLimit && !fillInput())) {
+			return false;
+		}
+		headerCrc.reset();
+		int magic = readUShort();
+		if (magic != GZIP_MAGIC) {
+			if (firstMember) {
+				throw new ZipException("Not in GZIP format");
+			}
+			// Trailing garbage after the last member, handled like GZIPInputStream
+			return false;
+		}
+		if (readUByte() != CM_DEFLATE) {
+			throw new ZipException("Unsupported compression method");
+		}
+		int flags = readUByte();
+		// MTIME, XFL and OS
+		skipBytes(6);
+		if ((flags & FEXTRA) == FEXTRA) {
+			skipBytes(readUShort());
+		}
+		if ((flags & FNAME) == FNAME) {
+			while (readUByte() != 0) {
+			}
+		}
+		if ((flags & FCOMMENT) == FCOMMENT) {
+			while (readUByte() != 0) {
+			}
+		}
+		if ((flags & FHCRC) == FHCRC) {
+			// The lower 16 bits of the CRC32 of all header bytes before it
+			int expectedHeaderCrc = (int) headerCrc.getValue() & 0xffff;
+			if (readUShort() != expectedHeaderCrc) {
+				throw new ZipException("Corrupt GZIP header");
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Read and verify a gzip member trailer
+	 */
+	private void readTrailer() throws IOException {
+		long expectedCrc = readUInt();
+		long expectedSize = readUInt();
+		if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) {
+			throw new ZipException("Corrupt GZIP trailer");
+		}
+	}
+
+	private boolean fillInput() throws IOException {
+		int count = compressedStream.read(input, 0, input.length);
+		if (count <= 0) {
+			inputPos = 0;
+			inputLimit = 0;
+			return false;
+		}
+		compressedBytes += count;
+		inputPos = 0;
+		inputLimit = count;
+		return true;
+	}
+
+	private int readUByte() throws IOException {
+		if (inputPos == inputLimit && !fillInput()) {
+			throw new EOFException("Unexpected end of gzip stream");
+		}
+		int b = input[inputPos++] & 0xff;
+		headerCrc.update(b);
+		return b;
+	}
+
+	private int readUShort() throws IOException {
+		return readUByte() | (readUByte() << 8);
+	}
+
+	private long readUInt() throws IOException {
+		return (readUShort() & 0xffffL) | ((long) readUShort() << 16);
+	}
+
+	private void skipBytes(int count) throws IOException {
+		for (int i = 0; i < count; i++) {
+			readUByte();
+		}
+	}
+
+}
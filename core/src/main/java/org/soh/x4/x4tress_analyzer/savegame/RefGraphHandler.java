@@ -0,0 +1,291 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Handler for a cheap first pass over a X4 savegame.<br>
+ * Only records which list and table refs point to which other refs, as plain
+ * ints, and where the given root globals point to. No values, Strings or
+ * components are kept.<br>
+ * The recorded reference graph is then resolved into a {@link RefScope}
+ * containing everything reachable from the root globals.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class RefGraphHandler implements SaveGameElementHandler {
+
+	private static final String TAG_VALUE = "value";
+
+	private static final String TAG_KEY = "key";
+
+	private static final String TAG_REFS = "refs";
+
+	private static final String TAG_REF = "ref";
+
+	private static final List<String> HANDLED_TAGS = List.of(TAG_VALUE, TAG_KEY, TAG_REFS, TAG_REF);
+
+	private static final int KIND_NONE = -1;
+	private static final int KIND_STRING = 0;
+	private static final int KIND_LIST = 1;
+	private static final int KIND_TABLE = 2;
+	private static final int KIND_VECTOR = 3;
+	private static final int KIND_COUNT = 4;
+
+	/**
+	 * The refs types, indexed by ref kind
+	 */
+	private static final String[] REFS_TYPES = { "string", "list", "table", "vector" };
+
+	/**
+	 * The value types pointing to refs, indexed by the kind of ref they point to
+	 */
+	private static final String[] VALUE_TYPES = { "string", "list", "table", "position" };
+
+	/**
+	 * Check for cancellation once per this many elements (a power of 2)
+	 */
+	private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+	private final Set<String> rootGlobals;
+
+	private final String[] rootGlobalNames;
+
+	private final LoadMonitor monitor;
+
+	private int elementCount = 0;
+
+	private final Set<String> foundRootGlobals = new HashSet<>();
+
+	private final BitSet completedRefsKinds = new BitSet(KIND_COUNT);
+
+	private int currentRefsKind = KIND_NONE;
+
+	/**
+	 * Index of the list or table ref currently being read, -1 if none
+	 */
+	private int currentParent = -1;
+
+	/*
+	 * Roots, parents (list and table refs) and children (the refs they point to)
+	 * as parallel arrays. The children of a parent are stored consecutively from
+	 * parentStart to parentEnd.
+	 */
+	private int rootCount = 0;
+	private int[] rootKind = new int[8];
+	private int[] rootId = new int[8];
+
+	private int parentCount = 0;
+	private int[] parentKind = new int[1024];
+	private int[] parentId = new int[1024];
+	private int[] parentStart = new int[1024];
+	private int[] parentEnd = new int[1024];
+
+	private int childCount = 0;
+	private int[] childKind = new int[4096];
+	private int[] childId = new int[4096];
+
+	/**
+	 * Creates a new reference graph handler
+	 *
+	 * @param rootGlobals the names of the globals to resolve the scope from, e.g.
+	 *                    <i>$SoHGlobalEvents</i>
+	 */
+	public RefGraphHandler(Set<String> rootGlobals) {
+		this(rootGlobals, LoadMonitor.NONE);
+	}
+
+	/**
+	 * Creates a new reference graph handler that can be cancelled through a
+	 * monitor
+	 *
+	 * @param rootGlobals the names of the globals to resolve the scope from
+	 * @param monitor     the monitor to check for cancellation
+	 */
+	public RefGraphHandler(Set<String> rootGlobals, LoadMonitor monitor) {
+		this.rootGlobals = rootGlobals;
+		this.rootGlobalNames = rootGlobals.toArray(new String[0]);
+		this.monitor = monitor;
+	}
+
+	@Override
+	public List<String> getHandledTags() {
+		return HANDLED_TAGS;
+	}
+
+	@Override
+	public void startElement(String qName, ElementAttributes attr) {
+		if ((++elementCount & (CANCELLATION_CHECK_INTERVAL - 1)) == 0 && monitor.isCancelled()) {
+			throw new CancellationException("Loading the savegame was cancelled");
+		}
+		switch (qName) {
+		case TAG_REFS:
+			currentRefsKind = kind(attr, REFS_TYPES);
+			break;
+		case TAG_REF:
+			if (currentRefsKind == KIND_LIST || currentRefsKind == KIND_TABLE) {
+				int idIndex = attr.getIndex("id");
+				if (idIndex != ElementAttributes.NOT_FOUND) {
+					addParent(currentRefsKind, attr.getIntValue(idIndex));
+				}
+			}
+			break;
+		case TAG_VALUE:
+			if (currentRefsKind == KIND_LIST || currentRefsKind == KIND_TABLE) {
+				addChild(attr);
+			} else {
+				String name = attr.getKnownValue(attr.getIndex("name"), rootGlobalNames);
+				if (name != null) {
+					int kind = kind(attr, VALUE_TYPES);
+					int valueIndex = attr.getIndex("value");
+					if (kind != KIND_NONE && valueIndex != ElementAttributes.NOT_FOUND) {
+						addRoot(kind, attr.getIntValue(valueIndex));
+						foundRootGlobals.add(name);
+					}
+				}
+			}
+			break;
+		case TAG_KEY:
+			if (currentRefsKind == KIND_TABLE) {
+				addChild(attr);
+			}
+			break;
+		}
+	}
+
+	@Override
+	public void endElement(String qName) {
+		switch (qName) {
+		case TAG_REFS:
+			if (currentRefsKind != KIND_NONE) {
+				completedRefsKinds.set(currentRefsKind);
+			}
+			currentRefsKind = KIND_NONE;
+			break;
+		case TAG_REF:
+			if (currentParent >= 0) {
+				parentEnd[currentParent] = childCount;
+				currentParent = -1;
+			}
+			break;
+		}
+	}
+
+	@Override
+	public boolean isComplete() {
+		return foundRootGlobals.containsAll(rootGlobals) && completedRefsKinds.cardinality() == KIND_COUNT;
+	}
+
+	/**
+	 * Resolve the recorded reference graph into the scope of all refs reachable
+	 * from the root globals
+	 *
+	 * @return the scope
+	 */
+	public RefScope createScope() {
+		BitSet[] reachable = new BitSet[KIND_COUNT];
+		for (int kind = 0; kind < KIND_COUNT; kind++) {
+			reachable[kind] = new BitSet();
+		}
+		for (int i = 0; i < rootCount; i++) {
+			mark(reachable, rootKind[i], rootId[i]);
+		}
+
+		// Expand reachable parents until nothing changes. Refs mostly point
+		// forward in the savegame, so this usually takes very few rounds.
+		BitSet expanded = new BitSet(parentCount);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int p = expanded.nextClearBit(0); p < parentCount; p = expanded.nextClearBit(p + 1)) {
+				if (reachable[parentKind[p]].get(parentId[p])) {
+					expanded.set(p);
+					changed = true;
+					for (int c = parentStart[p]; c < parentEnd[p]; c++) {
+						mark(reachable, childKind[c], childId[c]);
+					}
+				}
+			}
+		}
+
+		return new RefScope(reachable[KIND_STRING], reachable[KIND_LIST], reachable[KIND_TABLE],
+				reachable[KIND_VECTOR]);
+	}
+
+	private static void mark(BitSet[] reachable, int kind, int id) {
+		if (id >= 0) {
+			reachable[kind].set(id);
+		}
+	}
+
+	private void addRoot(int kind, int id) {
+		if (rootCount == rootKind.length) {
+			rootKind = Arrays.copyOf(rootKind, rootCount * 2);
+			rootId = Arrays.copyOf(rootId, rootCount * 2);
+		}
+		rootKind[rootCount] = kind;
+		rootId[rootCount] = id;
+		rootCount++;
+	}
+
+	private void addParent(int kind, int id) {
+		if (parentCount == parentKind.length) {
+			int capacity = parentCount * 2;
+			parentKind = Arrays.copyOf(parentKind, capacity);
+			parentId = Arrays.copyOf(parentId, capacity);
+			parentStart = Arrays.copyOf(parentStart, capacity);
+			parentEnd = Arrays.copyOf(parentEnd, capacity);
+		}
+		parentKind[parentCount] = kind;
+		parentId[parentCount] = id;
+		parentStart[parentCount] = childCount;
+		parentEnd[parentCount] = childCount;
+		currentParent = parentCount;
+		parentCount++;
+	}
+
+	private void addChild(ElementAttributes attr) {
+		if (currentParent < 0) {
+			return;
+		}
+		int kind = kind(attr, VALUE_TYPES);
+		int valueIndex = attr.getIndex("value");
+		if (kind == KIND_NONE || valueIndex == ElementAttributes.NOT_FOUND) {
+			return;
+		}
+		if (childCount == childKind.length) {
+			childKind = Arrays.copyOf(childKind, childCount * 2);
+			childId = Arrays.copyOf(childId, childCount * 2);
+		}
+		childKind[childCount] = kind;
+		childId[childCount] = attr.getIntValue(valueIndex);
+		childCount++;
+	}
+
+	/**
+	 * Map the type attribute of a refs section, value or key to a ref kind.<br>
+	 * Values that hold their data directly (e.g. <i>"time"</i>) do not point to any
+	 * ref.
+	 *
+	 * @param attr  the element attributes
+	 * @param types the types, indexed by ref kind
+	 * @return the ref kind or KIND_NONE
+	 */
+	private static int kind(ElementAttributes attr, String[] types) {
+		int typeIndex = attr.getIndex("type");
+		if (typeIndex != ElementAttributes.NOT_FOUND) {
+			for (int kind = 0; kind < types.length; kind++) {
+				if (attr.valueEquals(typeIndex, types[kind])) {
+					return kind;
+				}
+			}
+		}
+		return KIND_NONE;
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.util.BitSet;
+
+/**
+ * The set of savegame refs that are reachable from a set of root globals.<br>
+ * A {@link SaveGameHandler} with a scope only retains the refs within the
+ * scope, so heap usage scales with the data of the mod rather than with the
+ * whole universe.<br>
+ * Scopes are created by the {@link RefGraphHandler}.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class RefScope {
+
+	private final BitSet strings;
+
+	private final BitSet lists;
+
+	private final BitSet tables;
+
+	private final BitSet vectors;
+
+	RefScope(BitSet strings, BitSet lists, BitSet tables, BitSet vectors) {
+		this.strings = strings;
+		this.lists = lists;
+		this.tables = tables;
+		this.vectors = vectors;
+	}
+
+	/**
+	 * Checks if a ref is part of this scope
+	 *
+	 * @param refsType the type of the refs section, e.g. <i>"string"</i>
+	 * @param id       the ref id
+	 * @return true if the ref should be retained
+	 */
+	public boolean isRetained(String refsType, int id) {
+		if (id < 0) {
+			return false;
+		}
+		switch (refsType) {
+		case "string":
+			return strings.get(id);
+		case "list":
+			return lists.get(id);
+		case "table":
+			return tables.get(id);
+		case "vector":
+			return vectors.get(id);
+		}
+		return false;
+	}
+
+	/**
+	 * Get the number of refs in this scope
+	 *
+	 * @return the number of retained refs
+	 */
+	public int size() {
+		return strings.cardinality() + lists.cardinality() + tables.cardinality() + vectors.cardinality();
+	}
+
+}
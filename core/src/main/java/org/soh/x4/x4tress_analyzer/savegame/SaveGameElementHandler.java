@@ -0,0 +1,46 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.util.List;
+
+/**
+ * Receives the elements of a X4 savegame from a savegame reader, e.g. the
+ * {@link StaxSaveGameReader} or the {@link MappedSaveGameScanner}.
+ *
+ * @author Son of Hubert
+ *
+ */
+public interface SaveGameElementHandler {
+
+	/**
+	 * Get the element names this handler reacts to. Readers may skip all other
+	 * elements and pass the returned String instances as element names.
+	 *
+	 * @return the handled element names
+	 */
+	List<String> getHandledTags();
+
+	/**
+	 * Handle the start of an xml element
+	 *
+	 * @param qName the element name
+	 * @param attr  the element attributes
+	 */
+	void startElement(String qName, ElementAttributes attr);
+
+	/**
+	 * Handle the end of an xml element
+	 *
+	 * @param qName the element name
+	 */
+	void endElement(String qName);
+
+	/**
+	 * Checks if the handler captured everything it needs.<br>
+	 * Readers check this whenever a top level section of the savegame ends and
+	 * may stop reading once this returns true.
+	 *
+	 * @return true if the rest of the savegame can be skipped
+	 */
+	boolean isComplete();
+
+}
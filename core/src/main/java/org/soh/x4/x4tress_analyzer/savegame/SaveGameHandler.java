@@ -0,0 +1,543 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.savegame.sax.IntObjectMap;
+import org.soh.x4.x4tress_analyzer.savegame.sax.ListValues;
+import org.soh.x4.x4tress_analyzer.savegame.sax.Savegame;
+import org.soh.x4.x4tress_analyzer.savegame.sax.TableValues;
+
+/**
+ * Handler to load data from a X4 savegame.<br>
+ * The handler is fed element by element by a savegame reader, e.g. the
+ * {@link StaxSaveGameReader}.
+ * 
+ * @author Son of Hubert
+ *
+ */
+public class SaveGameHandler implements SaveGameElementHandler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SaveGameHandler.class);
+
+	private static final String TAG_PLAYER = "player";
+
+	// universe tag encloses all components of the savegame
+	private static final String TAG_UNIVERSE = "universe";
+	
+	private static final String TAG_COMPONENT = "component";
+
+	private static final String TAG_VALUE = "value";
+	
+	// represents a table key
+	private static final String TAG_KEY = "key";
+
+	// refs tag encloses the references used in scripts.
+	// has a "type" attribute. E.g. type="string"
+	private static final String TAG_REFS = "refs";
+
+	private static final String TAG_REF = "ref";
+
+	/**
+	 * The tags this handler reacts to
+	 */
+	private static final List<String> HANDLED_TAGS = List.of(TAG_PLAYER, TAG_UNIVERSE, TAG_COMPONENT, TAG_VALUE,
+			TAG_KEY, TAG_REFS, TAG_REF);
+
+	/**
+	 * Name of the global list holding the x4tress Global Events
+	 */
+	public static final String GLOBAL_EVENTS = "$SoHGlobalEvents";
+
+	/**
+	 * The refs types that have to be read before the savegame contains everything
+	 * we need
+	 */
+	private static final Set<String> REQUIRED_REFS_TYPES = Set.of("string", "list", "table", "vector");
+
+	/**
+	 * The refs types the handler knows, to switch over the type attribute without
+	 * creating a String for it
+	 */
+	private static final String[] REFS_TYPES = { "string", "list", "table", "vector" };
+
+	/**
+	 * The list and table value types the handler reads
+	 */
+	private static final String[] VALUE_TYPES = { "list", "table", "string", "time", "xmlkeyword", "shiptype",
+			"class", "length", "position" };
+
+	/**
+	 * Marks that there is no current list, table or table key
+	 */
+	private static final int NO_ID = -1;
+
+	/**
+	 * Check for cancellation once per this many elements (a power of 2)
+	 */
+	private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+	private Savegame savegame = new Savegame();
+
+	/**
+	 * The refs to retain. Null to retain all refs.
+	 */
+	private final RefScope scope;
+
+	/**
+	 * The monitor to check for cancellation
+	 */
+	private final LoadMonitor monitor;
+
+	/**
+	 * Decides which components are captured
+	 */
+	private final ComponentFilter componentFilter;
+
+	private int elementCount = 0;
+
+	private int componentsChecked = 0;
+
+	private boolean playerRead = false;
+
+	private boolean universeRead = false;
+
+	private String currentRefsType = null;
+
+	/**
+	 * The refs types that were already read completely
+	 */
+	private final Set<String> completedRefsTypes = new HashSet<>();
+
+	/**
+	 * Lists can contain further sublists or immediate values. We save the current
+	 * ListId to reference its values correctly.
+	 */
+	private int currentListId = NO_ID;
+
+	/**
+	 * Tables can contain further sublists, tables, or immediate values. We save the
+	 * current TableId to reference its values correctly.
+	 */
+	private int currentTableId = NO_ID;
+
+	/**
+	 * Tables keys are always one line before the respective value in the savefile
+	 * We use only Strings as keys in x4tress, which are of course represented as Integer
+	 * references here.
+	 */
+	private int currentTableKey = NO_ID;
+
+	/**
+	 * Creates a handler retaining all refs of the savegame
+	 */
+	public SaveGameHandler() {
+		this(null);
+	}
+
+	/**
+	 * Creates a handler retaining only the refs within the given scope
+	 * 
+	 * @param scope the refs to retain, null to retain all refs
+	 */
+	public SaveGameHandler(RefScope scope) {
+		this(scope, LoadMonitor.NONE);
+	}
+
+	/**
+	 * Creates a handler retaining only the refs within the given scope, that can
+	 * be cancelled through a monitor
+	 * 
+	 * @param scope   the refs to retain, null to retain all refs
+	 * @param monitor the monitor to check for cancellation
+	 */
+	public SaveGameHandler(RefScope scope, LoadMonitor monitor) {
+		this(scope, monitor, ComponentFilter.shipsAndStations());
+	}
+
+	/**
+	 * Creates a handler retaining only the refs within the given scope and the
+	 * components accepted by a filter, that can be cancelled through a monitor
+	 * 
+	 * @param scope           the refs to retain, null to retain all refs
+	 * @param monitor         the monitor to check for cancellation
+	 * @param componentFilter the filter deciding which components are captured
+	 */
+	public SaveGameHandler(RefScope scope, LoadMonitor monitor, ComponentFilter componentFilter) {
+		this.scope = scope;
+		this.monitor = monitor;
+		this.componentFilter = componentFilter;
+	}
+
+	@Override
+	public List<String> getHandledTags() {
+		return HANDLED_TAGS;
+	}
+
+	@Override
+	public void startElement(String qName, ElementAttributes attr) {
+		checkCancelled();
+		switch (qName) {
+		case TAG_PLAYER:
+			playerRead = true;
+			savegame.setPlayerName(attr.getValue("name"));
+		case TAG_COMPONENT:
+			componentsChecked++;
+			handleTagComponent(attr);
+			break;
+		case TAG_REFS:
+			currentRefsType = attr.getKnownValue(attr.getIndex("type"), REFS_TYPES);
+		case TAG_REF:
+			handleTagRef(attr);
+			break;
+		case TAG_VALUE:
+			if ("list".equals(currentRefsType) || "table".equals(currentRefsType)) {
+				handleTagValue(attr);
+			} else {
+				if (attr.valueEquals(attr.getIndex("name"), GLOBAL_EVENTS)
+						&& attr.valueEquals(attr.getIndex("type"), "list")) {
+					int globlEventsReferenceId = attr.getIntValue(attr.getIndex("value"));
+					savegame.initializeGlobalEventsList(globlEventsReferenceId);
+				}
+			}
+			break;
+		case TAG_KEY:
+			// Table keys
+			handleTagKey(attr);
+			break;
+		}
+	}
+
+	@Override
+	public void endElement(String qName) {
+		switch (qName) {
+		case TAG_UNIVERSE:
+			universeRead = true;
+			break;
+		case TAG_REFS:
+			if (currentRefsType != null) {
+				completedRefsTypes.add(currentRefsType);
+			}
+			currentRefsType = null;
+			break;
+		case TAG_REF:
+			currentListId = NO_ID;
+			currentTableId = NO_ID;
+		}
+	}
+
+	/**
+	 * Checks if everything the analyzer needs was captured:<br>
+	 * The player, the whole universe with all components, the $SoHGlobalEvents
+	 * list reference and all the refs it may point to.<br>
+	 * Readers only check this once a top level section of the savegame ended, so
+	 * the section holding the refs was read completely once all refs types were
+	 * read. A savegame without a universe is always read to its end.
+	 * 
+	 * @return true if the rest of the savegame can be skipped
+	 */
+	@Override
+	public boolean isComplete() {
+		return playerRead && universeRead && currentRefsType == null && savegame.getGlobalEventsListId() > 0
+				&& completedRefsTypes.containsAll(REQUIRED_REFS_TYPES);
+	}
+
+	/**
+	 * Convert the {@link org.soh.x4.x4tress_analyzer.savegame.sax.Savegame
+	 * Savegame} object used during savegame parsing<br>
+	 * into a {@link org.soh.x4.x4tress_analyzer.model.DataStorage DataStorage}
+	 * object used for processing.
+	 * 
+	 * @return the DataStorage object.
+	 * @throws NullPointerException if the savegame was not successfully loaded
+	 */
+	public DataStorage getData() throws NullPointerException {
+		return getData(new LoadReport());
+	}
+
+	/**
+	 * Like {@link #getData()}, adding the figures of resolving the table keys and
+	 * the Global Events to a load report
+	 * 
+	 * @param report the report to add the stages to
+	 * @return the DataStorage object.
+	 * @throws NullPointerException if the savegame was not successfully loaded
+	 */
+	public DataStorage getData(LoadReport report) throws NullPointerException {
+		DataStorage ds = null;
+		if (savegame != null) {
+			LOGGER.info("Checked " + componentsChecked + " components.");
+			LOGGER.info("Loaded " + savegame.getObjectList().size() + " components matching " + componentFilter + ".");
+
+			StageTimer timer = new StageTimer(LoadReport.RESOLVE_KEYS);
+			savegame.resolveTableKeys();
+			report.add(timer.stop(savegame.getTableKeyMap().size(), "keys"));
+			timer = new StageTimer(LoadReport.RESOLVE_EVENTS);
+
+			/**
+			 * Steps: 1. Get the Global Events list. This only contains references to other
+			 * list entries 2. For each entry, get the referenced ID and convert that to a
+			 * Global Event
+			 */
+			IntObjectMap<ListValues> listMap = savegame.getListMap();
+			IntObjectMap<TableValues> tableMap = savegame.getTableMap();
+			ListValues eventReference = listMap.get(savegame.getGlobalEventsListId());
+			GlobalEventStore globalEvents = new GlobalEventStore(savegame.getDictionary(), eventReference.size());
+
+			for (int event = 0; event < eventReference.size(); event++) {
+				checkCancelled();
+				if (eventReference.getType(event) == ListValues.TYPE_TABLE) {
+					int eventId = eventReference.getReference(event);
+					try {
+						TableValues eventAsList = tableMap.get(eventId);
+						savegame.globalEventFromListEntry(eventAsList, globalEvents);
+					} catch (IndexOutOfBoundsException e) {
+						LOGGER.error("Failed to create Global Event entry for Event reference Id '" + eventId
+								+ "'!", e.getMessage());
+					}
+				} else {
+					LOGGER.warn("Found a non-reference entry in the GlobalEvents reference table!");
+				}
+			}
+
+			LOGGER.info("Loaded " + globalEvents.size() + " global Events.");
+			if (componentFilter.isReferencedOnly()) {
+				retainReferencedComponents(globalEvents);
+			}
+			report.add(timer.stop(globalEvents.size(), "events"));
+
+			ds = new DataStorage(savegame.getPlayerName(), savegame.getObjectList(), globalEvents);
+
+		} else {
+			LOGGER.warn("Tried loading the components list before a file was parsed!");
+			throw new NullPointerException("Tried loading the components list before a file was parsed!");
+		}
+		return ds;
+	}
+
+	/**
+	 * Get the number of handled elements read so far
+	 * 
+	 * @return the element count
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Abort loading if the monitor was cancelled. Only checks every few calls.
+	 * 
+	 * @throws CancellationException if loading was cancelled
+	 */
+	private void checkCancelled() throws CancellationException {
+		if ((++elementCount & (CANCELLATION_CHECK_INTERVAL - 1)) == 0 && monitor.isCancelled()) {
+			throw new CancellationException("Loading the savegame was cancelled");
+		}
+	}
+
+	/**
+	 * Read a component, only decoding its attributes if the component filter
+	 * accepts it
+	 * 
+	 * @param attr The tag attributes
+	 */
+	private void handleTagComponent(ElementAttributes attr) {
+		if (componentFilter.accepts(attr)) {
+			savegame.addComponent(attr.getValue("class"), attr.getValue("code"), attr.getValue("owner"));
+		}
+	}
+
+	/**
+	 * Drop the captured components that take part in none of the Global Events
+	 * 
+	 * @param globalEvents the Global Events
+	 */
+	private void retainReferencedComponents(GlobalEventStore globalEvents) {
+		Set<String> referencedCodes = new HashSet<>();
+		for (int event = 0; event < globalEvents.size(); event++) {
+			referencedCodes.add(globalEvents.getAttackerId(event));
+			referencedCodes.add(globalEvents.getAttackedId(event));
+		}
+		int captured = savegame.getObjectList().size();
+		savegame.getObjectList().removeIf(component -> !referencedCodes.contains(component.getObjectCode()));
+		LOGGER.info("Kept " + savegame.getObjectList().size() + " of " + captured
+				+ " components referenced by Global Events.");
+	}
+
+	/**
+	 * Read the required data from an xml tag
+	 * 
+	 * @param attr The tag attributes
+	 */
+	private void handleTagRef(ElementAttributes attr) {
+		if (currentRefsType != null) {
+			int idIndex = attr.getIndex("id");
+			if (idIndex == ElementAttributes.NOT_FOUND) {
+				return;
+			}
+			int id = attr.getIntValue(idIndex);
+			if (!isInScope(id)) {
+				return;
+			}
+			switch (currentRefsType) {
+			case "string":
+				String value = attr.getValue("string");
+				if (value != null) {
+					savegame.getStringMap().put(id, value);
+				}
+				break;
+			case "list":
+				currentListId = id;
+				savegame.getListMap().put(id, savegame.createList());
+				break;
+			case "table":
+				currentTableId = id;
+				savegame.getTableMap().put(id, savegame.createTable());
+				break;
+			case "vector":
+				int xIndex = attr.getIndex("x");
+				int yIndex = attr.getIndex("y");
+				int zIndex = attr.getIndex("z");
+				if (xIndex != ElementAttributes.NOT_FOUND && yIndex != ElementAttributes.NOT_FOUND
+						&& zIndex != ElementAttributes.NOT_FOUND) {
+					savegame.getPositionMap().put(id, new Position(attr.getDoubleValue(xIndex),
+							attr.getDoubleValue(yIndex), attr.getDoubleValue(zIndex)));
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Checks if a ref of the current refs type should be retained
+	 * 
+	 * @param id the ref id
+	 * @return true if there is no scope or the ref is within the scope
+	 */
+	private boolean isInScope(int id) {
+		return scope == null || scope.isRetained(currentRefsType, id);
+	}
+
+	/**
+	 * Get the table the value read now is put into
+	 * 
+	 * @return the current table, null if the value is added to a list or not
+	 *         retained
+	 */
+	private TableValues getCurrentTable() {
+		return currentListId == NO_ID && currentTableId != NO_ID && currentTableKey != NO_ID
+				? savegame.getTableMap().get(currentTableId)
+				: null;
+	}
+
+	/**
+	 * Get the list the value read now is added to
+	 * 
+	 * @return the current list, null if the value is put into a table or not
+	 *         retained
+	 */
+	private ListValues getCurrentList() {
+		return currentListId != NO_ID ? savegame.getListMap().get(currentListId) : null;
+	}
+
+	/**
+	 * Checks if a value read now would be added to a list or table
+	 * 
+	 * @return false if the value is not retained, e.g. because its ref is out of
+	 *         scope
+	 */
+	private boolean isValueRetained() {
+		return currentListId != NO_ID || (currentTableId != NO_ID && currentTableKey != NO_ID);
+	}
+
+	/**
+	 * Reads a value tag and saves it to the current list or table<br>
+	 * Determines what to add it to depending on<br>
+	 * currentListId, currentTableId and currentTableKey
+	 * 
+	 * @param attr
+	 */
+	private void handleTagValue(ElementAttributes attr) {
+		if (!isValueRetained()) {
+			return;
+		}
+		byte valueType = ListValues.typeOf(attr.getKnownValue(attr.getIndex("type"), VALUE_TYPES));
+		int valueIndex = attr.getIndex("value");
+		if (valueType == ListValues.TYPE_NONE || valueIndex == ElementAttributes.NOT_FOUND) {
+			return;
+		}
+		ListValues list = getCurrentList();
+		TableValues table = getCurrentTable();
+		if (list == null && table == null) {
+			return;
+		}
+		switch (valueType) {
+		case ListValues.TYPE_LIST:
+		case ListValues.TYPE_TABLE:
+		case ListValues.TYPE_STRING:
+		case ListValues.TYPE_POSITION:
+			// In the case of a string or position, the value is always a reference to
+			// savegame.stringMap or savegame.positionMap!
+			int id = attr.getIntValue(valueIndex);
+			if (list != null) {
+				list.addReference(valueType, id);
+			} else {
+				table.putReference(currentTableKey, valueType, id);
+			}
+			break;
+		case ListValues.TYPE_TIME:
+		case ListValues.TYPE_LENGTH:
+			// length is an double value representing a distance
+			double value = attr.getDoubleValue(valueIndex);
+			if (list != null) {
+				list.addDouble(valueType, value);
+			} else {
+				table.putDouble(currentTableKey, valueType, value);
+			}
+			break;
+		default:
+			// xmlkeyword is an actual string, not referencing any value
+			String text = attr.getValue(valueIndex);
+			if (text == null) {
+				break;
+			}
+			if (list != null) {
+				list.addString(valueType, text);
+			} else {
+				table.putString(currentTableKey, valueType, text);
+			}
+			break;
+		}
+	}
+	
+	/**
+	 * Reads a key tag and saves it to the current table key
+	 * 
+	 * @param attr
+	 */
+	private void handleTagKey(ElementAttributes attr) {
+		/*
+		 * Theoretically, the key should be a tagged value like the table entries, as X4 supports different Key types,
+		 * but for x4tress we use only String
+		 */
+		if (attr.valueEquals(attr.getIndex("type"), "string")) {
+			// In the case of a list, string is always a reference to savegame.stringMap!
+			int valueIndex = attr.getIndex("value");
+			if (valueIndex != ElementAttributes.NOT_FOUND) {
+				currentTableKey = attr.getIntValue(valueIndex);
+				// Add the key to the table key map for later String reference mapping
+				if (scope == null || currentTableId != NO_ID) {
+					savegame.getTableKeyMap().put(currentTableKey, null);
+				}
+			}
+		}
+	}
+
+}
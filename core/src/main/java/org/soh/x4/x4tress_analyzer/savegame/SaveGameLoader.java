@@ -0,0 +1,376 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.analyzer.ClusteringStrategy;
+import org.soh.x4.x4tress_analyzer.analyzer.EventAnalyzer;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+/**
+ * Loads the SaveGame file
+ * @author Son of Hubert
+ *
+ */
+public class SaveGameLoader {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SaveGameLoader.class);
+
+	private static final double MEGABYTE = 1024.0 * 1024.0;
+
+	/**
+	 * The root globals to scope the captured refs to. Null to capture all refs.
+	 */
+	private Set<String> scopeRootGlobals = null;
+
+	/**
+	 * The cache for the extracted savegame data. Null to always parse the
+	 * savegame.
+	 */
+	private SaveGameSnapshotCache snapshotCache = null;
+
+	/**
+	 * Decides which components are captured for the object list
+	 */
+	private ComponentFilter componentFilter = ComponentFilter.shipsAndStations();
+
+	/**
+	 * Decides which Global Events form a Processed Event
+	 */
+	private ClusteringStrategy clusteringStrategy = ClusteringStrategy.greedy();
+
+	/**
+	 * Only capture the savegame refs (strings, lists, tables and vectors) that are
+	 * reachable from the given root globals.<br>
+	 * The scope is resolved in a cheap first pass over the savegame. This keeps the
+	 * heap usage in line with the data of the mod instead of the whole universe,
+	 * at the cost of reading (and inflating) the savegame twice.<br>
+	 * <i>$SoHGlobalEvents</i> is always part of the root globals.
+	 * 
+	 * @param rootGlobals the root global names, null to capture all refs
+	 */
+	public void setScopeRootGlobals(Set<String> rootGlobals) {
+		if (rootGlobals == null) {
+			scopeRootGlobals = null;
+		} else {
+			scopeRootGlobals = new HashSet<>(rootGlobals);
+			scopeRootGlobals.add(SaveGameHandler.GLOBAL_EVENTS);
+		}
+	}
+
+	/**
+	 * Keep the data extracted from savegames in a snapshot cache, so reopening a
+	 * known savegame skips parsing it
+	 * 
+	 * @param snapshotCache the snapshot cache, null to always parse the savegame
+	 */
+	public void setSnapshotCache(SaveGameSnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+
+	/**
+	 * Only capture the components accepted by a filter, e.g. only the player
+	 * ships or only the components taking part in Global Events. Components
+	 * that are not captured are skipped while parsing, keeping the object list
+	 * and the heap small on big savegames.
+	 * 
+	 * @param componentFilter the filter, null to capture all ships and stations
+	 */
+	public void setComponentFilter(ComponentFilter componentFilter) {
+		this.componentFilter = componentFilter != null ? componentFilter : ComponentFilter.shipsAndStations();
+	}
+
+	/**
+	 * Set the strategy deciding which Global Events of a sector are combined into
+	 * a Processed Event
+	 * 
+	 * @param clusteringStrategy the strategy, null for the greedy clustering of
+	 *                           soh_x4tress
+	 */
+	public void setClusteringStrategy(ClusteringStrategy clusteringStrategy) {
+		this.clusteringStrategy = clusteringStrategy != null ? clusteringStrategy : ClusteringStrategy.greedy();
+	}
+
+	public DataStorage loadFile(File file) throws XMLStreamException, IOException {
+		return loadFile(file, null);
+	}
+
+	/**
+	 * Load a savegame, continuing the analysis of a previously loaded savegame of
+	 * the same campaign.<br>
+	 * If the savegame is a successor of the previous one, only the Global Events
+	 * newer than the newest previous event are analyzed. They are added to copies
+	 * of the Processed Events of the previous savegame, which are part of the
+	 * result. The previous data is left unchanged, so it can still be displayed.
+	 * Otherwise all Global Events are analyzed.
+	 * 
+	 * @param file     the savegame file
+	 * @param previous the data of the previous savegame, may be null. Not
+	 *                 changed.
+	 * @return the savegame data
+	 */
+	public DataStorage loadFile(File file, DataStorage previous) throws XMLStreamException, IOException {
+		return loadFile(file, previous, LoadMonitor.NONE);
+	}
+
+	/**
+	 * Load a savegame like {@link #loadFile(File, DataStorage)}, reporting the
+	 * progress to a monitor that may also cancel the load
+	 * 
+	 * @param file     the savegame file
+	 * @param previous the data of the previous savegame, may be null
+	 * @param monitor  the monitor
+	 * @return the savegame data
+	 * @throws CancellationException if the monitor cancelled the load
+	 */
+	public DataStorage loadFile(File file, DataStorage previous, LoadMonitor monitor)
+			throws XMLStreamException, IOException, CancellationException {
+		return load(file, previous, monitor).getData();
+	}
+
+	/**
+	 * Load a savegame like {@link #loadFile(File, DataStorage, LoadMonitor)},
+	 * returning the time and memory spent in each stage of the load along with
+	 * the savegame data. The report is also logged as a single line.
+	 * 
+	 * @param file     the savegame file
+	 * @param previous the data of the previous savegame, may be null
+	 * @param monitor  the monitor
+	 * @return the savegame data and the load report
+	 * @throws CancellationException if the monitor cancelled the load
+	 */
+	public LoadResult load(File file, DataStorage previous, LoadMonitor monitor)
+			throws XMLStreamException, IOException, CancellationException {
+		LOGGER.info("Loading file: " + file.getAbsolutePath());
+		long startTime = System.nanoTime();
+		LoadReport report = new LoadReport();
+		DataStorage result = loadData(file, monitor, report);
+
+		checkCancelled(monitor);
+		monitor.stageChanged(LoadStage.ANALYZE);
+		StageTimer analyzeTimer = new StageTimer(LoadReport.ANALYZE);
+		EventAnalyzer processor = new EventAnalyzer();
+		processor.setClusteringStrategy(clusteringStrategy);
+		List<ProcessedEvent> processGlobalEvents;
+		int latestKnownEvent = findLatestKnownEvent(previous, result);
+		if (latestKnownEvent >= 0) {
+			LOGGER.info("Continuing the analysis of the previous savegame");
+			result.getEventNames().putAll(previous.getEventNames());
+			processGlobalEvents = processor.processNewGlobalEvents(result.getGlobalEventStore(),
+					previous.getProcessedEvents(), latestKnownEvent, result.getEventNames(),
+					result.getEligibleForRenaming());
+		} else {
+			processGlobalEvents = processor.processGlobalEvents(result.getGlobalEventStore(), result.getEventNames(), result.getEligibleForRenaming());
+		}
+		result.setProcessedEvents(processGlobalEvents);
+		// The sectors are analyzed on the threads of the pool as well
+		report.add(analyzeTimer.stop(processGlobalEvents.size(), "processed events", processor.getPooledCpuNanos(),
+				processor.getPooledAllocatedBytes()));
+
+		report.setWallNanos(System.nanoTime() - startTime);
+		LOGGER.info("Loaded " + file.getName() + ": " + report);
+		return new LoadResult(result, report);
+	}
+
+	/**
+	 * Checks if a savegame continues the campaign of a previous one: the player
+	 * must match and the newest previous Global Event must still be part of the
+	 * savegame. Of several equal Global Events the one at the same position
+	 * among them is taken.
+	 * 
+	 * @param previous the data of the previous savegame, may be null
+	 * @param current  the data of the savegame
+	 * @return the index of the newest previous Global Event in the savegame, -1
+	 *         if the analysis of the previous savegame can not be continued
+	 */
+	private int findLatestKnownEvent(DataStorage previous, DataStorage current) {
+		if (previous == null || previous.getProcessedEvents() == null
+				|| !Objects.equals(previous.getPlayerName(), current.getPlayerName())) {
+			return -1;
+		}
+		GlobalEventStore previousEvents = previous.getGlobalEventStore();
+		int latest = previousEvents.getLatestEvent();
+		if (latest < 0) {
+			return -1;
+		}
+		int occurrence = 0;
+		for (int event = 0; event <= latest; event++) {
+			if (previousEvents.isSameEvent(event, previousEvents, latest)) {
+				occurrence++;
+			}
+		}
+		GlobalEventStore currentEvents = current.getGlobalEventStore();
+		for (int event = 0; event < currentEvents.size(); event++) {
+			if (currentEvents.isSameEvent(event, previousEvents, latest) && --occurrence == 0) {
+				return event;
+			}
+		}
+		LOGGER.info("Savegame does not continue the previous savegame, analyzing all events");
+		return -1;
+	}
+
+	/**
+	 * Load the data of a savegame from the snapshot cache or by parsing it
+	 *
+	 * @param file the savegame file
+	 * @return the extracted savegame data
+	 */
+	private DataStorage loadData(File file, LoadMonitor monitor, LoadReport report)
+			throws XMLStreamException, IOException {
+		DataStorage result = null;
+		SaveGameSnapshotCache.Key snapshotKey = null;
+		if (snapshotCache != null) {
+			monitor.stageChanged(LoadStage.SNAPSHOT);
+			StageTimer timer = new StageTimer(LoadReport.SNAPSHOT);
+			snapshotKey = snapshotCache.createKey(file, componentFilter);
+			result = snapshotCache.load(snapshotKey);
+			LoadReport.Stage stage = timer.stop(result != null ? result.getGlobalEventStore().size() : 0, "events");
+			report.add(stage);
+			if (result != null) {
+				LOGGER.info("Loaded snapshot of " + file.getAbsolutePath() + " in "
+						+ stage.getWallNanos() / 1_000_000 + " ms");
+			}
+		}
+		if (result == null) {
+			result = parseFile(file, monitor, report);
+			if (snapshotCache != null) {
+				StageTimer timer = new StageTimer(LoadReport.SNAPSHOT);
+				snapshotCache.store(snapshotKey, result);
+				report.add(timer.stop(0, "events"));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Parse a savegame
+	 *
+	 * @param file the savegame file
+	 * @return the extracted savegame data
+	 */
+	private DataStorage parseFile(File file, LoadMonitor monitor, LoadReport report)
+			throws XMLStreamException, IOException {
+		RefScope scope = null;
+		if (scopeRootGlobals != null) {
+			StageTimer timer = new StageTimer(LoadReport.SCOPE);
+			RefGraphHandler refGraphHandler = new RefGraphHandler(scopeRootGlobals, monitor);
+			read(file, refGraphHandler, monitor, report);
+			scope = refGraphHandler.createScope();
+			report.add(timer.stop(scope.size(), "refs"));
+			LOGGER.info("Capturing " + scope.size() + " refs reachable from " + scopeRootGlobals);
+		}
+
+		StageTimer timer = new StageTimer(LoadReport.PARSE);
+		SaveGameHandler saveGameHandler = new SaveGameHandler(scope, monitor, componentFilter);
+		if (read(file, saveGameHandler, monitor, report)) {
+			LOGGER.info("Found all required data, skipped the rest of the file");
+		}
+		report.add(timer.stop(saveGameHandler.getElementCount(), "elements"));
+
+		monitor.stageChanged(LoadStage.RESOLVE);
+		DataStorage result = saveGameHandler.getData(report);
+		LOGGER.info("Successfully parsed file " + file.getAbsolutePath());
+		return result;
+	}
+
+	/**
+	 * Read a savegame with the reader best suited for the file
+	 *
+	 * @param file    the savegame file
+	 * @param handler the handler to feed
+	 * @param monitor the monitor to report the progress to
+	 * @param report  the report to add the inflate stage to
+	 * @return true if reading stopped early
+	 */
+	private boolean read(File file, SaveGameElementHandler handler, LoadMonitor monitor, LoadReport report)
+			throws XMLStreamException, IOException {
+		if (file.getName().endsWith(".xml")) {
+			// Uncompressed savegames are scanned directly on the mapped file
+			monitor.stageChanged(LoadStage.PARSE);
+			return new MappedSaveGameScanner(monitor).read(file, handler);
+		}
+		return readStream(file, handler, monitor, report);
+	}
+
+	/**
+	 * Read a (compressed) savegame with the StAX based reader
+	 *
+	 * @param file    the savegame file
+	 * @param handler the handler to feed
+	 * @param monitor the monitor to report the progress to
+	 * @param report  the report to add the inflate stage to
+	 * @return true if reading stopped early
+	 */
+	private boolean readStream(File file, SaveGameElementHandler handler, LoadMonitor monitor, LoadReport report)
+			throws XMLStreamException, IOException {
+		FileInputStream originalInputStream = new FileInputStream(file);
+		// Count below the decompression, so progress is measured in file bytes
+		InputStream inputStream = new CountingInputStream(originalInputStream, file.length(), monitor);
+		PipelinedGZIPInputStream gzipInputStream = null;
+		long startTime = System.nanoTime();
+		if (file.getName().endsWith(".gz")) {
+			LOGGER.info("Unzipping file");
+			monitor.stageChanged(LoadStage.INFLATE);
+			gzipInputStream = new PipelinedGZIPInputStream(inputStream);
+			inputStream = gzipInputStream;
+		} else {
+			monitor.stageChanged(LoadStage.PARSE);
+		}
+
+		boolean stoppedEarly;
+		try {
+			stoppedEarly = new StaxSaveGameReader().read(inputStream, handler);
+		} finally {
+			inputStream.close();
+			originalInputStream.close();
+		}
+
+		if (gzipInputStream != null) {
+			logThroughput(gzipInputStream, System.nanoTime() - startTime);
+			if (gzipInputStream.getInflateStage() != null) {
+				report.add(gzipInputStream.getInflateStage());
+			}
+		}
+		return stoppedEarly;
+	}
+
+	/**
+	 * Abort loading if the monitor was cancelled
+	 *
+	 * @param monitor the monitor
+	 * @throws CancellationException if loading was cancelled
+	 */
+	private static void checkCancelled(LoadMonitor monitor) throws CancellationException {
+		if (monitor.isCancelled()) {
+			throw new CancellationException("Loading the savegame was cancelled");
+		}
+	}
+
+	/**
+	 * Log the inflate throughput achieved while reading a compressed savegame
+	 *
+	 * @param gzipInputStream the stream the savegame was read from
+	 * @param elapsedNanos    the time spent reading the savegame
+	 */
+	private void logThroughput(PipelinedGZIPInputStream gzipInputStream, long elapsedNanos) {
+		double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+		double compressedMb = gzipInputStream.getCompressedBytes() / MEGABYTE;
+		double uncompressedMb = gzipInputStream.getUncompressedBytes() / MEGABYTE;
+		LOGGER.info(String.format("Inflated %.1f MB to %.1f MB in %.2f s (%.1f MB/s compressed, %.1f MB/s uncompressed)",
+				compressedMb, uncompressedMb, seconds, compressedMb / seconds, uncompressedMb / seconds));
+	}
+
+}
@@ -0,0 +1,275 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.model.Component;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * Cache for the data extracted from savegames.<br>
+ * <br>
+ * After a savegame was parsed, the player name, the components and the Global
+ * Events are written to a compact binary snapshot. Opening the same savegame
+ * again reads the snapshot instead of inflating and parsing the whole
+ * file.<br>
+ * Snapshots are keyed by the savegame path, size, modification time, a
+ * hash of the first and last megabyte of the file and the filter the
+ * components were captured with. For gzip savegames the
+ * last bytes contain the CRC of the whole uncompressed content. A snapshot
+ * that does not match its savegame, or was written by another version, is
+ * ignored and replaced on the next load.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class SaveGameSnapshotCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SaveGameSnapshotCache.class);
+
+	/**
+	 * "X4SS"
+	 */
+	private static final int MAGIC = 0x58345353;
+
+	/**
+	 * Must be increased whenever the snapshot format or the extracted data changes
+	 */
+	private static final int VERSION = 3;
+
+	private static final int SAMPLE_SIZE = 1024 * 1024;
+
+	private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+	private final File directory;
+
+	/**
+	 * Identifies the exact savegame content a snapshot was created from
+	 */
+	public static class Key {
+
+		private final String path;
+		private final long size;
+		private final long lastModified;
+		private final long contentHash;
+		private final String componentFilter;
+
+		private Key(String path, long size, long lastModified, long contentHash, String componentFilter) {
+			this.path = path;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.contentHash = contentHash;
+			this.componentFilter = componentFilter;
+		}
+
+		private boolean matches(String otherPath, long otherSize, long otherLastModified, long otherContentHash,
+				String otherComponentFilter) {
+			return path.equals(otherPath) && size == otherSize && lastModified == otherLastModified
+					&& contentHash == otherContentHash && componentFilter.equals(otherComponentFilter);
+		}
+
+		@Override
+		public String toString() {
+			return "Key [path=" + path + ", size=" + size + ", lastModified=" + lastModified + ", contentHash="
+					+ Long.toHexString(contentHash) + ", componentFilter=" + componentFilter + "]";
+		}
+	}
+
+	/**
+	 * Creates a new snapshot cache
+	 *
+	 * @param directory the directory to keep the snapshots in. Created when the
+	 *                  first snapshot is stored.
+	 */
+	public SaveGameSnapshotCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Get the default snapshot directory in the user home
+	 *
+	 * @return the default snapshot directory
+	 */
+	public static File getDefaultDirectory() {
+		return new File(new File(System.getProperty("user.home"), ".x4tress-analyzer"), "cache");
+	}
+
+	/**
+	 * Create the key of the current content of a savegame, captured with the
+	 * default component filter
+	 *
+	 * @param saveGame the savegame file
+	 * @return the snapshot key
+	 * @throws IOException if the savegame cannot be read
+	 */
+	public Key createKey(File saveGame) throws IOException {
+		return createKey(saveGame, ComponentFilter.shipsAndStations());
+	}
+
+	/**
+	 * Create the key of the current content of a savegame
+	 *
+	 * @param saveGame        the savegame file
+	 * @param componentFilter the filter the components are captured with
+	 * @return the snapshot key
+	 * @throws IOException if the savegame cannot be read
+	 */
+	public Key createKey(File saveGame, ComponentFilter componentFilter) throws IOException {
+		String path = saveGame.getCanonicalPath();
+		long lastModified = saveGame.lastModified();
+		try (RandomAccessFile file = new RandomAccessFile(saveGame, "r")) {
+			long size = file.length();
+			CRC32C hash = new CRC32C();
+			byte[] sample = new byte[(int) Math.min(SAMPLE_SIZE, size)];
+			file.readFully(sample);
+			hash.update(sample);
+			if (size > SAMPLE_SIZE) {
+				sample = new byte[(int) Math.min(SAMPLE_SIZE, size - SAMPLE_SIZE)];
+				file.seek(size - sample.length);
+				file.readFully(sample);
+				hash.update(sample);
+			}
+			return new Key(path, size, lastModified, hash.getValue(), componentFilter.toString());
+		}
+	}
+
+	/**
+	 * Load the snapshot of a savegame
+	 *
+	 * @param key the key of the savegame
+	 * @return the extracted savegame data without processed events, or null if
+	 *         there is no valid snapshot for the key
+	 */
+	public DataStorage load(Key key) {
+		File snapshot = snapshotFile(key);
+		if (!snapshot.isFile()) {
+			return null;
+		}
+		CheckedInputStream checkedInputStream = null;
+		try (DataInputStream in = new DataInputStream(checkedInputStream = new CheckedInputStream(
+				new BufferedInputStream(new FileInputStream(snapshot)), new CRC32C()))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				LOGGER.info("Ignoring snapshot " + snapshot + " of an unknown version");
+				return null;
+			}
+			if (!key.matches(StringDictionary.readString(in), in.readLong(), in.readLong(), in.readLong(),
+					StringDictionary.readString(in))) {
+				LOGGER.info("Ignoring outdated snapshot " + snapshot);
+				return null;
+			}
+
+			String playerName = readString(in);
+			int componentCount = in.readInt();
+			List<Component> components = new ArrayList<>(componentCount);
+			for (int i = 0; i < componentCount; i++) {
+				components.add(new Component(readString(in), readString(in), readString(in)));
+			}
+			StringDictionary dictionary = StringDictionary.readFrom(in);
+			GlobalEventStore globalEvents = GlobalEventStore.readFrom(in, dictionary);
+
+			long checksum = checkedInputStream.getChecksum().getValue();
+			if (in.readLong() != checksum) {
+				LOGGER.warn("Ignoring corrupt snapshot " + snapshot);
+				return null;
+			}
+			return new DataStorage(playerName, components, globalEvents);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Could not read snapshot " + snapshot + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Store the snapshot of a savegame. Failures are logged, as a missing
+	 * snapshot only costs time on the next load.
+	 *
+	 * @param key  the key of the savegame
+	 * @param data the extracted savegame data
+	 */
+	public void store(Key key, DataStorage data) {
+		File snapshot = snapshotFile(key);
+		File temp = null;
+		try {
+			Files.createDirectories(directory.toPath());
+			temp = File.createTempFile("snapshot", ".tmp", directory);
+			CheckedOutputStream checkedOutputStream = null;
+			try (DataOutputStream out = new DataOutputStream(checkedOutputStream = new CheckedOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp)), new CRC32C()))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				StringDictionary.writeString(out, key.path);
+				out.writeLong(key.size);
+				out.writeLong(key.lastModified);
+				out.writeLong(key.contentHash);
+				StringDictionary.writeString(out, key.componentFilter);
+
+				writeString(out, data.getPlayerName());
+				List<Component> components = data.getObjectList();
+				out.writeInt(components.size());
+				for (Component component : components) {
+					writeString(out, component.getObjectClass());
+					writeString(out, component.getObjectCode());
+					writeString(out, component.getObjectOwner());
+				}
+				data.getDictionary().writeTo(out);
+				data.getGlobalEventStore().writeTo(out);
+
+				out.writeLong(checkedOutputStream.getChecksum().getValue());
+			}
+			try {
+				Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			LOGGER.info("Stored snapshot " + snapshot + " (" + snapshot.length() + " bytes)");
+		} catch (IOException e) {
+			LOGGER.warn("Could not store snapshot " + snapshot + ": " + e.getMessage());
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Each savegame path has a single snapshot file, named after a hash of the
+	 * path. The full path is verified when the snapshot is loaded.
+	 */
+	private File snapshotFile(Key key) {
+		CRC32C pathHash = new CRC32C();
+		pathHash.update(key.path.getBytes(StandardCharsets.UTF_8));
+		return new File(directory, String.format("%08x", pathHash.getValue()) + SNAPSHOT_SUFFIX);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			StringDictionary.writeString(out, value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? StringDictionary.readString(in) : null;
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import org.soh.x4.x4tress_analyzer.analyzer.ThreadUsage;
+
+/**
+ * Measures a single {@link LoadReport.Stage} on the current thread
+ *
+ * @author Son of Hubert
+ *
+ */
+final class StageTimer {
+
+	private final String name;
+	private final long wallStart;
+	private final long cpuStart;
+	private final long allocatedStart;
+
+	/**
+	 * Start measuring a stage on the current thread
+	 *
+	 * @param name the stage name
+	 */
+	StageTimer(String name) {
+		this.name = name;
+		cpuStart = ThreadUsage.cpuNanos();
+		allocatedStart = ThreadUsage.allocatedBytes();
+		wallStart = System.nanoTime();
+	}
+
+	/**
+	 * Stop measuring. Must be called on the thread that started the timer.
+	 *
+	 * @param count     the number of items the stage produced
+	 * @param countUnit what the items are, null if the stage produces no items
+	 * @return the stage figures
+	 */
+	LoadReport.Stage stop(long count, String countUnit) {
+		return stop(count, countUnit, 0, 0);
+	}
+
+	/**
+	 * Stop measuring a stage that also ran on other threads. Must be called on
+	 * the thread that started the timer.
+	 *
+	 * @param count               the number of items the stage produced
+	 * @param countUnit           what the items are, null if the stage produces
+	 *                            no items
+	 * @param otherCpuNanos       the CPU time of the stage on other threads, -1
+	 *                            if unknown
+	 * @param otherAllocatedBytes the heap bytes allocated by the stage on other
+	 *                            threads, -1 if unknown
+	 * @return the stage figures
+	 */
+	LoadReport.Stage stop(long count, String countUnit, long otherCpuNanos, long otherAllocatedBytes) {
+		long wallNanos = System.nanoTime() - wallStart;
+		long cpuNanos = ThreadUsage.between(cpuStart, ThreadUsage.cpuNanos());
+		long allocatedBytes = ThreadUsage.between(allocatedStart, ThreadUsage.allocatedBytes());
+		return new LoadReport.Stage(name, wallNanos, ThreadUsage.sum(cpuNanos, otherCpuNanos),
+				ThreadUsage.sum(allocatedBytes, otherAllocatedBytes), count, countUnit);
+	}
+
+}
@@ -0,0 +1,103 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Pull based reader for X4 savegames.<br>
+ * Feeds the elements of the savegame into a {@link SaveGameElementHandler} and
+ * stops consuming the stream as soon as the handler reports that it has
+ * captured everything it needs.<br>
+ * Completion is only checked whenever a top level section of the savegame (e.g.
+ * <i>universe</i> or <i>md</i>) ends, so no section is ever cut in half.<br>
+ * <br>
+ * The StAX API only hands out attribute values as Strings, so every attribute
+ * the handler reads creates one, including the numbers parsed from it. This is
+ * the reader for compressed savegames. Uncompressed savegames are read by the
+ * {@link MappedSaveGameScanner}, which parses and compares values on the raw
+ * bytes without creating Strings.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class StaxSaveGameReader {
+
+	private final XMLInputFactory factory;
+
+	public StaxSaveGameReader() {
+		factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+	}
+
+	/**
+	 * Read a savegame from the given stream
+	 *
+	 * @param inputStream the (uncompressed) savegame stream
+	 * @param handler     the handler to feed the elements to
+	 * @return true if reading stopped early, false if the whole document was read
+	 * @throws XMLStreamException if the savegame is not valid xml
+	 */
+	public boolean read(InputStream inputStream, SaveGameElementHandler handler) throws XMLStreamException {
+		XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+		ElementAttributes attributes = new StaxAttributes(reader);
+		int depth = 0;
+		try {
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					handler.startElement(reader.getLocalName(), attributes);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					handler.endElement(reader.getLocalName());
+					depth--;
+					// depth 1 is the savegame root element, so a top level section just ended
+					if (depth == 1 && handler.isComplete()) {
+						return true;
+					}
+					break;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return false;
+	}
+
+	/**
+	 * Attributes of the current element of a stream reader. The reader already
+	 * decoded the attribute values while reading the element. The typed accessors
+	 * of {@link ElementAttributes} work on the value Strings of the reader.
+	 */
+	private static class StaxAttributes implements ElementAttributes {
+
+		private final XMLStreamReader reader;
+
+		private StaxAttributes(XMLStreamReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int getIndex(String name) {
+			int count = reader.getAttributeCount();
+			for (int i = 0; i < count; i++) {
+				if (name.equals(reader.getAttributeLocalName(i))) {
+					return i;
+				}
+			}
+			return NOT_FOUND;
+		}
+
+		@Override
+		public String getValue(int index) {
+			return reader.getAttributeValue(index);
+		}
+	}
+
+}
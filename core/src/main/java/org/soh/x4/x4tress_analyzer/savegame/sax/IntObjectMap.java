@@ -0,0 +1,235 @@
+package org.soh.x4.x4tress_analyzer.savegame.sax;
+
+/**
+ * Map from primitive int keys to objects.<br>
+ * <br>
+ * Savegame refs are referenced by int ids and big savegames contain millions of
+ * them. Unlike a {@link java.util.HashMap HashMap&lt;Integer, V&gt;}, this map
+ * neither boxes its keys nor creates an entry object per mapping. Keys and
+ * values are kept in two flat arrays using open addressing with linear
+ * probing.<br>
+ * Null values are permitted. Mappings cannot be removed, as the savegame
+ * structures only ever grow during parsing.
+ *
+ * @author Son of Hubert
+ *
+ * @param <V> the value type
+ */
+public class IntObjectMap<V> {
+
+	/**
+	 * Consumer for the mappings of an {@link IntObjectMap}
+	 *
+	 * @param <V> the value type
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+		void accept(int key, V value);
+	}
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	/**
+	 * Key 0 marks a free slot, so a mapping for key 0 is stored separately
+	 */
+	private static final int FREE_KEY = 0;
+
+	private int[] keys;
+
+	private Object[] values;
+
+	private int size = 0;
+
+	private int resizeThreshold;
+
+	private int mask;
+
+	private boolean hasFreeKey = false;
+
+	private V freeKeyValue = null;
+
+	/**
+	 * Creates a new map for a few mappings
+	 */
+	public IntObjectMap() {
+		this(8);
+	}
+
+	/**
+	 * Creates a new map
+	 *
+	 * @param expectedSize the number of mappings expected
+	 */
+	public IntObjectMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Get the value for a key
+	 *
+	 * @param key the key
+	 * @return the value or null if the key is not mapped
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		if (key == FREE_KEY) {
+			return freeKeyValue;
+		}
+		int slot = slot(key);
+		while (true) {
+			int candidate = keys[slot];
+			if (candidate == key) {
+				return (V) values[slot];
+			}
+			if (candidate == FREE_KEY) {
+				return null;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Checks if a key is mapped
+	 *
+	 * @param key the key
+	 * @return true if the map contains a mapping for the key
+	 */
+	public boolean containsKey(int key) {
+		if (key == FREE_KEY) {
+			return hasFreeKey;
+		}
+		int slot = slot(key);
+		while (true) {
+			int candidate = keys[slot];
+			if (candidate == key) {
+				return true;
+			}
+			if (candidate == FREE_KEY) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Map a key to a value. Replacing the value of an existing key is safe during
+	 * {@link #forEach(EntryConsumer)}.
+	 *
+	 * @param key   the key
+	 * @param value the value, may be null
+	 * @return the previous value or null if the key was not mapped
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (key == FREE_KEY) {
+			V previous = freeKeyValue;
+			if (!hasFreeKey) {
+				hasFreeKey = true;
+				size++;
+			}
+			freeKeyValue = value;
+			return previous;
+		}
+		int slot = slot(key);
+		while (true) {
+			int candidate = keys[slot];
+			if (candidate == key) {
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			if (candidate == FREE_KEY) {
+				keys[slot] = key;
+				values[slot] = value;
+				if (++size > resizeThreshold) {
+					allocate(keys.length << 1);
+				}
+				return null;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Get the number of mappings
+	 *
+	 * @return the map size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the map is empty
+	 *
+	 * @return true if the map contains no mappings
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Perform an action for each mapping, in no particular order
+	 *
+	 * @param action the action
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super V> action) {
+		if (hasFreeKey) {
+			action.accept(FREE_KEY, freeKeyValue);
+		}
+		int[] currentKeys = keys;
+		Object[] currentValues = values;
+		for (int slot = 0; slot < currentKeys.length; slot++) {
+			int key = currentKeys[slot];
+			if (key != FREE_KEY) {
+				action.accept(key, (V) currentValues[slot]);
+			}
+		}
+	}
+
+	private int slot(int key) {
+		// Spread sequential ids over the table
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * Allocate the slot arrays with a new capacity and rehash all mappings
+	 */
+	private void allocate(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (int) (capacity * LOAD_FACTOR);
+		if (oldKeys != null) {
+			for (int i = 0; i < oldKeys.length; i++) {
+				int key = oldKeys[i];
+				if (key != FREE_KEY) {
+					int slot = slot(key);
+					while (keys[slot] != FREE_KEY) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = key;
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		forEach((key, value) -> {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(key).append('=').append(value);
+		});
+		return builder.append('}').toString();
+	}
+
+}
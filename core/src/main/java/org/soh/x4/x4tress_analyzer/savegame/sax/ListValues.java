@@ -0,0 +1,300 @@
+package org.soh.x4.x4tress_analyzer.savegame.sax;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * The entries of a X4 list.<br>
+ * <br>
+ * Each entry is a tagged value: a type code and a primitive payload. The
+ * payload is a ref id for references (e.g. <i>"string"</i> or
+ * <i>"list"</i>), the bits of a double for <i>"time"</i> and <i>"length"</i>,
+ * or the code of a String in a side table for standalone Strings like
+ * <i>"xmlkeyword"</i>.<br>
+ * Types and payloads are kept in two flat arrays, so reading an entry neither
+ * unboxes an object nor compares the type as a String.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class ListValues {
+
+	/**
+	 * Marks an entry of an unknown type
+	 */
+	public static final byte TYPE_NONE = 0;
+
+	/**
+	 * Reference to the string map
+	 */
+	public static final byte TYPE_STRING = 1;
+
+	/**
+	 * Reference to the list map
+	 */
+	public static final byte TYPE_LIST = 2;
+
+	/**
+	 * Reference to the table map
+	 */
+	public static final byte TYPE_TABLE = 3;
+
+	/**
+	 * Reference to the position map
+	 */
+	public static final byte TYPE_POSITION = 4;
+
+	/**
+	 * In game time in seconds
+	 */
+	public static final byte TYPE_TIME = 5;
+
+	/**
+	 * A distance in meters
+	 */
+	public static final byte TYPE_LENGTH = 6;
+
+	/**
+	 * Reserved word of X4, saved as a standalone String
+	 */
+	public static final byte TYPE_XMLKEYWORD = 7;
+
+	public static final byte TYPE_SHIPTYPE = 8;
+
+	public static final byte TYPE_CLASS = 9;
+
+	/**
+	 * The savegame names of the types, indexed by type code
+	 */
+	private static final String[] TYPE_NAMES = { null, "string", "list", "table", "position", "time", "length",
+			"xmlkeyword", "shiptype", "class" };
+
+	/**
+	 * Define the starting time of X4 in Milliseconds<br>
+	 * The starting time is defined as <i>825-02-08 : 11:00</i> (yyy-MM-dd :
+	 * HH:SS).<br>
+	 * Due to some time shenanigans LocalDateTime.of(825, 2, 8, 11, 0) results in
+	 * the actual time being<br>
+	 * <i>825-02-04 12:00</i>! I don't wish to spend time on finding the cause,
+	 * hence the below workaround time
+	 */
+	private static final long X4_STARTING_TIME = java.sql.Timestamp
+			.from(LocalDateTime.of(825, 2, 12, 10, 0).toInstant(ZoneOffset.ofHours(0))).getTime();
+
+	/**
+	 * Side table for the String payloads
+	 */
+	private final StringDictionary strings;
+
+	private byte[] types;
+
+	private long[] payloads;
+
+	private int size = 0;
+
+	/**
+	 * Creates a new empty list
+	 *
+	 * @param strings the side table to keep String payloads in, usually shared
+	 *                by all lists of a savegame
+	 */
+	public ListValues(StringDictionary strings) {
+		this.strings = strings;
+		types = new byte[4];
+		payloads = new long[4];
+	}
+
+	/**
+	 * Get the code of a savegame value type
+	 *
+	 * @param typeName the <i>"type"</i> attribute of a value, e.g.
+	 *                 <i>"string"</i>
+	 * @return the type code, {@link #TYPE_NONE} for unknown types
+	 */
+	public static byte typeOf(String typeName) {
+		for (byte type = 1; type < TYPE_NAMES.length; type++) {
+			if (TYPE_NAMES[type].equals(typeName)) {
+				return type;
+			}
+		}
+		return TYPE_NONE;
+	}
+
+	/**
+	 * Get the savegame name of a type code
+	 *
+	 * @param type the type code
+	 * @return the type name, e.g. <i>"string"</i>, null for {@link #TYPE_NONE}
+	 */
+	public static String typeName(byte type) {
+		return TYPE_NAMES[type];
+	}
+
+	/**
+	 * Add a reference to another ref
+	 *
+	 * @param type the reference type, e.g. {@link #TYPE_STRING}
+	 * @param id   the referenced id
+	 */
+	public void addReference(byte type, int id) {
+		add(type, id);
+	}
+
+	/**
+	 * Add a time or length
+	 *
+	 * @param type  {@link #TYPE_TIME} or {@link #TYPE_LENGTH}
+	 * @param value the value
+	 */
+	public void addDouble(byte type, double value) {
+		add(type, Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * Add a standalone String
+	 *
+	 * @param type  the String type, e.g. {@link #TYPE_XMLKEYWORD}
+	 * @param value the String
+	 */
+	public void addString(byte type, String value) {
+		add(type, strings.encode(value));
+	}
+
+	/**
+	 * Append an entry
+	 *
+	 * @param type    the type code
+	 * @param payload the payload
+	 * @return the index of the entry
+	 */
+	protected int add(byte type, long payload) {
+		if (size == types.length) {
+			grow();
+		}
+		types[size] = type;
+		payloads[size] = payload;
+		return size++;
+	}
+
+	protected void grow() {
+		types = Arrays.copyOf(types, size * 2);
+		payloads = Arrays.copyOf(payloads, size * 2);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the type code of an entry
+	 *
+	 * @param index the entry index
+	 * @return the type code
+	 */
+	public byte getType(int index) {
+		checkIndex(index);
+		return types[index];
+	}
+
+	/**
+	 * Checks if an entry is a reference to another ref, e.g. to a string or a
+	 * table
+	 *
+	 * @param index the entry index
+	 * @return true for references
+	 */
+	public boolean isReference(int index) {
+		byte type = getType(index);
+		return type == TYPE_STRING || type == TYPE_LIST || type == TYPE_TABLE || type == TYPE_POSITION;
+	}
+
+	/**
+	 * Get the referenced id of an entry.<br>
+	 * Note that references (e.g. strings or lists) are stored as ids!
+	 *
+	 * @param index the entry index
+	 * @return the referenced id
+	 * @throws IllegalStateException if the entry is not a reference
+	 */
+	public int getReference(int index) throws IllegalStateException {
+		if (!isReference(index)) {
+			throw new IllegalStateException("Entry " + index + " is no reference but " + typeName(types[index]));
+		}
+		return (int) payloads[index];
+	}
+
+	/**
+	 * Get a time or length entry
+	 *
+	 * @param index the entry index
+	 * @return the value, NaN if the entry is neither a time nor a length
+	 */
+	public double getDouble(int index) {
+		byte type = getType(index);
+		return type == TYPE_TIME || type == TYPE_LENGTH ? Double.longBitsToDouble(payloads[index]) : Double.NaN;
+	}
+
+	/**
+	 * Get a standalone String entry
+	 *
+	 * @param index the entry index
+	 * @return the String, null if the entry is no standalone String
+	 */
+	public String getString(int index) {
+		byte type = getType(index);
+		return type == TYPE_XMLKEYWORD || type == TYPE_SHIPTYPE || type == TYPE_CLASS
+				? strings.decode((int) payloads[index])
+				: null;
+	}
+
+	/**
+	 * Return a time entry as a timestamp in epoch milliseconds.<br>
+	 * In X4, time starts at 825-02-08 : 11:00 (YYY-MM-DD : HH:MM)<br>
+	 * The <i>time</i> value in the savegame is the time passed in game in seconds,
+	 * with milliseconds after the decimal point.<br>
+	 * Time in X4 passes the same as on earth (1sec = 100ms, 1min = 60sec, 1h =
+	 * 60min, 1d = 24h)
+	 *
+	 * @param index the entry index
+	 * @return The X4 time in epoch milliseconds,
+	 *         {@link GlobalEventStore#NO_TIMESTAMP} if the entry is no time
+	 */
+	public long getTimeMillis(int index) {
+		if (getType(index) == TYPE_TIME) {
+			return X4_STARTING_TIME + (long) (getDouble(index) * 1000);
+		}
+		return GlobalEventStore.NO_TIMESTAMP;
+	}
+
+	/**
+	 * Describes an entry for log messages
+	 *
+	 * @param index the entry index
+	 * @return the type and payload of the entry
+	 */
+	public String toString(int index) {
+		byte type = getType(index);
+		switch (type) {
+		case TYPE_TIME:
+		case TYPE_LENGTH:
+			return typeName(type) + " " + getDouble(index);
+		case TYPE_XMLKEYWORD:
+		case TYPE_SHIPTYPE:
+		case TYPE_CLASS:
+			return typeName(type) + " " + getString(index);
+		default:
+			return typeName(type) + " " + payloads[index];
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " entries");
+		}
+	}
+
+}
@@ -0,0 +1,392 @@
+package org.soh.x4.x4tress_analyzer.savegame.sax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soh.x4.x4tress_analyzer.model.Component;
+import org.soh.x4.x4tress_analyzer.model.GlobalEvent;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * Savegame class representing the parts of the X4 savegame structure we
+ * require.<br>
+ * This class is intended only to be used for savegame parsing.<br>
+ * To perform operations, transform it to anything in
+ * <i>org.soh.x4.x4tress_analyzer.model<i> first.<b> This package more closely
+ * resembles the data structures available in the X4 scripts as well.
+ * 
+ * @author Son of Hubert
+ *
+ */
+public class Savegame {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Savegame.class);
+
+	/**
+	 * How to use: The idx values refer to table keys in the
+	 * global.$SoHGlobalEvents List table entries in soh_x_fourtress, as defined in
+	 * soh_observer.xml If the list definition in soh_x_fourtress changes, change
+	 * this list accordingly, as well as the
+	 * <i>globalEventFromListEntry(TableValues entry)</i> function and the GlobalEvent class,
+	 * as well as the <i>resolveTableKeys()</i> function;
+	 * 
+	 * Unfortunately X4 can sometimes save multiple references for the same key.
+	 * As such, each keyword can have multiple ints referenced as keys. Hence why we save them as arrays.
+	 * 
+	 * A more elegant way would be to convert the table map into a string key map in a second step, just like in X4.
+	 * 
+	 */
+
+	private int[] idxTimestamp = new int[0];
+
+	private int[] idxEventType = new int[0];
+
+	private int[] idxAttackerId = new int[0];
+
+	private int[] idxAttacker = new int[0];
+	
+	private int[] idxAttackerType = new int[0];
+
+	private int[] idxAttackerFaction = new int[0];
+
+	private int[] idxAttackedId = new int[0];
+
+	private int[] idxAttacked = new int[0];
+	
+	private int[] idxAttackedType = new int[0];
+
+	private int[] idxTargetComponent = new int[0];
+
+	private int[] idxAttackedFaction = new int[0];
+
+	private int[] idxSector = new int[0];
+
+	private int[] idxAttackedPos = new int[0];
+
+	private List<Component> objectList = new ArrayList<>();
+
+	/**
+	 * Dictionary encoding the low cardinality String values of the Global Events
+	 */
+	private final StringDictionary dictionary = new StringDictionary();
+
+	/**
+	 * Side table for the standalone String values of lists and tables, e.g.
+	 * <i>"xmlkeyword"</i>
+	 */
+	private final StringDictionary valueStrings = new StringDictionary();
+	
+	/**
+	 * The in game player name
+	 */
+	private String playerName = "";
+
+	/**
+	 * The table key map contains the mapping of table keys as Integer with their
+	 * String references
+	 */
+	private IntObjectMap<String> tableKeyMap = new IntObjectMap<>();
+
+	public IntObjectMap<String> getTableKeyMap() {
+		return tableKeyMap;
+	}
+
+	/**
+	 * Resolves all table keys as Strings from the String map
+	 * Saves the referenced Integer keys in idx values.
+	 */
+	public void resolveTableKeys() {
+		tableKeyMap.forEach((key, value) -> {
+			String strValue = stringMap.get(key);
+			tableKeyMap.put(key, strValue);
+			if (strValue != null && key > 0) {
+				switch (strValue) {
+				case "$timestamp":
+					idxTimestamp = append(idxTimestamp, key);
+					break;
+				case "$eventType":
+					idxEventType = append(idxEventType, key);
+					break;
+				case "$attackerId":
+					idxAttackerId = append(idxAttackerId, key);
+					break;
+				case "$attacker":
+					idxAttacker = append(idxAttacker, key);
+					break;
+				case "$attackerType":
+					idxAttackerType = append(idxAttackerType, key);
+					break;
+				case "$attackerFaction":
+					idxAttackerFaction = append(idxAttackerFaction, key);
+					break;
+				case "$attackedId":
+					idxAttackedId = append(idxAttackedId, key);
+					break;
+				case "$attacked":
+					idxAttacked = append(idxAttacked, key);
+					break;
+				case "$attackedType":
+					idxAttackedType = append(idxAttackedType, key);
+					break;
+				case "$targetComponent":
+					idxTargetComponent = append(idxTargetComponent, key);
+					break;
+				case "$attackedFaction":
+					idxAttackedFaction = append(idxAttackedFaction, key);
+					break;
+				case "$sector":
+					idxSector = append(idxSector, key);
+					break;
+				case "$attackedPos":
+					idxAttackedPos = append(idxAttackedPos, key);
+					break;
+				}
+			}
+		});
+	}
+
+	private int globalEventsListId;
+
+	public String getPlayerName() {
+		return playerName;
+	}
+
+	public void setPlayerName(String playerName) {
+		this.playerName = playerName;
+	}
+
+	public List<Component> getObjectList() {
+		return objectList;
+	}
+
+	/**
+	 * Get the dictionary encoding the String values of the Global Events
+	 * 
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * The reference map containing String values.<br>
+	 * In the X4 Savegame structure, all "String" values in a list are actually
+	 * references to the stringMap.<br>
+	 * Only a few String values are directly saved within the list. E.g.
+	 * <i>"xmlkeyword"</i> (Reserved words in X4).<br>
+	 * The key is an Integer ID.
+	 */
+	private IntObjectMap<String> stringMap = new IntObjectMap<>(1024);
+
+	/**
+	 * The listMap is a Map of all List values saved in the X4 savegame.<br>
+	 * List values contain a Type and a value. The value can be the value
+	 * itself,<br>
+	 * or as in most cases, a reference to a different value.<br>
+	 * E.g. to the stringMap in case of the type <i>"string"</i>, or to a different
+	 * List in case of the type <i>"list"</i>.
+	 * For x4tress, we only need a single list, referenced in <i>globalEventsListId</i>.
+	 */
+	private IntObjectMap<ListValues> listMap = new IntObjectMap<>(1024);
+
+	/**
+	 * The tableMap is a Map of all table values saved in the X4 savegame.<br>
+	 * List values contain a Type and a value. The value can be the value
+	 * itself,<br>
+	 * or as in most cases, a reference to a different value.<br>
+	 * E.g. to the stringMap in case of the type <i>"string"</i>, or to a different
+	 * List in case of the type <i>"list"</i>.
+	 * Each value has a unique key.<br>
+	 * <br>
+	 * X4 tables are comparable to Java Maps
+	 */
+	private IntObjectMap<TableValues> tableMap = new IntObjectMap<>(1024);
+
+	/**
+	 * The reference map containing position values.<br>
+	 * In the X4 Savegame structure, all "position" values in a list are actually
+	 * references to the positionMap.<br>
+	 * The key is an Integer ID.
+	 */
+	private IntObjectMap<Position> positionMap = new IntObjectMap<>(1024);
+
+	/**
+	 * Set the savegame reference ID for the SoHGlobalEvents list,<br>
+	 * allowing us to link the contained lists to it.
+	 * 
+	 * @param refId the reference ID from the SaveGame
+	 */
+	public void initializeGlobalEventsList(int refId) {
+		LOGGER.debug("SoHGlobalEvents list Id is " + refId + ".");
+		if (refId > 0) {
+			globalEventsListId = refId;
+		}
+	}
+
+	/**
+	 * Get the reference ID of the Global Events list in the savegame
+	 * 
+	 * @return
+	 */
+	public int getGlobalEventsListId() {
+		return globalEventsListId;
+	}
+
+	/**
+	 * Add a component element from the savegame<br>
+	 * Which components are added is decided by the
+	 * {@link org.soh.x4.x4tress_analyzer.savegame.ComponentFilter ComponentFilter}
+	 * of the parser.
+	 * 
+	 * @param objectClass the <i>"class"</i> attribute of the xml <i>"component"</i>
+	 * @param code        the <i>"code"</i> attribute of the xml <i>"component"</i>
+	 * @param owner       the <i>"owner"</i> attribute of the xml <i>"component"</i>
+	 */
+	public void addComponent(String objectClass, String code, String owner) {
+		objectList.add(new Component(objectClass, code, owner));
+	}
+
+	/**
+	 * Get the list map containing all List entries
+	 * 
+	 * @return the list map
+	 */
+	public IntObjectMap<ListValues> getListMap() {
+		return listMap;
+	}
+
+	/**
+	 * Get the table map containing all Global Event entries
+	 * 
+	 * @return the list map
+	 */
+	public IntObjectMap<TableValues> getTableMap() {
+		return tableMap;
+	}
+
+	/**
+	 * Get the string map containing all String reference entries
+	 * 
+	 * @return the string map
+	 */
+	public IntObjectMap<String> getStringMap() {
+		return stringMap;
+	}
+
+	/**
+	 * Get the string map containing all String reference entries
+	 * 
+	 * @return the string map
+	 */
+	public IntObjectMap<Position> getPositionMap() {
+		return positionMap;
+	}
+
+	/**
+	 * Create an empty list whose String values share the side table of the
+	 * savegame
+	 * 
+	 * @return the list
+	 */
+	public ListValues createList() {
+		return new ListValues(valueStrings);
+	}
+
+	/**
+	 * Create an empty table whose String values share the side table of the
+	 * savegame
+	 * 
+	 * @return the table
+	 */
+	public TableValues createTable() {
+		return new TableValues(valueStrings);
+	}
+
+	/**
+	 * Returns the given entry value with its string map reference
+	 * 
+	 * @param index the entry index, may be {@link TableValues#NOT_FOUND}
+	 * @param entry The GlobalEvents table entry
+	 * @return the String value
+	 */
+	private String getReferenceStringValue(int index, TableValues entry) {
+		if (index == TableValues.NOT_FOUND || !entry.isReference(index)) {
+			return null;
+		}
+		return stringMap.get(entry.getReference(index));
+	}
+
+	/**
+	 * Returns the given entry value with its Position map reference
+	 * 
+	 * @param index the entry index
+	 * @param entry The GlobalEvents table entry
+	 * @return the Position value
+	 */
+	private Position getReferencePositionValue(int index, TableValues entry) {
+		return entry.isReference(index) ? positionMap.get(entry.getReference(index)) : null;
+	}
+
+	/**
+	 * Creates a Global Event from a Savegame table entry and appends it to a
+	 * store.<br>
+	 * Nothing is appended if the entry cannot be read.
+	 * 
+	 * @param entry The GlobalEvents table entry
+	 * @param store The store to append the event to
+	 * @return The GlobalEvents object
+	 * @throws IndexOutOfBoundsException if the entry lacks a required value
+	 */
+	public GlobalEvent globalEventFromListEntry(TableValues entry, GlobalEventStore store)
+			throws IndexOutOfBoundsException {
+		GlobalEvent event = store.get(store.add());
+		try {
+			fillGlobalEvent(event, entry);
+		} catch (RuntimeException e) {
+			store.removeLast();
+			throw e;
+		}
+		return event;
+	}
+
+	/**
+	 * Reads the values of a Global Event from a Savegame table entry
+	 * 
+	 * @param event The Global Event to fill
+	 * @param entry The GlobalEvents table entry
+	 */
+	private void fillGlobalEvent(GlobalEvent event, TableValues entry) {
+		event.setTimestampMillis(entry.getTimeMillis(entry.indexOfAny(idxTimestamp)));
+		event.setEventType(getReferenceStringValue(entry.indexOfAny(idxEventType), entry));
+		event.setAttackerId(getReferenceStringValue(entry.indexOfAny(idxAttackerId), entry));
+		event.setAttacker(getReferenceStringValue(entry.indexOfAny(idxAttacker), entry));
+		event.setAttackerType(entry.getString(entry.indexOfAny(idxAttackerType)));
+		event.setAttackerFaction(getReferenceStringValue(entry.indexOfAny(idxAttackerFaction), entry));
+		event.setAttackedId(getReferenceStringValue(entry.indexOfAny(idxAttackedId), entry));
+		event.setAttacked(getReferenceStringValue(entry.indexOfAny(idxAttacked), entry));
+		event.setAttackedType(entry.getString(entry.indexOfAny(idxAttackedType)));
+		event.setTargetComponent(getReferenceStringValue(entry.indexOfAny(idxTargetComponent), entry));
+		event.setAttackedFaction(getReferenceStringValue(entry.indexOfAny(idxAttackedFaction), entry));
+		event.setSector(getReferenceStringValue(entry.indexOfAny(idxSector), entry));
+		event.setAttackedPos(getReferencePositionValue(entry.indexOfAny(idxAttackedPos), entry));
+	}
+
+	/**
+	 * Append a table key to the keys of a keyword.<br>
+	 * Ugly hack for the possibility that a table key (e.g. $timestamp) has different references in the savegame
+	 * @param keys the keys of the keyword
+	 * @param key the key to add
+	 * @return the extended keys
+	 */
+	private static int[] append(int[] keys, int key) {
+		int[] extended = Arrays.copyOf(keys, keys.length + 1);
+		extended[keys.length] = key;
+		return extended;
+	}
+
+}
@@ -0,0 +1,114 @@
+package org.soh.x4.x4tress_analyzer.savegame.sax;
+
+import java.util.Arrays;
+
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * The entries of a X4 table, comparable to a Java Map.<br>
+ * Like {@link ListValues}, but each entry has an int key, which is a
+ * reference to the string map for the String keys x4tress uses.<br>
+ * <br>
+ * The tables of interest hold a dozen entries, so keys are looked up by a
+ * linear scan over a flat array instead of hashing. Entries are only
+ * appended: if a key is put twice, the later entry wins.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class TableValues extends ListValues {
+
+	/**
+	 * Returned by {@link #indexOf(int)} for keys the table does not contain
+	 */
+	public static final int NOT_FOUND = -1;
+
+	private int[] keys = new int[4];
+
+	/**
+	 * Creates a new empty table
+	 *
+	 * @param strings the side table to keep String payloads in, usually shared
+	 *                by all lists of a savegame
+	 */
+	public TableValues(StringDictionary strings) {
+		super(strings);
+	}
+
+	/**
+	 * Put a reference to another ref
+	 *
+	 * @param key  the table key
+	 * @param type the reference type, e.g. {@link #TYPE_STRING}
+	 * @param id   the referenced id
+	 */
+	public void putReference(int key, byte type, int id) {
+		keys[add(type, id)] = key;
+	}
+
+	/**
+	 * Put a time or length
+	 *
+	 * @param key   the table key
+	 * @param type  {@link #TYPE_TIME} or {@link #TYPE_LENGTH}
+	 * @param value the value
+	 */
+	public void putDouble(int key, byte type, double value) {
+		keys[add(type, Double.doubleToRawLongBits(value))] = key;
+	}
+
+	/**
+	 * Put a standalone String
+	 *
+	 * @param key   the table key
+	 * @param type  the String type, e.g. {@link #TYPE_XMLKEYWORD}
+	 * @param value the String
+	 */
+	public void putString(int key, byte type, String value) {
+		int index = size();
+		addString(type, value);
+		keys[index] = key;
+	}
+
+	@Override
+	protected void grow() {
+		super.grow();
+		keys = Arrays.copyOf(keys, size() * 2);
+	}
+
+	/**
+	 * Get the index of the entry of a key
+	 *
+	 * @param key the table key
+	 * @return the entry index or {@link #NOT_FOUND}
+	 */
+	public int indexOf(int key) {
+		for (int i = size() - 1; i >= 0; i--) {
+			if (keys[i] == key) {
+				return i;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Get the index of the entry of the first of some keys the table contains
+	 *
+	 * @param candidates the table keys
+	 * @return the entry index or {@link #NOT_FOUND}
+	 */
+	public int indexOfAny(int[] candidates) {
+		for (int key : candidates) {
+			int index = indexOf(key);
+			if (index != NOT_FOUND) {
+				return index;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	public boolean containsKey(int key) {
+		return indexOf(key) != NOT_FOUND;
+	}
+
+}
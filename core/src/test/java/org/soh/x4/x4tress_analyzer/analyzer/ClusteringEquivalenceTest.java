@@ -0,0 +1,211 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEvent;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.model.ShipInfo;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameLoader;
+import org.soh.x4.x4tress_analyzer.savegame.SyntheticSaveGame;
+
+/**
+ * Compares the optimized analysis with the {@link LinearClustering reference
+ * clustering} on synthetic savegames. The Processed Events, the event names
+ * and the renaming candidates must be the same.
+ *
+ * @author Son of Hubert
+ *
+ */
+class ClusteringEquivalenceTest {
+
+	private static File scatteredFile;
+
+	private static GlobalEventStore scattered;
+
+	private static GlobalEventStore dense;
+
+	@BeforeAll
+	static void loadSaveGames(@TempDir Path tempDir) throws Exception {
+		scatteredFile = tempDir.resolve("scattered.xml").toFile();
+		scattered = load(new SyntheticSaveGame(20000, 11), scatteredFile);
+
+		// Few sectors and long battles, so many Processed Events are open at once
+		SyntheticSaveGame denseSaveGame = new SyntheticSaveGame(20000, 12);
+		denseSaveGame.setSectors(2);
+		denseSaveGame.setBattleDensity(0.9);
+		dense = load(denseSaveGame, tempDir.resolve("dense.xml").toFile());
+	}
+
+	@Test
+	void gridMatchesLinearScan() {
+		for (GlobalEventStore store : List.of(scattered, dense)) {
+			EventAnalyzer reference = new EventAnalyzer();
+			reference.setClusteringStrategy(new LinearClustering());
+			assertSameAnalysis(new Analysis(reference, store), new Analysis(new EventAnalyzer(), store));
+		}
+	}
+
+	@Test
+	void retiredEventsMatchLinearScanWhenContinued() {
+		for (GlobalEventStore store : List.of(scattered, dense)) {
+			GlobalEventStore previousStore = firstHalf(store);
+			int previousSize = previousStore.size();
+
+			EventAnalyzer reference = new EventAnalyzer();
+			reference.setClusteringStrategy(new LinearClustering());
+			Analysis expected = new Analysis(reference, previousStore).continueWith(reference, store,
+					previousSize - 1);
+			Analysis actual = new Analysis(new EventAnalyzer(), previousStore).continueWith(new EventAnalyzer(),
+					store, previousSize - 1);
+			assertSameAnalysis(expected, actual);
+
+			// Continuing the previous analysis is the same as analyzing all at once
+			Analysis all = new Analysis(new EventAnalyzer(), store);
+			assertEquals(all.processedEvents.size(), actual.processedEvents.size(), "Number of Processed Events");
+			for (int i = 0; i < all.processedEvents.size(); i++) {
+				assertEquals(describe(all.processedEvents.get(i)), describe(actual.processedEvents.get(i)),
+						"Processed Event " + i);
+			}
+		}
+	}
+
+	@Test
+	void parallelMatchesSequentialAnalysis() {
+		// More workers than sectors of the dense savegame, fewer than of the
+		// scattered one
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (GlobalEventStore store : List.of(scattered, dense)) {
+				EventAnalyzer sequential = new EventAnalyzer();
+				sequential.setPool(null);
+				EventAnalyzer parallel = new EventAnalyzer();
+				parallel.setPool(pool);
+				assertSameAnalysis(new Analysis(sequential, store), new Analysis(parallel, store));
+
+				GlobalEventStore previousStore = firstHalf(store);
+				int previousSize = previousStore.size();
+				assertSameAnalysis(
+						new Analysis(sequential, previousStore).continueWith(sequential, store, previousSize - 1),
+						new Analysis(parallel, previousStore).continueWith(parallel, store, previousSize - 1));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void loaderWithGreedyStrategyMatchesLinearScan() throws Exception {
+		SaveGameLoader referenceLoader = new SaveGameLoader();
+		referenceLoader.setClusteringStrategy(new LinearClustering());
+		DataStorage expected = referenceLoader.loadFile(scatteredFile);
+
+		SaveGameLoader loader = new SaveGameLoader();
+		loader.setClusteringStrategy(ClusteringStrategy.greedy());
+		DataStorage actual = loader.loadFile(scatteredFile);
+
+		assertEquals(expected.getProcessedEvents().size(), actual.getProcessedEvents().size(),
+				"Number of Processed Events");
+		for (int i = 0; i < expected.getProcessedEvents().size(); i++) {
+			assertEquals(describe(expected.getProcessedEvents().get(i)), describe(actual.getProcessedEvents().get(i)),
+					"Processed Event " + i);
+		}
+		assertEquals(expected.getEventNames(), actual.getEventNames(), "Event names");
+		assertEquals(expected.getEligibleForRenaming(), actual.getEligibleForRenaming(), "Renaming candidates");
+	}
+
+	private static GlobalEventStore load(SyntheticSaveGame saveGame, File file) throws Exception {
+		saveGame.write(file);
+		return new SaveGameLoader().loadFile(file).getGlobalEventStore();
+	}
+
+	/**
+	 * Create the store of a previous savegame, holding the first half of the
+	 * Global Events
+	 */
+	private static GlobalEventStore firstHalf(GlobalEventStore store) {
+		GlobalEventStore previousStore = new GlobalEventStore(new StringDictionary(), store.size() / 2);
+		for (int event = 0; event < store.size() / 2; event++) {
+			previousStore.addCopy(store, event);
+		}
+		return previousStore;
+	}
+
+	private static void assertSameAnalysis(Analysis expected, Analysis actual) {
+		assertEquals(expected.processedEvents.size(), actual.processedEvents.size(), "Number of Processed Events");
+		for (int i = 0; i < expected.processedEvents.size(); i++) {
+			assertEquals(describe(expected.processedEvents.get(i)), describe(actual.processedEvents.get(i)),
+					"Processed Event " + i);
+		}
+		assertEquals(expected.eventNames, actual.eventNames, "Event names");
+		assertEquals(expected.eligibleForRenaming, actual.eligibleForRenaming, "Renaming candidates");
+	}
+
+	/**
+	 * Describe all values of a Processed Event that the analysis sets
+	 */
+	static String describe(ProcessedEvent pEvent) {
+		StringBuilder description = new StringBuilder();
+		description.append(pEvent.getSector()).append(' ').append(pEvent.getEventType()).append(' ')
+				.append(pEvent.getScale()).append(" events=").append(pEvent.getNumberOfEvents()).append(" time=")
+				.append(pEvent.getStartTimeMillis()).append('-').append(pEvent.getEndTimeMillis()).append(" center=")
+				.append(pEvent.getCenter() == null ? null
+						: pEvent.getCenter().getX() + "," + pEvent.getCenter().getY() + "," + pEvent.getCenter().getZ())
+				.append(" factions=").append(pEvent.getFactions()).append(" participants=")
+				.append(pEvent.getNumberOfParticipants());
+		for (ShipInfo participant : new TreeMap<>(pEvent.getParticipants()).values()) {
+			description.append(' ').append(participant.getShipId()).append('/').append(participant.getShipType())
+					.append('/').append(participant.getShipFaction()).append('/').append(participant.getNoOfKills());
+		}
+		description.append(" major=");
+		for (GlobalEvent majorEvent : pEvent.getMajorEvents()) {
+			description.append(' ').append(majorEvent.getIndex());
+		}
+		return description.toString();
+	}
+
+	/**
+	 * The result of an analysis of all Global Events of a store
+	 */
+	static class Analysis {
+
+		final List<ProcessedEvent> processedEvents;
+		final Map<String, Integer> eventNames = new HashMap<>();
+		final Map<String, List<String>> eligibleForRenaming = new HashMap<>();
+
+		Analysis(EventAnalyzer analyzer, GlobalEventStore store) {
+			processedEvents = new ArrayList<>(analyzer.processGlobalEvents(store, eventNames, eligibleForRenaming));
+		}
+
+		private Analysis(List<ProcessedEvent> processedEvents) {
+			this.processedEvents = processedEvents;
+		}
+
+		/**
+		 * Continue this analysis with the Global Events of a newer store
+		 */
+		Analysis continueWith(EventAnalyzer analyzer, GlobalEventStore store, int latestKnownEvent) {
+			Map<String, Integer> continuedEventNames = new HashMap<>(eventNames);
+			Map<String, List<String>> continuedEligibleForRenaming = new HashMap<>();
+			Analysis continued = new Analysis(analyzer.processNewGlobalEvents(store, processedEvents,
+					latestKnownEvent, continuedEventNames, continuedEligibleForRenaming));
+			continued.eventNames.putAll(continuedEventNames);
+			continued.eligibleForRenaming.putAll(continuedEligibleForRenaming);
+			return continued;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * Clustering a fixed set of Global Events with {@link DbscanClustering}
+ *
+ * @author Son of Hubert
+ *
+ */
+class DbscanClusteringTest {
+
+	@Test
+	void coresBordersAndNoise() {
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 9);
+		// Three core events, each one a neighbor of the other two
+		addEvent(store, 0, "core1", 0);
+		addEvent(store, 1000, "core2", 10000);
+		addEvent(store, 2000, "core3", 20000);
+		// Only a neighbor of the first core event
+		addEvent(store, 3000, "border", -95000);
+		// Too far from all other events
+		addEvent(store, 4000, "noise", 500000);
+		// A second group of core events
+		addEvent(store, 5000, "core4", 1000000);
+		addEvent(store, 6000, "core5", 1050000);
+		addEvent(store, 7000, "core6", 1090000);
+		// Close to the first group, but too late
+		addEvent(store, 7000 + EventAnalyzer.EVENT_MAX_TIME, "late", 0);
+
+		EventAnalyzer analyzer = new EventAnalyzer();
+		analyzer.setClusteringStrategy(ClusteringStrategy.dbscan(3));
+		List<ProcessedEvent> processedEvents = analyzer.processGlobalEvents(store, new HashMap<>(), new HashMap<>());
+
+		assertEquals(4, processedEvents.size());
+		assertCluster(processedEvents.get(0), 0, 3000, "core1", "core2", "core3", "border");
+		assertCluster(processedEvents.get(1), 4000, 4000, "noise");
+		assertCluster(processedEvents.get(2), 5000, 7000, "core4", "core5", "core6");
+		assertCluster(processedEvents.get(3), 7000 + EventAnalyzer.EVENT_MAX_TIME, 7000 + EventAnalyzer.EVENT_MAX_TIME,
+				"late");
+	}
+
+	@Test
+	void borderJoinsTheNearestCore() {
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 9);
+		addEvent(store, 0, "left1", -110000);
+		addEvent(store, 0, "left2", -105000);
+		addEvent(store, 0, "left3", -101000);
+		addEvent(store, 0, "left4", -95000);
+		addEvent(store, 0, "right1", 90000);
+		addEvent(store, 0, "right2", 101000);
+		addEvent(store, 0, "right3", 105000);
+		addEvent(store, 0, "right4", 110000);
+		// A neighbor of one core event of each group, nearer to the right one
+		addEvent(store, 0, "border", 0);
+
+		EventAnalyzer analyzer = new EventAnalyzer();
+		analyzer.setClusteringStrategy(ClusteringStrategy.dbscan(4));
+		List<ProcessedEvent> processedEvents = analyzer.processGlobalEvents(store, new HashMap<>(), new HashMap<>());
+
+		assertEquals(2, processedEvents.size());
+		assertCluster(processedEvents.get(0), 0, 0, "left1", "left2", "left3", "left4");
+		assertCluster(processedEvents.get(1), 0, 0, "right1", "right2", "right3", "right4", "border");
+	}
+
+	@Test
+	void shuffledInputGivesTheSameClusters() {
+		// Groups of events around a few centers, each event at its own time
+		Random random = new Random(5);
+		List<Long> timestamps = new ArrayList<>();
+		List<Double> positions = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			// A pause after every 50 events
+			timestamps.add(i * 7000L + random.nextInt(7000) + i / 50 * EventAnalyzer.EVENT_MAX_TIME);
+			positions.add(random.nextInt(4) * 400000.0 + random.nextGaussian() * 30000);
+		}
+		List<Integer> shuffled = new ArrayList<>();
+		for (int i = 0; i < timestamps.size(); i++) {
+			shuffled.add(i);
+		}
+		Collections.shuffle(shuffled, random);
+
+		GlobalEventStore ordered = new GlobalEventStore(new StringDictionary(), timestamps.size());
+		GlobalEventStore shuffledStore = new GlobalEventStore(new StringDictionary(), timestamps.size());
+		for (int i = 0; i < timestamps.size(); i++) {
+			addEvent(ordered, timestamps.get(i), "attacker" + i, positions.get(i));
+			int event = shuffled.get(i);
+			addEvent(shuffledStore, timestamps.get(event), "attacker" + event, positions.get(event));
+		}
+
+		List<String> expected = describe(ordered);
+		assertTrue(expected.size() > 4 && expected.size() < timestamps.size() / 4, expected.size() + " clusters");
+		assertEquals(expected, describe(shuffledStore));
+	}
+
+	private static List<String> describe(GlobalEventStore store) {
+		EventAnalyzer analyzer = new EventAnalyzer();
+		analyzer.setClusteringStrategy(ClusteringStrategy.dbscan(4));
+		List<String> descriptions = new ArrayList<>();
+		for (ProcessedEvent pEvent : analyzer.processGlobalEvents(store, new HashMap<>(), new HashMap<>())) {
+			descriptions.add(ClusteringEquivalenceTest.describe(pEvent));
+		}
+		return descriptions;
+	}
+
+	private static void assertCluster(ProcessedEvent pEvent, long startTime, long endTime, String... attackers) {
+		assertEquals(attackers.length, pEvent.getNumberOfEvents());
+		assertEquals(startTime, pEvent.getStartTimeMillis());
+		assertEquals(endTime, pEvent.getEndTimeMillis());
+		Set<String> expectedParticipants = new HashSet<>(List.of(attackers));
+		expectedParticipants.add("victim");
+		assertEquals(expectedParticipants, pEvent.getParticipants().keySet());
+	}
+
+	private static void addEvent(GlobalEventStore store, long timestamp, String attackerId, double x) {
+		int event = store.add();
+		store.setTimestampMillis(event, timestamp);
+		store.setEventType(event, "SoHAttacked");
+		store.setSector(event, "cluster_01_sector001_macro");
+		store.setAttackerId(event, attackerId);
+		store.setAttackedId(event, "victim");
+		store.setAttackedPos(event, new Position(x, 0.0, 0.0));
+	}
+}
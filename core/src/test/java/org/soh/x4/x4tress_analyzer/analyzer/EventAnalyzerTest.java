@@ -0,0 +1,123 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * Helpers of the {@link EventAnalyzer}
+ *
+ * @author Son of Hubert
+ *
+ */
+class EventAnalyzerTest {
+
+	@Test
+	void poolThreadsAreMeasured() {
+		assumeTrue(ThreadUsage.cpuNanos() >= 0 && ThreadUsage.allocatedBytes() >= 0,
+				"Thread CPU time and allocations are not available");
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 20000);
+		Random random = new Random(3);
+		for (int i = 0; i < 20000; i++) {
+			int event = store.add();
+			store.setTimestampMillis(event, i * 1000L);
+			store.setEventType(event, "SoHAttacked");
+			store.setSector(event, "sector" + (i % 16));
+			store.setAttackerId(event, "ship" + random.nextInt(500));
+			store.setAttackedId(event, "ship" + random.nextInt(500));
+			store.setAttackedPos(event, new Position(random.nextDouble() * 1e6, 0.0, random.nextDouble() * 1e6));
+		}
+
+		EventAnalyzer analyzer = new EventAnalyzer();
+		analyzer.setPool(null);
+		analyzer.processGlobalEvents(store, new HashMap<>(), new HashMap<>());
+		assertEquals(0, analyzer.getPooledCpuNanos());
+		assertEquals(0, analyzer.getPooledAllocatedBytes());
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			analyzer.setPool(pool);
+			analyzer.processGlobalEvents(store, new HashMap<>(), new HashMap<>());
+			assertTrue(analyzer.getPooledCpuNanos() > 0);
+			assertTrue(analyzer.getPooledAllocatedBytes() > 0);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void sortByTimeKeepsTheOrderOfEqualTimestamps() {
+		Random random = new Random(7);
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 1000);
+		for (int i = 0; i < 1000; i++) {
+			int event = store.add();
+			if (random.nextInt(20) != 0) {
+				// Few distinct timestamps, far apart
+				store.setTimestampMillis(event, random.nextInt(50) * 1_000_000_000_000L - 10_000_000_000_000L);
+			}
+		}
+		int[] events = new int[1010];
+		for (int i = 0; i < 1000; i++) {
+			events[i + 5] = 999 - i;
+		}
+		Integer[] expected = new Integer[1000];
+		for (int i = 0; i < 1000; i++) {
+			expected[i] = events[i + 5];
+		}
+		Arrays.sort(expected, Comparator.comparingLong(store::getTimestampMillis));
+
+		new EventAnalyzer().sortByTime(store, events, 5, 1005);
+
+		assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(),
+				Arrays.copyOfRange(events, 5, 1005));
+	}
+
+	@Test
+	void globalEventsWithoutTimestampDoNotJoinTimedEvents() {
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 3);
+		for (int i = 0; i < 3; i++) {
+			int event = store.add();
+			store.setEventType(event, "SoHAttacked");
+			store.setSector(event, "sector");
+			store.setAttackerId(event, "attacker");
+			store.setAttackedId(event, "attacked");
+			store.setAttackedPos(event, new Position(0.0, 0.0, 0.0));
+		}
+		// The second event has no timestamp
+		store.setTimestampMillis(0, 0L);
+		store.setTimestampMillis(2, 2 * EventAnalyzer.EVENT_MAX_TIME);
+
+		List<ProcessedEvent> finalized = new ArrayList<>();
+		StreamingEventAnalyzer analyzer = new StreamingEventAnalyzer(finalized::add);
+		analyzer.push(store, 0);
+		analyzer.push(store, 1);
+		analyzer.advanceTo(EventAnalyzer.EVENT_MAX_TIME);
+		// The timed Processed Event kept its end time and was retired
+		assertEquals(1, finalized.size());
+		assertEquals(0L, finalized.get(0).getEndTimeMillis());
+		assertEquals(1, finalized.get(0).getNumberOfEvents());
+
+		// The later timed event joins the Processed Event without an end time
+		analyzer.push(store, 2);
+		analyzer.finish();
+		assertEquals(2, finalized.size());
+		assertEquals(GlobalEventStore.NO_TIMESTAMP, finalized.get(1).getStartTimeMillis());
+		assertEquals(2 * EventAnalyzer.EVENT_MAX_TIME, finalized.get(1).getEndTimeMillis());
+		assertEquals(2, finalized.get(1).getNumberOfEvents());
+	}
+}
@@ -0,0 +1,145 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.soh.x4.x4tress_analyzer.model.GlobalEvent;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * Continuing the analysis of a previous savegame with
+ * {@link EventAnalyzer#processNewGlobalEvents(GlobalEventStore, List, int, java.util.Map, java.util.Map)}
+ *
+ * @author Son of Hubert
+ *
+ */
+class IncrementalAnalysisTest {
+
+	@Test
+	void factionsAreComparedWithTheCodesOfTheNewSavegame() {
+		// The first String of each dictionary gets the same code
+		StringDictionary previousDictionary = new StringDictionary();
+		previousDictionary.encode("argon");
+		GlobalEventStore previousStore = new GlobalEventStore(previousDictionary, 1);
+		addEvent(previousStore, 0, "a1", "argon", "b1", "argon");
+		List<ProcessedEvent> previous = analyze(previousStore);
+
+		StringDictionary dictionary = new StringDictionary();
+		dictionary.encode("xenon");
+		GlobalEventStore store = new GlobalEventStore(dictionary, 2);
+		addEvent(store, 0, "a1", "argon", "b1", "argon");
+		addEvent(store, 1000, "a2", "xenon", "b1", "argon");
+		List<ProcessedEvent> continued = new EventAnalyzer().processNewGlobalEvents(store, previous, 0,
+				new HashMap<>(), new HashMap<>());
+
+		assertEquals(1, continued.size());
+		assertEquals(List.of("argon", "xenon"), continued.get(0).getFactions());
+		assertEquals(2, continued.get(0).getNumberOfEvents());
+	}
+
+	@Test
+	void previousEventsAreNotChanged() {
+		GlobalEventStore previousStore = new GlobalEventStore(new StringDictionary(), 1);
+		addEvent(previousStore, 0, "a1", "argon", "b1", "teladi");
+		List<ProcessedEvent> previous = analyze(previousStore);
+		ProcessedEvent previousEvent = previous.get(0);
+		Position previousCenter = previousEvent.getCenter();
+
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 2);
+		addEvent(store, 0, "a1", "argon", "b1", "teladi");
+		addEvent(store, 1000, "a2", "xenon", "b1", "teladi");
+		store.setEventType(1, "SoHDestroyed");
+		List<ProcessedEvent> continued = new EventAnalyzer().processNewGlobalEvents(store, previous, 0,
+				new HashMap<>(), new HashMap<>());
+
+		assertNotSame(previousEvent, continued.get(0));
+		assertEquals(2, continued.get(0).getNumberOfEvents());
+		assertEquals(1000, continued.get(0).getEndTimeMillis());
+		assertEquals(1, continued.get(0).getParticipants().get("a2").getNoOfKills());
+
+		assertEquals(1, previousEvent.getNumberOfEvents());
+		assertEquals(0, previousEvent.getEndTimeMillis());
+		assertEquals(2, previousEvent.getNumberOfParticipants());
+		assertEquals(List.of("argon", "teladi"), previousEvent.getFactions());
+		assertEquals(0, previousEvent.getParticipants().get("a1").getNoOfKills());
+		assertEquals(100.0, previousCenter.getX());
+		assertEquals(100.0, previousEvent.getCenter().getX());
+	}
+
+	@Test
+	void newEventsOfTheLatestKnownMillisecondAreProcessed() {
+		GlobalEventStore previousStore = new GlobalEventStore(new StringDictionary(), 1);
+		addEvent(previousStore, 1000, "a1", "argon", "b1", "teladi");
+		List<ProcessedEvent> previous = analyze(previousStore);
+
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 3);
+		addEvent(store, 1000, "a1", "argon", "b1", "teladi");
+		addEvent(store, 1000, "a2", "argon", "b2", "teladi");
+		addEvent(store, 2000, "a3", "argon", "b3", "teladi");
+		List<ProcessedEvent> continued = new EventAnalyzer().processNewGlobalEvents(store, previous, 0,
+				new HashMap<>(), new HashMap<>());
+
+		assertEquals(1, continued.size());
+		assertEquals(3, continued.get(0).getNumberOfEvents());
+		assertEquals(6, continued.get(0).getNumberOfParticipants());
+	}
+
+	@Test
+	void majorEventsAreBoundToTheNewStore() {
+		GlobalEventStore previousStore = new GlobalEventStore(new StringDictionary(), 2);
+		addEvent(previousStore, 0, "a1", "argon", "c1", "teladi");
+		previousStore.setAttackedType(0, "carrier");
+		addEvent(previousStore, 1000, "a1", "argon", "c2", "teladi");
+		previousStore.setAttackedType(1, "carrier");
+		List<ProcessedEvent> previous = analyze(previousStore);
+		assertEquals(2, previous.get(0).getMajorEvents().size());
+
+		// The savegame no longer holds the oldest event
+		GlobalEventStore store = new GlobalEventStore(new StringDictionary(), 2);
+		addEvent(store, 1000, "a1", "argon", "c2", "teladi");
+		store.setAttackedType(0, "carrier");
+		addEvent(store, 2000, "a1", "argon", "c3", "teladi");
+		store.setAttackedType(1, "carrier");
+		List<ProcessedEvent> continued = new EventAnalyzer().processNewGlobalEvents(store, previous, 0,
+				new HashMap<>(), new HashMap<>());
+
+		List<GlobalEvent> majorEvents = continued.get(0).getMajorEvents();
+		assertEquals(3, majorEvents.size());
+		assertNotSame(previousStore, majorEvents.get(0).getStore());
+		assertNotSame(store, majorEvents.get(0).getStore());
+		assertEquals("c1", majorEvents.get(0).getAttackedId());
+		assertEquals(0, majorEvents.get(0).getTimestamp().getTime());
+		assertSame(store, majorEvents.get(1).getStore());
+		assertEquals(0, majorEvents.get(1).getIndex());
+		assertSame(store, majorEvents.get(2).getStore());
+		assertEquals(1, majorEvents.get(2).getIndex());
+		assertSame(previousStore, previous.get(0).getMajorEvents().get(1).getStore());
+	}
+
+	private static List<ProcessedEvent> analyze(GlobalEventStore store) {
+		return new EventAnalyzer().processGlobalEvents(store, new HashMap<>(), new HashMap<>());
+	}
+
+	private static void addEvent(GlobalEventStore store, long timestamp, String attackerId, String attackerFaction,
+			String attackedId, String attackedFaction) {
+		int event = store.add();
+		store.setTimestampMillis(event, timestamp);
+		store.setEventType(event, "SoHAttacked");
+		store.setSector(event, "cluster_01_sector001_macro");
+		store.setAttackerId(event, attackerId);
+		store.setAttackerType(event, "fighter");
+		store.setAttackerFaction(event, attackerFaction);
+		store.setAttackedId(event, attackedId);
+		store.setAttackedType(event, "fighter");
+		store.setAttackedFaction(event, attackedFaction);
+		store.setAttackedPos(event, new Position(100.0 + event, 0.0, 0.0));
+	}
+}
@@ -0,0 +1,55 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import java.util.List;
+
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.Position;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+/**
+ * The original clustering, as a reference for the optimized strategies: each
+ * Global Event is tested against every Processed Event of its sector in order
+ * of creation and joins the first one in time and in range.
+ *
+ * @author Son of Hubert
+ *
+ */
+class LinearClustering implements ClusteringStrategy {
+
+	@Override
+	public void cluster(EventAnalyzer analyzer, GlobalEventStore globalEvents, int[] sectorEvents, int from, int to,
+			List<ProcessedEvent> processedEvents) {
+		for (int i = from; i < to; i++) {
+			int sectorEvent = sectorEvents[i];
+			ProcessedEvent found = null;
+			for (ProcessedEvent pEvent : processedEvents) {
+				if (belongsToEvent(pEvent, globalEvents, sectorEvent)) {
+					found = pEvent;
+					break;
+				}
+			}
+			if (found != null) {
+				analyzer.addToEvent(found, globalEvents, sectorEvent);
+			} else if (globalEvents.hasAttackedPos(sectorEvent)) {
+				processedEvents.add(analyzer.createEvent(globalEvents, sectorEvent));
+			}
+		}
+	}
+
+	private static boolean belongsToEvent(ProcessedEvent pEvent, GlobalEventStore globalEvents, int gEvent) {
+		long endTime = pEvent.getEndTimeMillis();
+		long timestamp = globalEvents.getTimestampMillis(gEvent);
+		if (endTime != GlobalEventStore.NO_TIMESTAMP && (timestamp == GlobalEventStore.NO_TIMESTAMP
+				|| timestamp - endTime >= EventAnalyzer.EVENT_MAX_TIME)) {
+			return false;
+		}
+		Position center = pEvent.getCenter();
+		if (!globalEvents.hasAttackedPos(gEvent) || center == null) {
+			return false;
+		}
+		double distance = Math.sqrt(Math.pow(globalEvents.getAttackedX(gEvent) - center.getX(), 2)
+				+ Math.pow(globalEvents.getAttackedY(gEvent) - center.getY(), 2)
+				+ Math.pow(globalEvents.getAttackedZ(gEvent) - center.getZ(), 2));
+		return distance < EventAnalyzer.EVENT_MAX_RANGE;
+	}
+}
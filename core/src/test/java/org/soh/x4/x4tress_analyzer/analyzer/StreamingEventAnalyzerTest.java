@@ -0,0 +1,115 @@
+package org.soh.x4.x4tress_analyzer.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameLoader;
+import org.soh.x4.x4tress_analyzer.savegame.SyntheticSaveGame;
+
+/**
+ * Compares the {@link StreamingEventAnalyzer} with the analysis of all Global
+ * Events at once
+ *
+ * @author Son of Hubert
+ *
+ */
+class StreamingEventAnalyzerTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void streamingMatchesBatchAnalysis() throws Exception {
+		SyntheticSaveGame dense = new SyntheticSaveGame(10000, 14);
+		dense.setSectors(2);
+		dense.setBattleDensity(0.9);
+		for (SyntheticSaveGame saveGame : List.of(new SyntheticSaveGame(10000, 13), dense)) {
+			GlobalEventStore store = load(saveGame);
+			ClusteringEquivalenceTest.Analysis expected = new ClusteringEquivalenceTest.Analysis(new EventAnalyzer(),
+					store);
+
+			List<ProcessedEvent> finalized = new ArrayList<>();
+			StreamingEventAnalyzer analyzer = new StreamingEventAnalyzer(finalized::add);
+			int maxRetained = 0;
+			long latestTimestamp = 0;
+			for (int event : byTime(store)) {
+				analyzer.push(store, event);
+				maxRetained = Math.max(maxRetained, analyzer.getRetainedEvents());
+				latestTimestamp = store.getTimestampMillis(event);
+			}
+			// Only the open Processed Events are held, not all of them
+			assertTrue(maxRetained < expected.processedEvents.size() / 4,
+					maxRetained + " of " + expected.processedEvents.size() + " Processed Events retained");
+
+			int retained = analyzer.getRetainedEvents();
+			assertTrue(retained > 0);
+			analyzer.advanceTo(latestTimestamp + EventAnalyzer.EVENT_MAX_TIME);
+			assertEquals(0, analyzer.getRetainedEvents(), "Retained after all time windows closed");
+			analyzer.finish();
+
+			assertEquals(descriptions(expected.processedEvents), descriptions(finalized));
+			assertEquals(expected.eventNames, analyzer.getEventNames(), "Event names");
+			assertEquals(sorted(expected.eligibleForRenaming), sorted(analyzer.getEligibleForRenaming()),
+					"Renaming candidates");
+		}
+	}
+
+	private GlobalEventStore load(SyntheticSaveGame saveGame) throws Exception {
+		File file = tempDir.resolve("save.xml").toFile();
+		saveGame.write(file);
+		return new SaveGameLoader().loadFile(file).getGlobalEventStore();
+	}
+
+	/**
+	 * The Global Event indices in order of time, events at the same time in
+	 * order of index
+	 */
+	private static List<Integer> byTime(GlobalEventStore store) {
+		List<Integer> events = new ArrayList<>(store.size());
+		for (int event = 0; event < store.size(); event++) {
+			events.add(event);
+		}
+		events.sort(Comparator.comparingLong(store::getTimestampMillis));
+		return events;
+	}
+
+	/**
+	 * The descriptions of Processed Events, sorted. The streaming analysis hands
+	 * them out in order of their end.
+	 */
+	private static List<String> descriptions(List<ProcessedEvent> processedEvents) {
+		List<String> descriptions = new ArrayList<>();
+		for (ProcessedEvent pEvent : processedEvents) {
+			descriptions.add(ClusteringEquivalenceTest.describe(pEvent));
+		}
+		Collections.sort(descriptions);
+		return descriptions;
+	}
+
+	/**
+	 * The renaming candidates with their names sorted, they are collected in the
+	 * order the Processed Events are final
+	 */
+	private static Map<String, List<String>> sorted(Map<String, List<String>> eligibleForRenaming) {
+		Map<String, List<String>> sorted = new HashMap<>();
+		for (Map.Entry<String, List<String>> candidate : eligibleForRenaming.entrySet()) {
+			List<String> names = new ArrayList<>(candidate.getValue());
+			Collections.sort(names);
+			sorted.put(candidate.getKey(), names);
+		}
+		return sorted;
+	}
+}
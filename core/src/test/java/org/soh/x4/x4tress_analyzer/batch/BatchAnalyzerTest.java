@@ -0,0 +1,116 @@
+package org.soh.x4.x4tress_analyzer.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameLoader;
+import org.soh.x4.x4tress_analyzer.savegame.SyntheticSaveGame;
+
+/**
+ * Analyzing a directory of savegames with the {@link BatchAnalyzer}
+ *
+ * @author Son of Hubert
+ *
+ */
+class BatchAnalyzerTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Path saves;
+
+	private File first;
+
+	private File second;
+
+	@BeforeEach
+	void writeSaveGames() throws IOException {
+		saves = Files.createDirectory(tempDir.resolve("saves"));
+		first = saves.resolve("first.xml").toFile();
+		new SyntheticSaveGame(1000, 21).write(first);
+		second = saves.resolve("second.xml.gz").toFile();
+		new SyntheticSaveGame(1500, 22).write(second);
+		Files.write(saves.resolve("notes.txt"), "not a savegame".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void savegamesOfADirectoryAreFound() throws IOException {
+		assertEquals(List.of(first, second), BatchAnalyzer.findSaveGames(List.of(saves.toString())));
+		assertEquals(List.of(second), BatchAnalyzer.findSaveGames(List.of(saves + "/*.gz")));
+		// Savegames given twice are analyzed once
+		assertEquals(List.of(first, second),
+				BatchAnalyzer.findSaveGames(List.of(first.getPath(), saves.toString())));
+	}
+
+	@Test
+	void eachSavegameIsReported() throws Exception {
+		File output = tempDir.resolve("reports").toFile();
+		BatchAnalyzer batchAnalyzer = new BatchAnalyzer(output, 2, false);
+		assertEquals(0, batchAnalyzer.analyze(BatchAnalyzer.findSaveGames(List.of(saves.toString()))));
+
+		for (File saveGame : List.of(first, second)) {
+			DataStorage expected = new SaveGameLoader().loadFile(saveGame);
+			String name = saveGame.getName().replaceFirst("(\\.xml)?(\\.gz)?$", "");
+			List<String> report = Files.readAllLines(new File(output, name + ".report.txt").toPath());
+			assertTrue(report.contains("Global Events: " + expected.getGlobalEventStore().size()), name);
+			assertTrue(report.contains("Processed Events: " + expected.getProcessedEvents().size()), name);
+			// The section has a header line and ends with an empty line
+			int eventLines = report.indexOf("[Event Names]") - report.indexOf("[Processed Events]") - 3;
+			assertEquals(expected.getProcessedEvents().size(), eventLines, name);
+		}
+
+		List<String> summary = Files.readAllLines(new File(output, "summary.txt").toPath());
+		assertEquals(3, summary.size());
+		assertTrue(summary.get(1).startsWith(first.getPath() + "\tok\t1000\t"), summary.get(1));
+		assertTrue(summary.get(2).startsWith(second.getPath() + "\tok\t1500\t"), summary.get(2));
+	}
+
+	@Test
+	void scopedReportsMatch() throws Exception {
+		File output = tempDir.resolve("reports").toFile();
+		new BatchAnalyzer(output, 1, false).analyze(List.of(first, second));
+		File scopedOutput = tempDir.resolve("scoped").toFile();
+		new BatchAnalyzer(scopedOutput, 1, true).analyze(List.of(first, second));
+
+		for (String report : List.of("first.report.txt", "second.report.txt")) {
+			assertEquals(analysis(new File(output, report)), analysis(new File(scopedOutput, report)), report);
+		}
+	}
+
+	@Test
+	void failedSavegamesDoNotStopTheBatch() throws Exception {
+		File broken = saves.resolve("broken.xml").toFile();
+		Files.write(broken.toPath(), "<?xml version=\"1.0\"?>\n<savegame><universe>".getBytes(StandardCharsets.UTF_8));
+		File output = tempDir.resolve("reports").toFile();
+
+		assertEquals(1, new BatchAnalyzer(output, 2, false).analyze(List.of(first, broken, second)));
+
+		List<String> summary = Files.readAllLines(new File(output, "summary.txt").toPath());
+		assertEquals(4, summary.size());
+		assertTrue(summary.get(1).contains("\tok\t"), summary.get(1));
+		assertTrue(summary.get(2).startsWith(broken.getPath() + "\tfailed: "), summary.get(2));
+		assertTrue(summary.get(3).contains("\tok\t"), summary.get(3));
+		assertTrue(new File(output, "first.report.txt").isFile());
+		assertTrue(new File(output, "second.report.txt").isFile());
+	}
+
+	/**
+	 * The sections of a report from the Processed Events on, without the load
+	 * figures
+	 */
+	private static List<String> analysis(File report) throws IOException {
+		List<String> lines = Files.readAllLines(report.toPath());
+		return lines.subList(lines.indexOf("[Processed Events]"), lines.size());
+	}
+}
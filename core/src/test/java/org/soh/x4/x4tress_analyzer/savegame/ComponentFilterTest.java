@@ -0,0 +1,137 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.soh.x4.x4tress_analyzer.model.Component;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+
+/**
+ * Capturing components through a {@link ComponentFilter}
+ *
+ * @author Son of Hubert
+ *
+ */
+class ComponentFilterTest {
+
+	private static final String SAVEGAME = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<savegame>\n"
+			+ "<info><player name=\"Son of Hubert\"/></info>\n<universe>\n"
+			+ "<component class=\"galaxy\" code=\"GAL-001\"><connections>\n"
+			+ "<connection><component class=\"sector\" code=\"SEC-001\" owner=\"argon\"><connections>\n"
+			+ "<connection><component class=\"ship_s\" code=\"ABC-001\" owner=\"player\"/></connection>\n"
+			+ "<connection><component class=\"ship_xl\" code=\"ABC-002\" owner=\"argon\"/></connection>\n"
+			+ "<connection><component class=\"station\" code=\"XYZ-001\" owner=\"argon\"/></connection>\n"
+			+ "<connection><component class=\"ship_m\" owner=\"player\"/></connection>\n"
+			+ "<connection><component class=\"ship_m\" code=\"DEF-003\" owner=\"teladi\"/></connection>\n"
+			+ "</connections></component></connection>\n</connections></component>\n</universe>\n"
+			+ "<md><cue name=\"Globals\"><value name=\"$SoHGlobalEvents\" type=\"list\" value=\"1\"/></cue>\n"
+			+ "<refs type=\"string\"></refs><refs type=\"list\"><ref id=\"1\"></ref></refs>"
+			+ "<refs type=\"table\"></refs><refs type=\"vector\"></refs></md>\n</savegame>\n";
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void shipsAndStationsByDefault() throws Exception {
+		assertEquals(List.of("ABC-001", "ABC-002", "XYZ-001", "DEF-003"), capture(ComponentFilter.shipsAndStations()));
+	}
+
+	@Test
+	void noCriteriaCaptureEverythingWithClassAndCode() throws Exception {
+		assertEquals(List.of("GAL-001", "SEC-001", "ABC-001", "ABC-002", "XYZ-001", "DEF-003"),
+				capture(new ComponentFilter()));
+	}
+
+	@Test
+	void allCriteriaMustMatch() throws Exception {
+		ComponentFilter playerShips = new ComponentFilter();
+		playerShips.setClasses(List.of("ship"));
+		playerShips.setOwners(List.of("player"));
+		assertEquals(List.of("ABC-001"), capture(playerShips));
+
+		ComponentFilter foreignShips = new ComponentFilter();
+		foreignShips.setClasses(List.of("ship"));
+		foreignShips.setOwners(List.of("argon", "teladi"));
+		assertEquals(List.of("ABC-002", "DEF-003"), capture(foreignShips));
+
+		ComponentFilter codes = ComponentFilter.shipsAndStations();
+		codes.setCodePrefixes(List.of("ABC", "XYZ"));
+		assertEquals(List.of("ABC-001", "ABC-002", "XYZ-001"), capture(codes));
+
+		ComponentFilter nothing = new ComponentFilter();
+		nothing.setOwners(List.of("xenon"));
+		assertEquals(List.of(), capture(nothing));
+	}
+
+	@Test
+	void referencedOnlyKeepsTheParticipants() throws Exception {
+		File file = tempDir.resolve("save.xml").toFile();
+		SyntheticSaveGame saveGame = new SyntheticSaveGame(300, 9);
+		saveGame.setShips(500);
+		saveGame.write(file);
+		DataStorage all = new SaveGameLoader().loadFile(file);
+
+		SaveGameLoader loader = new SaveGameLoader();
+		ComponentFilter filter = ComponentFilter.shipsAndStations();
+		filter.setReferencedOnly(true);
+		loader.setComponentFilter(filter);
+		DataStorage referenced = loader.loadFile(file);
+
+		Set<String> participants = new HashSet<>();
+		GlobalEventStore globalEvents = all.getGlobalEventStore();
+		for (int event = 0; event < globalEvents.size(); event++) {
+			participants.add(globalEvents.getAttackerId(event));
+			participants.add(globalEvents.getAttackedId(event));
+		}
+		List<String> expected = new ArrayList<>();
+		for (Component component : all.getObjectList()) {
+			if (participants.contains(component.getObjectCode())) {
+				expected.add(component.getObjectCode());
+			}
+		}
+		assertTrue(expected.size() < all.getObjectList().size(), "All ships take part in Global Events");
+		assertEquals(expected, codes(referenced.getObjectList()));
+	}
+
+	/**
+	 * Read the savegame with both readers and return the codes of the captured
+	 * components
+	 */
+	private List<String> capture(ComponentFilter filter) throws Exception {
+		File file = tempDir.resolve("components.xml").toFile();
+		Files.write(file.toPath(), SAVEGAME.getBytes(StandardCharsets.UTF_8));
+
+		SaveGameHandler handler = new SaveGameHandler(null, LoadMonitor.NONE, filter);
+		try (InputStream in = new FileInputStream(file)) {
+			new StaxSaveGameReader().read(in, handler);
+		}
+		List<String> captured = codes(handler.getData().getObjectList());
+
+		handler = new SaveGameHandler(null, LoadMonitor.NONE, filter);
+		new MappedSaveGameScanner().read(file, handler);
+		assertEquals(captured, codes(handler.getData().getObjectList()), "Mapped scanner");
+		return captured;
+	}
+
+	private static List<String> codes(List<Component> components) {
+		List<String> codes = new ArrayList<>();
+		for (Component component : components) {
+			codes.add(component.getObjectCode());
+		}
+		return codes;
+	}
+}
@@ -0,0 +1,108 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the {@link FastDoubleParser} with {@link Double#parseDouble(String)}
+ * bit for bit, on fixed edge cases and on seeded random numbers of all shapes.
+ *
+ * @author Son of Hubert
+ *
+ */
+class FastDoubleParserTest {
+
+	private static final long SEED = 42;
+
+	private static final int FUZZ_VALUES = 500_000;
+
+	private static final String[] EDGE_CASES = { "0", "-0", "0.0", "-0.0", "+1", "1", "1.", ".5", "-.5", "00012.5000",
+			"1e0", "1E10", "1e+10", "1e-10", "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324",
+			"2.2250738585072011e-308", "2.2250738585072014e-308", "1.7976931348623157e308", "1.7976931348623159e308",
+			"1e309", "1e-400", "9007199254740993", "9007199254740992.5", "123456789012345678901234567890",
+			"0.1000000000000000055511151231257827", "3.141592653589793", "-212345.678", "1e100000", "1e-100000" };
+
+	private static final String[] INVALID = { "", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1x", "--1" };
+
+	@Test
+	void edgeCasesMatchParseDouble() {
+		for (String text : EDGE_CASES) {
+			check(text);
+		}
+	}
+
+	@Test
+	void randomNumbersMatchParseDouble() {
+		Random random = new Random(SEED);
+		for (int i = 0; i < FUZZ_VALUES; i++) {
+			check(randomNumber(random, i));
+		}
+	}
+
+	@Test
+	void invalidNumbersAreRejected() {
+		for (String text : INVALID) {
+			byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+			assertThrows(NumberFormatException.class, () -> FastDoubleParser.parseDouble(text), text);
+			assertThrows(NumberFormatException.class,
+					() -> FastDoubleParser.parseDouble(ByteBuffer.wrap(bytes), 0, bytes.length), text);
+		}
+	}
+
+	private static String randomNumber(Random random, int i) {
+		switch (i % 5) {
+		case 0:
+			// Any double, including subnormals and extreme exponents
+			return Double.toString(Double.longBitsToDouble(random.nextLong()));
+		case 1:
+			// Coordinates as written by the game
+			return String.format(Locale.ROOT, "%." + random.nextInt(17) + "f", (random.nextDouble() - 0.5) * 400000);
+		case 2:
+			return randomDigits(random);
+		case 3:
+			return Float.toString(Float.intBitsToFloat(random.nextInt()));
+		default:
+			// Exactly representable significands with small exponents
+			return (random.nextLong() & ((1L << 53) - 1)) + "e" + (random.nextInt(40) - 20);
+		}
+	}
+
+	private static String randomDigits(Random random) {
+		StringBuilder text = new StringBuilder();
+		if (random.nextBoolean()) {
+			text.append('-');
+		}
+		int digits = 1 + random.nextInt(25);
+		for (int i = 0; i < digits; i++) {
+			text.append((char) ('0' + random.nextInt(10)));
+		}
+		if (random.nextBoolean()) {
+			text.insert(text.length() - random.nextInt(digits), '.');
+		}
+		if (random.nextInt(3) == 0) {
+			text.append('e').append(random.nextInt(700) - 350);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Parse a number with both overloads, the bytes embedded in other text like
+	 * in a savegame, and compare the bits with Double.parseDouble
+	 */
+	private static void check(String text) {
+		long expected = Double.doubleToRawLongBits(Double.parseDouble(text));
+		assertEquals(expected, Double.doubleToRawLongBits(FastDoubleParser.parseDouble(text)), "String " + text);
+
+		byte[] bytes = ("x=\"" + text + "\"").getBytes(StandardCharsets.US_ASCII);
+		assertEquals(expected,
+				Double.doubleToRawLongBits(FastDoubleParser.parseDouble(ByteBuffer.wrap(bytes), 3, bytes.length - 1)),
+				"ByteBuffer " + text);
+	}
+}
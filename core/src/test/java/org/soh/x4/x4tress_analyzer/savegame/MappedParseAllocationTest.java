@@ -0,0 +1,66 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Guards the allocation rate of parsing an uncompressed savegame with the
+ * {@link MappedSaveGameScanner}. Skipped elements must not create Strings, and
+ * retained values are stored as primitives, so the parse allocates far less
+ * than one small object per element.<br>
+ * Compressed savegames are read by the {@link StaxSaveGameReader}, which
+ * creates a String per attribute value and is not covered by the budget.
+ *
+ * @author Son of Hubert
+ *
+ */
+class MappedParseAllocationTest {
+
+	/**
+	 * The budget of allocated bytes per parsed element, including the retained
+	 * refs of the Global Events
+	 */
+	private static final double BYTES_PER_ELEMENT_BUDGET = 40.0;
+
+	private static final int EVENTS = 20000;
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void mappedParseStaysWithinAllocationBudget() throws IOException {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+				"Thread allocation counters are not available");
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+				"Thread allocation counters are not enabled");
+
+		File file = tempDir.resolve("synthetic.xml").toFile();
+		new SyntheticSaveGame(EVENTS, 1).write(file);
+
+		// The first parse loads and initializes the classes
+		parse(file);
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		SaveGameHandler handler = parse(file);
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+		double bytesPerElement = (double) allocated / handler.getElementCount();
+		assertTrue(bytesPerElement <= BYTES_PER_ELEMENT_BUDGET, "Parsing " + handler.getElementCount()
+				+ " elements allocated " + allocated + " bytes, " + bytesPerElement + " bytes per element");
+	}
+
+	private static SaveGameHandler parse(File file) throws IOException {
+		SaveGameHandler handler = new SaveGameHandler();
+		new MappedSaveGameScanner().read(file, handler);
+		return handler;
+	}
+}
@@ -0,0 +1,79 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Decoding of attribute values by the {@link MappedSaveGameScanner}
+ *
+ * @author Son of Hubert
+ *
+ */
+class MappedSaveGameScannerTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void entitiesAreResolved() throws IOException {
+		assertEquals("<a & b> \"c\" 'd' & é 🚀", decode("&lt;a &amp; b&gt; &quot;c&quot; &apos;d&apos; "
+				+ "&#38; &#xe9; &#x1F680;"));
+	}
+
+	@Test
+	void invalidCharacterReferencesAreKept() throws IOException {
+		assertEquals("a&#x110000;b", decode("a&#x110000;b"));
+		assertEquals("&#99999999999;", decode("&#99999999999;"));
+		assertEquals("&#12a;&#x;&#;", decode("&#12a;&#x;&#;"));
+		assertEquals("&unknown;", decode("&unknown;"));
+	}
+
+	@Test
+	void whitespaceIsNormalized() throws IOException {
+		assertEquals("a b c  d", decode("a\tb\nc\r\n\rd"));
+	}
+
+	/**
+	 * Scan a savegame with a single element and return the decoded value of its
+	 * attribute
+	 */
+	private String decode(String value) throws IOException {
+		File file = tempDir.resolve("entities.xml").toFile();
+		Files.write(file.toPath(), ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<savegame><test value=\"" + value
+				+ "\"/></savegame>\n").getBytes(StandardCharsets.UTF_8));
+		List<String> values = new ArrayList<>();
+		new MappedSaveGameScanner().read(file, new SaveGameElementHandler() {
+			@Override
+			public List<String> getHandledTags() {
+				return Collections.singletonList("test");
+			}
+
+			@Override
+			public void startElement(String qName, ElementAttributes attr) {
+				values.add(attr.getValue("value"));
+			}
+
+			@Override
+			public void endElement(String qName) {
+			}
+
+			@Override
+			public boolean isComplete() {
+				return false;
+			}
+		});
+		assertEquals(1, values.size());
+		return values.get(0);
+	}
+}
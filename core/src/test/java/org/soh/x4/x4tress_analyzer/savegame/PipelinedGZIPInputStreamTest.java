@@ -0,0 +1,244 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Inflating with the {@link PipelinedGZIPInputStream}, compared with
+ * {@link GZIPInputStream}
+ *
+ * @author Son of Hubert
+ *
+ */
+class PipelinedGZIPInputStreamTest {
+
+	/*
+	 * Small buffers, so the data passes the ring many times
+	 */
+	private static final int BUFFER_SIZE = 4096;
+	private static final int BUFFER_COUNT = 2;
+
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	@Test
+	void singleMember() throws IOException {
+		byte[] data = data(1_000_000, 1);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(data);
+		}
+		assertArrayEquals(data, assertSameAsGZIPInputStream(compressed.toByteArray()));
+	}
+
+	@Test
+	void multipleMembers() throws IOException {
+		byte[] first = data(100_000, 2);
+		byte[] second = data(30_000, 3);
+		byte[] compressed = concat(member(first, 0), member(new byte[0], 0), member(second, 0));
+		assertArrayEquals(concat(first, second), assertSameAsGZIPInputStream(compressed));
+	}
+
+	@Test
+	void optionalHeaderFields() throws IOException {
+		byte[] data = data(50_000, 4);
+		for (int flags : new int[] { FNAME, FEXTRA, FCOMMENT, FHCRC, FNAME | FEXTRA | FCOMMENT | FHCRC }) {
+			assertArrayEquals(data, assertSameAsGZIPInputStream(member(data, flags)), "Flags " + flags);
+		}
+	}
+
+	@Test
+	void trailingGarbageIsIgnored() throws IOException {
+		byte[] data = data(20_000, 5);
+		byte[] compressed = concat(member(data, 0), "garbage".getBytes(StandardCharsets.US_ASCII));
+		assertArrayEquals(data, assertSameAsGZIPInputStream(compressed));
+	}
+
+	@Test
+	void corruptMembersFail() throws IOException {
+		byte[] compressed = member(data(20_000, 6), FHCRC);
+
+		byte[] corruptCrc = compressed.clone();
+		corruptCrc[corruptCrc.length - 8] ^= 1;
+		assertBothFail(corruptCrc);
+
+		byte[] corruptSize = compressed.clone();
+		corruptSize[corruptSize.length - 4] ^= 1;
+		assertBothFail(corruptSize);
+
+		byte[] corruptHeaderCrc = compressed.clone();
+		corruptHeaderCrc[10] ^= 1;
+		assertBothFail(corruptHeaderCrc);
+
+		assertBothFail(Arrays.copyOf(compressed, compressed.length - 3));
+		assertBothFail(Arrays.copyOf(compressed, compressed.length / 2));
+		assertBothFail(Arrays.copyOf(compressed, 6));
+		assertBothFail("not gzip".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	void closeStopsTheInflaterThread() throws IOException {
+		byte[] data = data(1_000_000, 7);
+		PipelinedGZIPInputStream in = new PipelinedGZIPInputStream(new ByteArrayInputStream(member(data, 0)),
+				BUFFER_SIZE, BUFFER_COUNT);
+		byte[] start = new byte[10_000];
+		assertEquals(start.length, in.readNBytes(start, 0, start.length));
+		assertArrayEquals(Arrays.copyOf(data, start.length), start);
+
+		in.close();
+		assertNotNull(in.getInflateStage(), "The inflater thread did not end");
+		assertFalse(in.getUncompressedBytes() >= data.length, "The inflater thread did not stop early");
+		assertThrows(IOException.class, in::read);
+	}
+
+	/**
+	 * Inflate with both streams and assert that they return the same bytes
+	 *
+	 * @return the inflated bytes
+	 */
+	private static byte[] assertSameAsGZIPInputStream(byte[] compressed) throws IOException {
+		byte[] expected;
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			expected = readAll(in);
+		}
+		try (PipelinedGZIPInputStream in = new PipelinedGZIPInputStream(new ByteArrayInputStream(compressed),
+				BUFFER_SIZE, BUFFER_COUNT)) {
+			assertArrayEquals(expected, readAll(in));
+			assertEquals(compressed.length, in.getCompressedBytes());
+		}
+		return expected;
+	}
+
+	private static void assertBothFail(byte[] compressed) {
+		assertThrows(IOException.class, () -> {
+			try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+				readAll(in);
+			}
+		}, "GZIPInputStream");
+		assertThrows(IOException.class, () -> {
+			try (InputStream in = new PipelinedGZIPInputStream(new ByteArrayInputStream(compressed), BUFFER_SIZE,
+					BUFFER_COUNT)) {
+				readAll(in);
+			}
+		}, "PipelinedGZIPInputStream");
+	}
+
+	/**
+	 * Read a stream to its end, alternating single bytes and chunks of varying
+	 * length
+	 */
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] chunk = new byte[7000];
+		int length = 1;
+		while (true) {
+			int b = in.read();
+			if (b < 0) {
+				break;
+			}
+			out.write(b);
+			int count = in.read(chunk, 0, length);
+			if (count < 0) {
+				break;
+			}
+			out.write(chunk, 0, count);
+			length = length * 3 % chunk.length + 1;
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Compressible test data: words from a small vocabulary
+	 */
+	private static byte[] data(int length, long seed) {
+		Random random = new Random(seed);
+		String[] words = { "<component ", "class=\"ship_s\" ", "code=\"ABC-123\" ", "owner=\"argon\"", "/>\n" };
+		ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+		while (out.size() < length) {
+			byte[] word = words[random.nextInt(words.length)].getBytes(StandardCharsets.US_ASCII);
+			out.write(word, 0, Math.min(word.length, length - out.size()));
+			if (random.nextInt(10) == 0) {
+				out.write(random.nextInt(256));
+			}
+		}
+		return Arrays.copyOf(out.toByteArray(), length);
+	}
+
+	/**
+	 * Build a gzip member with the given optional header fields
+	 */
+	private static byte[] member(byte[] data, int flags) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(0x1f);
+		out.write(0x8b);
+		out.write(Deflater.DEFLATED);
+		out.write(flags);
+		// MTIME, XFL and OS
+		out.writeBytes(new byte[] { 1, 2, 3, 4, 0, 3 });
+		if ((flags & FEXTRA) != 0) {
+			byte[] extra = { 'A', 'B', 3, 0, 'x', 'y', 'z' };
+			out.write(extra.length);
+			out.write(0);
+			out.writeBytes(extra);
+		}
+		if ((flags & FNAME) != 0) {
+			out.writeBytes("save.xml\0".getBytes(StandardCharsets.ISO_8859_1));
+		}
+		if ((flags & FCOMMENT) != 0) {
+			out.writeBytes("a comment\0".getBytes(StandardCharsets.ISO_8859_1));
+		}
+		if ((flags & FHCRC) != 0) {
+			CRC32 headerCrc = new CRC32();
+			headerCrc.update(out.toByteArray());
+			writeLittleEndian(out, headerCrc.getValue(), 2);
+		}
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(data);
+		deflater.finish();
+		byte[] buffer = new byte[8192];
+		while (!deflater.finished()) {
+			out.write(buffer, 0, deflater.deflate(buffer));
+		}
+		deflater.end();
+
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		writeLittleEndian(out, crc.getValue(), 4);
+		writeLittleEndian(out, data.length, 4);
+		return out.toByteArray();
+	}
+
+	private static void writeLittleEndian(ByteArrayOutputStream out, long value, int bytes) {
+		for (int i = 0; i < bytes; i++) {
+			out.write((int) (value >>> (8 * i)) & 0xff);
+		}
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.writeBytes(part);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,78 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Capturing only the refs reachable from root globals with the
+ * {@link RefGraphHandler} and its {@link RefScope}
+ *
+ * @author Son of Hubert
+ *
+ */
+class RefGraphHandlerTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void onlyReachableRefsAreRetained() throws Exception {
+		String saveGame = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<savegame>\n<md>\n"
+				+ "<cue name=\"Root\"><value name=\"$Root\" type=\"list\" value=\"1\"/></cue>\n"
+				+ "<cue name=\"Other\"><value name=\"$Other\" type=\"list\" value=\"6\"/></cue>\n"
+				+ "<refs type=\"string\"><ref id=\"3\" string=\"key\"/><ref id=\"4\" string=\"value\"/>"
+				+ "<ref id=\"7\" string=\"other\"/><ref id=\"8\" string=\"nested\"/></refs>\n"
+				+ "<refs type=\"list\">"
+				+ "<ref id=\"1\"><value type=\"table\" value=\"2\"/><value type=\"time\" value=\"12.5\"/></ref>"
+				+ "<ref id=\"6\"><value type=\"string\" value=\"7\"/></ref>"
+				// Only referenced by a table further down
+				+ "<ref id=\"9\"><value type=\"string\" value=\"8\"/></ref></refs>\n"
+				+ "<refs type=\"table\"><ref id=\"2\">"
+				+ "<key type=\"string\" value=\"3\"/><value type=\"string\" value=\"4\"/>"
+				+ "<key type=\"string\" value=\"3\"/><value type=\"position\" value=\"5\"/>"
+				+ "<key type=\"string\" value=\"3\"/><value type=\"list\" value=\"9\"/></ref></refs>\n"
+				+ "<refs type=\"vector\"><ref id=\"5\" x=\"1\" y=\"2\" z=\"3\"/><ref id=\"10\" x=\"1\" y=\"2\" z=\"3\"/>"
+				+ "</refs>\n</md>\n</savegame>\n";
+		RefGraphHandler handler = new RefGraphHandler(Set.of("$Root"));
+		new StaxSaveGameReader().read(new ByteArrayInputStream(saveGame.getBytes(StandardCharsets.UTF_8)), handler);
+		RefScope scope = handler.createScope();
+
+		assertTrue(scope.isRetained("list", 1));
+		assertTrue(scope.isRetained("table", 2));
+		assertTrue(scope.isRetained("string", 3));
+		assertTrue(scope.isRetained("string", 4));
+		assertTrue(scope.isRetained("vector", 5));
+		assertTrue(scope.isRetained("list", 9));
+		assertTrue(scope.isRetained("string", 8));
+		assertFalse(scope.isRetained("list", 6));
+		assertFalse(scope.isRetained("string", 7));
+		assertFalse(scope.isRetained("vector", 10));
+		// Ids of one type do not retain refs of another type
+		assertFalse(scope.isRetained("table", 1));
+		assertFalse(scope.isRetained("string", 1));
+		assertEquals(7, scope.size());
+	}
+
+	@Test
+	void scopedLoadMatchesFullLoad() throws Exception {
+		for (String name : new String[] { "save.xml", "save.xml.gz" }) {
+			File file = tempDir.resolve(name).toFile();
+			new SyntheticSaveGame(2000, 8).write(file);
+
+			SaveGameLoader fullLoader = new SaveGameLoader();
+			SaveGameLoader scopedLoader = new SaveGameLoader();
+			scopedLoader.setScopeRootGlobals(Set.of());
+			SaveGameHandlerTest.assertSameData(fullLoader.loadFile(file), scopedLoader.loadFile(file));
+		}
+	}
+}
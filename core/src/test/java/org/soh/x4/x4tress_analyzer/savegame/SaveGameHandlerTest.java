@@ -0,0 +1,171 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.soh.x4.x4tress_analyzer.model.Component;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+
+/**
+ * Stopping early with the {@link SaveGameHandler} once everything was captured
+ *
+ * @author Son of Hubert
+ *
+ */
+class SaveGameHandlerTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void earlyStopReadsTheSameAsFullRead() throws Exception {
+		File file = tempDir.resolve("save.xml").toFile();
+		new SyntheticSaveGame(2000, 5).write(file);
+
+		SaveGameHandler full = new SaveGameHandler();
+		try (InputStream in = new FileInputStream(file)) {
+			assertFalse(new StaxSaveGameReader().read(in, new NeverComplete(full)));
+		}
+		DataStorage expected = full.getData();
+
+		SaveGameHandler stax = new SaveGameHandler();
+		try (InputStream in = new FileInputStream(file)) {
+			assertTrue(new StaxSaveGameReader().read(in, stax), "StAX reader did not stop early");
+		}
+		assertSameData(expected, stax.getData());
+
+		SaveGameHandler mapped = new SaveGameHandler();
+		assertTrue(new MappedSaveGameScanner().read(file, mapped), "Mapped scanner did not stop early");
+		assertSameData(expected, mapped.getData());
+	}
+
+	@Test
+	void sectionsAfterTheRefsAreRead() throws Exception {
+		String saveGame = write(new SyntheticSaveGame(500, 6));
+		String info = section(saveGame, "info");
+		String universe = section(saveGame, "universe");
+		String infoLast = saveGame.replace(info, "").replace("</savegame>", info + "</savegame>");
+		String universeLast = saveGame.replace(info, "").replace(universe, "").replace("</savegame>",
+				universe + info + "</savegame>");
+
+		DataStorage expected = readFully(saveGame);
+		assertSameData(expected, read(infoLast));
+		assertSameData(expected, read(universeLast));
+	}
+
+	/**
+	 * Assert that two savegame reads captured the same player, components and
+	 * Global Events
+	 */
+	static void assertSameData(DataStorage expected, DataStorage actual) {
+		assertEquals(expected.getPlayerName(), actual.getPlayerName(), "Player name");
+		List<Component> expectedComponents = expected.getObjectList();
+		List<Component> actualComponents = actual.getObjectList();
+		assertEquals(expectedComponents.size(), actualComponents.size(), "Number of components");
+		for (int i = 0; i < expectedComponents.size(); i++) {
+			assertEquals(describe(expectedComponents.get(i)), describe(actualComponents.get(i)), "Component " + i);
+		}
+		GlobalEventStore expectedEvents = expected.getGlobalEventStore();
+		GlobalEventStore actualEvents = actual.getGlobalEventStore();
+		assertEquals(expectedEvents.size(), actualEvents.size(), "Number of Global Events");
+		for (int event = 0; event < expectedEvents.size(); event++) {
+			assertEquals(describe(expectedEvents, event), describe(actualEvents, event), "Global Event " + event);
+		}
+	}
+
+	private static String describe(Component component) {
+		return component.getObjectClass() + " " + component.getObjectCode() + " " + component.getObjectOwner();
+	}
+
+	private static String describe(GlobalEventStore store, int event) {
+		return store.getTimestampMillis(event) + " " + store.getEventType(event) + " " + store.getSector(event) + " "
+				+ store.getAttackerId(event) + "/" + store.getAttacker(event) + "/" + store.getAttackerType(event) + "/"
+				+ store.getAttackerFaction(event) + " " + store.getAttackedId(event) + "/" + store.getAttacked(event)
+				+ "/" + store.getAttackedType(event) + "/" + store.getAttackedFaction(event) + " "
+				+ store.getTargetComponent(event) + " " + store.getAttackedPos(event);
+	}
+
+	private static String write(SyntheticSaveGame saveGame) throws Exception {
+		StringWriter writer = new StringWriter();
+		saveGame.write(writer);
+		return writer.toString();
+	}
+
+	/**
+	 * Cut a top level section out of a savegame
+	 */
+	private static String section(String saveGame, String tag) {
+		int start = saveGame.indexOf("<" + tag + ">");
+		String end = "</" + tag + ">\n";
+		return saveGame.substring(start, saveGame.indexOf(end, start) + end.length());
+	}
+
+	private DataStorage read(String saveGame) throws Exception {
+		File file = tempDir.resolve("reordered.xml").toFile();
+		Files.write(file.toPath(), saveGame.getBytes(StandardCharsets.UTF_8));
+		SaveGameHandler handler = new SaveGameHandler();
+		try (InputStream in = new FileInputStream(file)) {
+			new StaxSaveGameReader().read(in, handler);
+		}
+		DataStorage stax = handler.getData();
+		handler = new SaveGameHandler();
+		new MappedSaveGameScanner().read(file, handler);
+		assertSameData(stax, handler.getData());
+		return stax;
+	}
+
+	private DataStorage readFully(String saveGame) throws Exception {
+		File file = tempDir.resolve("full.xml").toFile();
+		Files.write(file.toPath(), saveGame.getBytes(StandardCharsets.UTF_8));
+		SaveGameHandler handler = new SaveGameHandler();
+		try (InputStream in = new FileInputStream(file)) {
+			new StaxSaveGameReader().read(in, new NeverComplete(handler));
+		}
+		return handler.getData();
+	}
+
+	/**
+	 * Passes all elements on to a handler, but never lets the reader stop early
+	 */
+	static class NeverComplete implements SaveGameElementHandler {
+
+		private final SaveGameElementHandler handler;
+
+		NeverComplete(SaveGameElementHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public List<String> getHandledTags() {
+			return handler.getHandledTags();
+		}
+
+		@Override
+		public void startElement(String qName, ElementAttributes attr) {
+			handler.startElement(qName, attr);
+		}
+
+		@Override
+		public void endElement(String qName) {
+			handler.endElement(qName);
+		}
+
+		@Override
+		public boolean isComplete() {
+			return false;
+		}
+	}
+}
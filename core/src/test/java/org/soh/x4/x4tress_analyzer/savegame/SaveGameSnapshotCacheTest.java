@@ -0,0 +1,65 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.soh.x4.x4tress_analyzer.model.Component;
+import org.soh.x4.x4tress_analyzer.model.DataStorage;
+import org.soh.x4.x4tress_analyzer.model.GlobalEventStore;
+import org.soh.x4.x4tress_analyzer.model.StringDictionary;
+
+/**
+ * Storing and loading savegame snapshots with the
+ * {@link SaveGameSnapshotCache}
+ *
+ * @author Son of Hubert
+ *
+ */
+class SaveGameSnapshotCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void longStringsSurviveTheSnapshot() throws IOException {
+		File saveGame = tempDir.resolve("save.xml").toFile();
+		new SyntheticSaveGame(10, 1).write(saveGame);
+
+		// Longer than the 64 KB that DataOutput.writeUTF can write, with non
+		// ASCII characters
+		String longName = "Schlacht um Hüberts Heim ".repeat(5000);
+		GlobalEventStore globalEvents = new GlobalEventStore(new StringDictionary(), 1);
+		int event = globalEvents.add();
+		globalEvents.setTimestampMillis(event, 1000);
+		globalEvents.setEventType(event, longName);
+		globalEvents.setAttacker(event, longName);
+		globalEvents.setAttacked(event, null);
+		DataStorage data = new DataStorage(longName,
+				Collections.singletonList(new Component("ship_s", longName, null)), globalEvents);
+
+		SaveGameSnapshotCache cache = new SaveGameSnapshotCache(tempDir.resolve("cache").toFile());
+		SaveGameSnapshotCache.Key key = cache.createKey(saveGame);
+		cache.store(key, data);
+		DataStorage loaded = cache.load(key);
+
+		assertNotNull(loaded, "The snapshot could not be loaded");
+		assertEquals(longName, loaded.getPlayerName());
+		assertEquals("ship_s", loaded.getObjectList().get(0).getObjectClass());
+		assertEquals(longName, loaded.getObjectList().get(0).getObjectCode());
+		assertNull(loaded.getObjectList().get(0).getObjectOwner());
+		GlobalEventStore loadedEvents = loaded.getGlobalEventStore();
+		assertEquals(1, loadedEvents.size());
+		assertEquals(1000, loadedEvents.getTimestampMillis(0));
+		assertEquals(longName, loadedEvents.getEventType(0));
+		assertEquals(longName, loadedEvents.getAttacker(0));
+		assertNull(loadedEvents.getAttacked(0));
+	}
+}
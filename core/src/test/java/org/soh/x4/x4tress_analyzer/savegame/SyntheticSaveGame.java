@@ -0,0 +1,478 @@
+package org.soh.x4.x4tress_analyzer.savegame;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a reproducible, structurally valid savegame with a given number of
+ * Global Events.<br>
+ * <br>
+ * The savegame contains the ship components, the $SoHGlobalEvents list and the
+ * string, list, table and vector refs the Global Events are resolved from,
+ * surrounded by a few sections the parser has to skip.<br>
+ * The Global Events are generated as a sequence of episodes: battles with many
+ * events of two factions at one spot of a sector in quick succession, and
+ * isolated incidents of one to three events. The battle density is the share
+ * of events that belong to battles.<br>
+ * <br>
+ * The same settings and seed always produce the same savegame. The events are
+ * generated on the fly while writing, so savegames with millions of events can
+ * be written without keeping the events in memory.
+ *
+ * @author Son of Hubert
+ *
+ */
+public class SyntheticSaveGame {
+
+	private static final String[] EVENT_KEYS = { "$timestamp", "$eventType", "$attackerId", "$attacker",
+			"$attackerType", "$attackerFaction", "$attackedId", "$attacked", "$attackedType", "$targetComponent",
+			"$attackedFaction", "$sector", "$attackedPos" };
+
+	/**
+	 * The event keys are always the first string refs
+	 */
+	private static final Map<String, Integer> KEY_IDS = new LinkedHashMap<>();
+
+	static {
+		for (int key = 0; key < EVENT_KEYS.length; key++) {
+			KEY_IDS.put(EVENT_KEYS[key], key + 1);
+		}
+	}
+
+	private static final String[] FACTION_NAMES = { "argon", "paranid", "teladi", "split", "xenon", "player",
+			"antigone", "holyorder", "freesplit", "khaak", "terran", "pioneers", "boron", "yaki", "scaleplate" };
+
+	private static final String[] SECTOR_NAMES = { "Argon Prime", "The Reach", "Hatikvah's Choice I",
+			"Black Hole Sun IV", "Grand Exchange I", "Silent Witness I", "Faulty Logic VII", "Eighteen Billion" };
+
+	private static final String[] SHIP_CLASSES = { "ship_s", "ship_m", "ship_l", "ship_xl" };
+
+	private static final String[] SHIP_TYPES = { "fighter", "corvette", "destroyer", "carrier", "battleship",
+			"resupplier" };
+
+	private static final String[] EVENT_TYPES = { "SoHAttacked", "SoHDestroyed" };
+
+	private static final String TARGET_COMPONENT = "turret";
+
+	/**
+	 * Game time of the first event in seconds
+	 */
+	private static final double START_TIME = 1000.0;
+
+	private static final int MIN_BATTLE_SIZE = 30;
+	private static final int MAX_BATTLE_SIZE = 300;
+	private static final int MAX_INCIDENT_SIZE = 3;
+
+	private final int events;
+	private final long seed;
+
+	private int sectors = 8;
+	private int ships = 200;
+	private int factions = 6;
+	private double battleDensity = 0.5;
+
+	/**
+	 * Ids of the string refs in the order they are written
+	 */
+	private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+	private String[] sectorNames;
+	private String[] factionNames;
+	private String[] shipCodes;
+	private String[] shipTypes;
+	private String[] shipClasses;
+	private int[] shipOwners;
+	private int[][] shipsByOwner;
+
+	/**
+	 * Create a synthetic savegame with 8 sectors, 200 ships, 6 factions and half
+	 * of the events in battles
+	 *
+	 * @param events the number of Global Events
+	 * @param seed   the seed all content is derived from
+	 */
+	public SyntheticSaveGame(int events, long seed) {
+		this.events = events;
+		this.seed = seed;
+	}
+
+	/**
+	 * Get the number of Global Events
+	 *
+	 * @return the number of Global Events
+	 */
+	public int getEvents() {
+		return events;
+	}
+
+	public int getSectors() {
+		return sectors;
+	}
+
+	/**
+	 * Set the number of sectors the events happen in
+	 *
+	 * @param sectors the number of sectors, at least 1
+	 */
+	public void setSectors(int sectors) {
+		if (sectors < 1) {
+			throw new IllegalArgumentException("At least one sector is required");
+		}
+		this.sectors = sectors;
+	}
+
+	public int getShips() {
+		return ships;
+	}
+
+	/**
+	 * Set the number of ship components taking part in the events
+	 *
+	 * @param ships the number of ships, at least 2
+	 */
+	public void setShips(int ships) {
+		if (ships < 2) {
+			throw new IllegalArgumentException("At least two ships are required");
+		}
+		this.ships = ships;
+	}
+
+	public int getFactions() {
+		return factions;
+	}
+
+	/**
+	 * Set the number of factions owning the ships
+	 *
+	 * @param factions the number of factions, at least 1
+	 */
+	public void setFactions(int factions) {
+		if (factions < 1) {
+			throw new IllegalArgumentException("At least one faction is required");
+		}
+		this.factions = factions;
+	}
+
+	public double getBattleDensity() {
+		return battleDensity;
+	}
+
+	/**
+	 * Set the share of events that belong to battles. The other events are
+	 * isolated incidents.
+	 *
+	 * @param battleDensity the share of battle events between 0 and 1
+	 */
+	public void setBattleDensity(double battleDensity) {
+		if (!(battleDensity >= 0 && battleDensity <= 1)) {
+			throw new IllegalArgumentException("The battle density must be between 0 and 1");
+		}
+		this.battleDensity = battleDensity;
+	}
+
+	/**
+	 * Get the savegame as uncompressed XML
+	 *
+	 * @return the savegame XML in UTF-8
+	 */
+	public byte[] toBytes() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(events * 1024 + 65536);
+		try {
+			write(out);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write synthetic savegame", e);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Write the savegame to a file. Files ending in .gz are compressed like the
+	 * savegames of the game.
+	 *
+	 * @param file the file to write
+	 * @throws IOException if writing fails
+	 */
+	public void write(File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 65536)) {
+			if (file.getName().endsWith(".gz")) {
+				try (GZIPOutputStream gzip = new GZIPOutputStream(out, 65536)) {
+					write(gzip);
+				}
+			} else {
+				write(out);
+			}
+		}
+	}
+
+	/**
+	 * Write the savegame XML in UTF-8. The stream is flushed, but not closed.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	public void write(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+		write(writer);
+		writer.flush();
+	}
+
+	/**
+	 * Write the savegame XML
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void write(Writer writer) throws IOException {
+		createUniverse();
+
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<savegame>\n");
+		writer.write("<info><save name=\"synthetic\" date=\"0\"/><player name=\"Son of Hubert\" location=\"{20004,10001}\" money=\"1000000\"/></info>\n");
+		writeUniverse(writer);
+		writer.write("<economylog><entries><log time=\"1\" v=\"2\"/></entries></economylog>\n");
+		writer.write("<md>\n<cue name=\"Other\"><value name=\"$Other\" type=\"list\" value=\"2\"/></cue>\n");
+		writer.write("<cue name=\"Globals\"><value name=\"$SoHGlobalEvents\" type=\"list\" value=\"1\"/></cue>\n");
+		writeStringRefs(writer);
+		writeListRefs(writer);
+		writeTableRefs(writer);
+		writeVectorRefs(writer);
+		writer.write("</md>\n<aidirector><entry a=\"1\"/></aidirector>\n</savegame>\n");
+	}
+
+	/**
+	 * Create the sectors, factions and ships, and assign the string ref ids
+	 */
+	private void createUniverse() {
+		Random random = new Random(seed);
+		strings.clear();
+		for (String key : EVENT_KEYS) {
+			stringId(key);
+		}
+		for (String value : EVENT_TYPES) {
+			stringId(value);
+		}
+		stringId(TARGET_COMPONENT);
+
+		sectorNames = new String[sectors];
+		for (int sector = 0; sector < sectors; sector++) {
+			sectorNames[sector] = sector < SECTOR_NAMES.length ? SECTOR_NAMES[sector] : "Sector " + (sector + 1);
+			stringId(sectorNames[sector]);
+		}
+
+		factionNames = new String[factions];
+		for (int faction = 0; faction < factions; faction++) {
+			factionNames[faction] = faction < FACTION_NAMES.length ? FACTION_NAMES[faction]
+					: "faction" + (faction + 1);
+			stringId(factionNames[faction]);
+		}
+
+		shipCodes = new String[ships];
+		shipTypes = new String[ships];
+		shipClasses = new String[ships];
+		shipOwners = new int[ships];
+		List<List<Integer>> owned = new ArrayList<>();
+		for (int faction = 0; faction < factions; faction++) {
+			owned.add(new ArrayList<>());
+		}
+		for (int ship = 0; ship < ships; ship++) {
+			shipCodes[ship] = String.format("%c%c%c-%03d", 'A' + random.nextInt(26), 'A' + random.nextInt(26),
+					'A' + random.nextInt(26), ship);
+			shipTypes[ship] = SHIP_TYPES[random.nextInt(SHIP_TYPES.length)];
+			shipClasses[ship] = SHIP_CLASSES[random.nextInt(SHIP_CLASSES.length)];
+			// Every faction owns at least one ship if there are enough ships
+			shipOwners[ship] = ship < factions ? ship : random.nextInt(factions);
+			owned.get(shipOwners[ship]).add(ship);
+			stringId(shipCodes[ship]);
+			stringId(shipName(shipCodes[ship]));
+		}
+		shipsByOwner = new int[factions][];
+		for (int faction = 0; faction < factions; faction++) {
+			shipsByOwner[faction] = owned.get(faction).stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	private void writeUniverse(Writer writer) throws IOException {
+		writer.write("<universe>\n<component class=\"galaxy\" macro=\"xu_ep2_universe_macro\" code=\"GAL-001\" id=\"[0x1]\">\n<connections>\n");
+		for (int ship = 0; ship < ships; ship++) {
+			writer.write("<connection connection=\"space\"><component class=\"" + shipClasses[ship]
+					+ "\" macro=\"ship_macro\" code=\"" + shipCodes[ship] + "\" owner=\""
+					+ factionNames[shipOwners[ship]] + "\" id=\"[0x" + Integer.toHexString(ship + 16)
+					+ "]\"><source x=\"1\"/></component></connection>\n");
+		}
+		writer.write("</connections>\n</component>\n</universe>\n");
+	}
+
+	private void writeStringRefs(Writer writer) throws IOException {
+		writer.write("<refs type=\"string\">\n");
+		for (Map.Entry<String, Integer> string : strings.entrySet()) {
+			writer.write("<ref id=\"" + string.getValue() + "\" string=\"" + escape(string.getKey()) + "\"/>\n");
+		}
+		writer.write("</refs>\n");
+	}
+
+	private void writeListRefs(Writer writer) throws IOException {
+		writer.write("<refs type=\"list\">\n<ref id=\"1\">\n");
+		for (int event = 0; event < events; event++) {
+			writer.write("<value type=\"table\" value=\"" + (event + 1) + "\"/>\n");
+		}
+		writer.write("</ref>\n<ref id=\"2\"><value type=\"string\" value=\"1\"/></ref>\n</refs>\n");
+	}
+
+	private void writeTableRefs(Writer writer) throws IOException {
+		writer.write("<refs type=\"table\">\n");
+		EventSequence sequence = new EventSequence();
+		for (int event = 0; event < events; event++) {
+			sequence.next();
+			writer.write("<ref id=\"" + (event + 1) + "\">\n");
+			writeEntry(writer, "$timestamp", "time", formatTime(sequence.timestamp));
+			writeEntry(writer, "$eventType", "string", stringId(EVENT_TYPES[sequence.destroyed ? 1 : 0]));
+			writeEntry(writer, "$attackerId", "string", stringId(shipCodes[sequence.attacker]));
+			writeEntry(writer, "$attacker", "string", stringId(shipName(shipCodes[sequence.attacker])));
+			writeEntry(writer, "$attackerType", "shiptype", shipTypes[sequence.attacker]);
+			writeEntry(writer, "$attackerFaction", "string", stringId(factionNames[shipOwners[sequence.attacker]]));
+			writeEntry(writer, "$attackedId", "string", stringId(shipCodes[sequence.attacked]));
+			writeEntry(writer, "$attacked", "string", stringId(shipName(shipCodes[sequence.attacked])));
+			writeEntry(writer, "$attackedType", "shiptype", shipTypes[sequence.attacked]);
+			if (sequence.targetComponent) {
+				writeEntry(writer, "$targetComponent", "string", stringId(TARGET_COMPONENT));
+			}
+			writeEntry(writer, "$attackedFaction", "string", stringId(factionNames[shipOwners[sequence.attacked]]));
+			writeEntry(writer, "$sector", "string", stringId(sectorNames[sequence.sector]));
+			writeEntry(writer, "$attackedPos", "position", String.valueOf(event + 1));
+			writer.write("</ref>\n");
+		}
+		writer.write("</refs>\n");
+	}
+
+	private void writeVectorRefs(Writer writer) throws IOException {
+		writer.write("<refs type=\"vector\">\n");
+		EventSequence sequence = new EventSequence();
+		for (int event = 0; event < events; event++) {
+			sequence.next();
+			writer.write("<ref id=\"" + (event + 1) + "\" x=\"" + sequence.x + "\" y=\"" + sequence.y + "\" z=\""
+					+ sequence.z + "\"/>\n");
+		}
+		writer.write("</refs>\n");
+	}
+
+	private static void writeEntry(Writer writer, String key, String type, Object value) throws IOException {
+		writer.write("<key type=\"string\" value=\"" + KEY_IDS.get(key) + "\"/><value type=\"" + type + "\" value=\""
+				+ value + "\"/>\n");
+	}
+
+	/**
+	 * Format a game time with millisecond precision like the game does
+	 */
+	private static String formatTime(double seconds) {
+		long millis = Math.round(seconds * 1000);
+		String fraction = String.valueOf(1000 + millis % 1000);
+		return (millis / 1000) + "." + fraction.substring(1);
+	}
+
+	private int stringId(String value) {
+		return strings.computeIfAbsent(value, v -> strings.size() + 1);
+	}
+
+	private static String shipName(String code) {
+		return "Ship <" + code + ">";
+	}
+
+	private static String escape(String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	/**
+	 * Generates the Global Events in order. Each pass over the events uses a new
+	 * sequence, which yields the same events again.
+	 */
+	private class EventSequence {
+
+		private final Random random = new Random(seed ^ 0x5DEECE66DL);
+
+		/**
+		 * Probability of an episode being a battle, chosen so that the expected
+		 * share of battle events matches the battle density
+		 */
+		private final double battleProbability;
+
+		private int remaining;
+		private boolean battle;
+		private int[] sides = new int[2];
+		private double centerX;
+		private double centerY;
+		private double centerZ;
+		private double spread;
+
+		private double timestamp = START_TIME;
+		private int sector;
+		private int attacker;
+		private int attacked;
+		private boolean destroyed;
+		private boolean targetComponent;
+		private double x;
+		private double y;
+		private double z;
+
+		private EventSequence() {
+			double battleSize = (MIN_BATTLE_SIZE + MAX_BATTLE_SIZE) / 2.0;
+			double incidentSize = (1 + MAX_INCIDENT_SIZE) / 2.0;
+			battleProbability = battleDensity * incidentSize
+					/ (battleDensity * incidentSize + (1 - battleDensity) * battleSize);
+		}
+
+		private void next() {
+			if (remaining == 0) {
+				startEpisode();
+				// Episodes are separated by more than the time that joins events
+				timestamp += 600 + random.nextDouble() * 3600;
+			} else {
+				timestamp += battle ? 0.2 + random.nextDouble() * 3 : 1 + random.nextDouble() * 60;
+			}
+			remaining--;
+
+			int attackerSide = random.nextInt(2);
+			attacker = pickShip(sides[attackerSide]);
+			attacked = pickShip(sides[1 - attackerSide]);
+			if (attacked == attacker) {
+				attacked = (attacker + 1) % ships;
+			}
+			destroyed = random.nextInt(4) == 0;
+			targetComponent = random.nextInt(3) == 0;
+			x = centerX + random.nextGaussian() * spread;
+			y = centerY + random.nextGaussian() * spread / 4;
+			z = centerZ + random.nextGaussian() * spread;
+		}
+
+		private void startEpisode() {
+			battle = random.nextDouble() < battleProbability;
+			remaining = battle ? MIN_BATTLE_SIZE + random.nextInt(MAX_BATTLE_SIZE - MIN_BATTLE_SIZE + 1)
+					: 1 + random.nextInt(MAX_INCIDENT_SIZE);
+			sector = random.nextInt(sectors);
+			sides[0] = random.nextInt(factions);
+			sides[1] = factions > 1 ? (sides[0] + 1 + random.nextInt(factions - 1)) % factions : sides[0];
+			centerX = random.nextGaussian() * 200000;
+			centerY = random.nextGaussian() * 20000;
+			centerZ = random.nextGaussian() * 200000;
+			spread = battle ? 8000 : 2000;
+		}
+
+		private int pickShip(int faction) {
+			int[] owned = shipsByOwner[faction];
+			return owned.length > 0 ? owned[random.nextInt(owned.length)] : random.nextInt(ships);
+		}
+	}
+
+}
@@ -1,14 +1,10 @@
-module org.soh.x4.x4tress_analyzer {
+module org.soh.x4.x4tress_analyzer.gui {
     requires javafx.controls;
 	requires javafx.graphics;
 	requires javafx.base;
-	requires java.base;
 	requires java.xml;
-	requires java.xml.crypto;
 	requires org.slf4j;
-	requires java.sql;
-	
-	opens org.soh.x4.x4tress_analyzer.model to javafx.base;
+	requires org.soh.x4.x4tress_analyzer;
 	
     exports org.soh.x4.x4tress_analyzer.gui;
 }
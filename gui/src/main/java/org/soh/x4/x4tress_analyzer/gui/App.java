@@ -4,7 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
 
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,13 +13,16 @@ import org.soh.x4.x4tress_analyzer.model.DataStorage;
 import org.soh.x4.x4tress_analyzer.model.GlobalEvent;
 import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
 import org.soh.x4.x4tress_analyzer.pocessor.EventProcessor_En;
+import org.soh.x4.x4tress_analyzer.savegame.LoadMonitor;
+import org.soh.x4.x4tress_analyzer.savegame.LoadStage;
 import org.soh.x4.x4tress_analyzer.savegame.SaveGameLoader;
-import org.xml.sax.SAXException;
+import org.soh.x4.x4tress_analyzer.savegame.SaveGameSnapshotCache;
 
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -27,10 +30,13 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
@@ -38,6 +44,8 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
@@ -59,9 +67,19 @@ public class App extends Application {
 	private TextField objectFilter = null;
 	private TextArea unitText;
 	private MenuBar menuBar = null;
+	private HBox loadStatusBar = null;
+	private Label loadStatus = null;
+	private ProgressBar loadProgress = null;
+	private Button cancelLoad = null;
 
 	private SaveGameLoader saveGameLoader = new SaveGameLoader();
 
+	/**
+	 * The data of the last loaded savegame. Loading a newer savegame of the same
+	 * campaign continues its analysis.
+	 */
+	private DataStorage loadedSaveGameData = null;
+
 	/**
 	 * Launch the application.
 	 * 
@@ -78,6 +96,7 @@ public class App extends Application {
 	@Override
 	public void start(@SuppressWarnings("exports") Stage stage) {
 		final FileChooser fileChooser = new FileChooser();
+		saveGameLoader.setSnapshotCache(new SaveGameSnapshotCache(SaveGameSnapshotCache.getDefaultDirectory()));
 
 		// Create the layout and components
 		// Create the parent grid
@@ -98,7 +117,7 @@ public class App extends Application {
 
 		// Create and show the parent scene
 		BorderPane rootBox = new BorderPane();
-		rootBox.setTop(createMenuBar(fileChooser, stage));
+		rootBox.setTop(new VBox(createMenuBar(fileChooser, stage), createLoadStatusBar()));
 		rootBox.setLeft(gridLeft);
 		rootBox.setCenter(gridCenter);
 		rootBox.setRight(gridRight);
@@ -164,6 +183,26 @@ public class App extends Application {
 		return menuBar;
 	}
 
+	/**
+	 * Initialize the status bar showing the progress of a savegame load. Hidden
+	 * while no savegame is loading.
+	 * 
+	 * @return the status bar
+	 */
+	private HBox createLoadStatusBar() {
+		loadStatus = new Label();
+		loadProgress = new ProgressBar();
+		loadProgress.setPrefWidth(300);
+		cancelLoad = new Button("Cancel");
+
+		loadStatusBar = new HBox(10, loadStatus, loadProgress, cancelLoad);
+		loadStatusBar.setAlignment(Pos.CENTER_LEFT);
+		loadStatusBar.setPadding(new Insets(5, 25, 5, 25));
+		loadStatusBar.setVisible(false);
+		loadStatusBar.setManaged(false);
+		return loadStatusBar;
+	}
+
 	/**
 	 * Create the Object List and its Filter
 	 * 
@@ -201,7 +240,7 @@ public class App extends Application {
 	 */
 	private GridPane createGlobalEventsFilteredList(GridPane grid) {
 		// Add the Global Events List
-		globalEventFilteredList = GlobalEvent.createUITable();
+		globalEventFilteredList = EventTables.createGlobalEventTable();
 
 		grid.add(globalEventFilteredList, 0, 0);
 
@@ -216,7 +255,7 @@ public class App extends Application {
 	 */
 	private GridPane createGlobalEventsList(GridPane grid) {
 		// Add the Global Events List
-		globalEventList = GlobalEvent.createUITable();
+		globalEventList = EventTables.createGlobalEventTable();
 
 		grid.add(globalEventList, 0, 0);
 
@@ -245,7 +284,7 @@ public class App extends Application {
 	 */
 	private GridPane createProcessedEventsList(GridPane grid) {
 		// Add the Global Events List
-		processedEventList = ProcessedEvent.createUITable();
+		processedEventList = EventTables.createProcessedEventTable();
 
 		grid.add(processedEventList, 0, 0);
 
@@ -253,7 +292,8 @@ public class App extends Application {
 	}
 
 	/**
-	 * Load an X4 savegame file and populate the UI objects
+	 * Load an X4 savegame file in the background and populate the UI objects
+	 * when done
 	 * 
 	 * @param file
 	 */
@@ -263,85 +303,126 @@ public class App extends Application {
 			errorMessage = "Error: File is null!";
 			showError(errorMessage, null);
 			LOGGER.error(errorMessage);
+			return;
 		}
-		try {
-			DataStorage saveGameData = saveGameLoader.loadFile(file);
+
+		SaveGameLoadTask loadTask = new SaveGameLoadTask(file, loadedSaveGameData);
+		loadStatus.textProperty().bind(loadTask.messageProperty());
+		loadProgress.progressProperty().bind(loadTask.progressProperty());
+		cancelLoad.setOnAction(event -> loadTask.cancel());
+		loadStatusBar.setVisible(true);
+		loadStatusBar.setManaged(true);
+		menuBar.setDisable(true);
+
+		loadTask.setOnSucceeded(event -> {
+			finishLoad();
+			DataStorage saveGameData = loadTask.getValue();
 			if (saveGameData == null) {
-				errorMessage = "No data loaded!";
-				showError(errorMessage, null);
-				LOGGER.error(errorMessage);
+				String message = "No data loaded!";
+				showError(message, null);
+				LOGGER.error(message);
 				return;
 			}
-
-			// Populate the X4Objects list
-			ObservableList<Component> x4Objects = FXCollections.observableArrayList();
-			for (Component comp : saveGameData.getObjectList()) {
-				x4Objects.add(comp);
+			loadedSaveGameData = saveGameData;
+			showSaveGame(saveGameData);
+		});
+		loadTask.setOnCancelled(event -> {
+			finishLoad();
+			LOGGER.info("Loading savegame " + file.getAbsolutePath() + " was cancelled");
+		});
+		loadTask.setOnFailed(event -> {
+			finishLoad();
+			Throwable e = loadTask.getException();
+			String message;
+			if (e instanceof XMLStreamException) {
+				message = "Error trying to parse savegame " + file.getAbsolutePath() + "! Is it a valid X4 savegame?";
+			} else if (e instanceof IOException) {
+				message = "Error trying to open file " + file.getAbsolutePath() + "! Is it a valid X4 savegame?";
+			} else {
+				message = "Error trying to load savegame " + file.getAbsolutePath() + "!";
 			}
+			showError(message, e);
+			LOGGER.error(message, e);
+		});
 
-			FilteredList<Component> filteredX4Objects = new FilteredList<>(x4Objects, s -> true);
-			objectList.setItems(filteredX4Objects);
+		Thread loadThread = new Thread(loadTask, "savegame-loader");
+		loadThread.setDaemon(true);
+		loadThread.start();
+	}
 
-			objectFilter.textProperty().addListener(obs -> {
-				String filter = objectFilter.getText();
-				if (filter == null || filter.length() == 0) {
-					filteredX4Objects.setPredicate(s -> true);
-				} else {
-					filteredX4Objects.setPredicate(s -> s.contains(filter));
-				}
-			});
+	/**
+	 * Hide the load status bar after a load finished
+	 */
+	private void finishLoad() {
+		loadStatus.textProperty().unbind();
+		loadProgress.progressProperty().unbind();
+		cancelLoad.setOnAction(null);
+		loadStatusBar.setVisible(false);
+		loadStatusBar.setManaged(false);
+		menuBar.setDisable(false);
+	}
+
+	/**
+	 * Populate the UI objects with the data of a loaded savegame
+	 * 
+	 * @param saveGameData the savegame data
+	 */
+	private void showSaveGame(DataStorage saveGameData) {
+		// Populate the X4Objects list
+		ObservableList<Component> x4Objects = FXCollections.observableArrayList();
+		for (Component comp : saveGameData.getObjectList()) {
+			x4Objects.add(comp);
+		}
+
+		FilteredList<Component> filteredX4Objects = new FilteredList<>(x4Objects, s -> true);
+		objectList.setItems(filteredX4Objects);
 
-			// Populate the unfiltered Global Events list
-			ObservableList<GlobalEvent> sohGlobalEvents = FXCollections.observableArrayList();
-			for (GlobalEvent event : saveGameData.getGlobalEvents()) {
-				sohGlobalEvents.add(event);
+		objectFilter.textProperty().addListener(obs -> {
+			String filter = objectFilter.getText();
+			if (filter == null || filter.length() == 0) {
+				filteredX4Objects.setPredicate(s -> true);
+			} else {
+				filteredX4Objects.setPredicate(s -> s.contains(filter));
 			}
+		});
 
-			globalEventList.setItems(sohGlobalEvents);
+		// Populate the unfiltered Global Events list
+		ObservableList<GlobalEvent> sohGlobalEvents = FXCollections.observableArrayList();
+		for (GlobalEvent event : saveGameData.getGlobalEvents()) {
+			sohGlobalEvents.add(event);
+		}
 
-			// Populate the filtered Global Events list
-			FilteredList<GlobalEvent> filteredGlobalEvents = new FilteredList<>(sohGlobalEvents, s -> true);
-			globalEventFilteredList.setItems(filteredGlobalEvents);
+		globalEventList.setItems(sohGlobalEvents);
 
+		// Populate the filtered Global Events list
+		FilteredList<GlobalEvent> filteredGlobalEvents = new FilteredList<>(sohGlobalEvents, s -> true);
+		globalEventFilteredList.setItems(filteredGlobalEvents);
 
-			// Populate the Processed Events list
-			ObservableList<ProcessedEvent> sohProcessedEvents = FXCollections.observableArrayList();
-			for (ProcessedEvent event : saveGameData.getProcessedEvents()) {
-				sohProcessedEvents.add(event);
-			}
-			FilteredList<ProcessedEvent> filteredProcessedEvents = new FilteredList<>(sohProcessedEvents, s -> true);
-			processedEventList.setItems(filteredProcessedEvents);
-			
-			objectList.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-				if (newSelection != null) {
-					String objectCode = newSelection.getObjectCode();
-					// Set the global Events
-					filteredGlobalEvents.setPredicate(s -> s.matchesUnit(objectCode));
-					filteredProcessedEvents.setPredicate(s -> s.matchesUnit(objectCode));
-					
-					// Generate the final Unit Text
-					EventProcessor_En processor = new EventProcessor_En(saveGameData.getPlayerName());
-					Iterator<ProcessedEvent> eventIterator = filteredProcessedEvents.iterator();
-					while (eventIterator.hasNext()) {
-						ProcessedEvent event = eventIterator.next();
-						unitText.setText(processor.processEvent(event, objectCode).getDisplayText());
-					}
-				}
-			});
-
-		} catch (ParserConfigurationException e) {
-			errorMessage = "Error trying to initialize xml parser!";
-			showError(errorMessage, e);
-			LOGGER.error(errorMessage, e);
-		} catch (SAXException e) {
-			errorMessage = "Error trying to parse savegame " + file.getAbsolutePath() + "! Is it a valid X4 savegame?";
-			showError(errorMessage, e);
-			LOGGER.error(errorMessage, e);
-		} catch (IOException e) {
-			errorMessage = "Error trying to open file " + file.getAbsolutePath() + "! Is it a valid X4 savegame?";
-			showError(errorMessage, e);
-			LOGGER.error(errorMessage, e);
+
+		// Populate the Processed Events list
+		ObservableList<ProcessedEvent> sohProcessedEvents = FXCollections.observableArrayList();
+		for (ProcessedEvent event : saveGameData.getProcessedEvents()) {
+			sohProcessedEvents.add(event);
 		}
+		FilteredList<ProcessedEvent> filteredProcessedEvents = new FilteredList<>(sohProcessedEvents, s -> true);
+		processedEventList.setItems(filteredProcessedEvents);
+		
+		objectList.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
+			if (newSelection != null) {
+				String objectCode = newSelection.getObjectCode();
+				// Set the global Events
+				filteredGlobalEvents.setPredicate(s -> s.matchesUnit(objectCode));
+				filteredProcessedEvents.setPredicate(s -> s.matchesUnit(objectCode));
+				
+				// Generate the final Unit Text
+				EventProcessor_En processor = new EventProcessor_En(saveGameData.getPlayerName());
+				Iterator<ProcessedEvent> eventIterator = filteredProcessedEvents.iterator();
+				while (eventIterator.hasNext()) {
+					ProcessedEvent event = eventIterator.next();
+					unitText.setText(processor.processEvent(event, objectCode).getDisplayText());
+				}
+			}
+		});
 	}
 
 	/**
@@ -350,7 +431,7 @@ public class App extends Application {
 	 * @param errorMessage the error message
 	 * @param e            the exception. Can be null!
 	 */
-	private void showError(String errorMessage, Exception e) {
+	private void showError(String errorMessage, Throwable e) {
 		if (e != null) {
 			errorMessage += "\nError message: " + e.getMessage();
 		}
@@ -358,4 +439,38 @@ public class App extends Application {
 		alert.showAndWait();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Loads a savegame on a background thread. The task reports the load stages
+	 * and progress as its message and progress, and is the monitor checked for
+	 * cancellation by the loader.
+	 */
+	private class SaveGameLoadTask extends Task<DataStorage> implements LoadMonitor {
+
+		private final File file;
+
+		private final DataStorage previous;
+
+		private SaveGameLoadTask(File file, DataStorage previous) {
+			this.file = file;
+			this.previous = previous;
+		}
+
+		@Override
+		protected DataStorage call() throws Exception {
+			return saveGameLoader.loadFile(file, previous, this);
+		}
+
+		@Override
+		public void stageChanged(LoadStage stage) {
+			updateMessage(stage.getDescription() + "...");
+			updateProgress(-1, 1);
+		}
+
+		@Override
+		public void progress(long done, long total) {
+			updateProgress(done, total);
+		}
+
+	}
+
+}
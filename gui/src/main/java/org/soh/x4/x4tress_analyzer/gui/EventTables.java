@@ -0,0 +1,148 @@
+package org.soh.x4.x4tress_analyzer.gui;
+
+import java.sql.Timestamp;
+import java.util.function.Function;
+
+import org.soh.x4.x4tress_analyzer.model.GlobalEvent;
+import org.soh.x4.x4tress_analyzer.model.ProcessedEvent;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.util.Callback;
+
+/**
+ * Creates the JavaFX tables showing the model in the UI.<br>
+ * Kept apart from the model, so the analyzer core does not depend on JavaFX.
+ * 
+ * @author Son of Hubert
+ *
+ */
+public final class EventTables {
+
+	private EventTables() {
+	}
+
+	/**
+	 * Creates an empty JavaFX TableView for representation of the GlobalEvent in
+	 * the UI
+	 * 
+	 * @return the TableView of GlobalEvent
+	 */
+	@SuppressWarnings("unchecked")
+	public static TableView<GlobalEvent> createGlobalEventTable() {
+		TableView<GlobalEvent> eventTable = new TableView<>();
+		// eventTable.setPrefWidth(1000);
+
+		TableColumn<GlobalEvent, Timestamp> timestamp = new TableColumn<>("Timestamp");
+		timestamp.setPrefWidth(160);
+		timestamp.setCellValueFactory(valueOf(GlobalEvent::getTimestamp));
+
+		TableColumn<GlobalEvent, String> eventType = new TableColumn<>("Event Type");
+		eventType.setPrefWidth(80);
+		eventType.setCellValueFactory(valueOf(GlobalEvent::getEventType));
+
+		TableColumn<GlobalEvent, String> attackerId = new TableColumn<>("Attacker Id");
+		attackerId.setPrefWidth(80);
+		attackerId.setCellValueFactory(valueOf(GlobalEvent::getAttackerId));
+
+		TableColumn<GlobalEvent, String> attacker = new TableColumn<>("Attacker Name");
+		attacker.setPrefWidth(200);
+		attacker.setCellValueFactory(valueOf(GlobalEvent::getAttacker));
+		
+		TableColumn<GlobalEvent, String> attackerType = new TableColumn<>("Attacker Type");
+		attackerType.setPrefWidth(200);
+		attackerType.setCellValueFactory(valueOf(GlobalEvent::getAttackerType));
+
+		TableColumn<GlobalEvent, String> attackerFaction = new TableColumn<>("Attacker Faction");
+		attackerFaction.setPrefWidth(150);
+		attackerFaction.setCellValueFactory(valueOf(GlobalEvent::getAttackerFaction));
+
+		TableColumn<GlobalEvent, String> attackedId = new TableColumn<>("Attacked Id");
+		attackedId.setPrefWidth(80);
+		attackedId.setCellValueFactory(valueOf(GlobalEvent::getAttackedId));
+
+		TableColumn<GlobalEvent, String> attacked = new TableColumn<>("Attacked Name");
+		attacked.setPrefWidth(200);
+		attacked.setCellValueFactory(valueOf(GlobalEvent::getAttacked));
+		
+		TableColumn<GlobalEvent, String> attackedType = new TableColumn<>("Attacked Type");
+		attackedType.setPrefWidth(200);
+		attackedType.setCellValueFactory(valueOf(GlobalEvent::getAttackedType));
+
+		TableColumn<GlobalEvent, String> targetComponent = new TableColumn<>("Target Component");
+		targetComponent.setPrefWidth(200);
+		targetComponent.setCellValueFactory(valueOf(GlobalEvent::getTargetComponent));
+
+		TableColumn<GlobalEvent, String> attackedFaction = new TableColumn<>("Attacked Faction");
+		attackedFaction.setPrefWidth(150);
+		attackedFaction.setCellValueFactory(valueOf(GlobalEvent::getAttackedFaction));
+
+		TableColumn<GlobalEvent, String> sector = new TableColumn<>("Sector");
+		sector.setPrefWidth(150);
+		sector.setCellValueFactory(valueOf(GlobalEvent::getSector));
+	
+
+		eventTable.getColumns().addAll(timestamp, eventType, attackerId, attacker, attackerType, attackerFaction, attackedId,
+				attacked, attackedType, targetComponent, attackedFaction, sector);
+
+		return eventTable;
+	}
+
+	/**
+	 * Creates an empty JavaFX TableView for representation of the ProcessedEvent in
+	 * the UI
+	 * 
+	 * @return the TableView of ProcessedEvent
+	 */
+	@SuppressWarnings("unchecked")
+	public static TableView<ProcessedEvent> createProcessedEventTable() {
+		TableView<ProcessedEvent> eventTable = new TableView<>();
+		// eventTable.setPrefWidth(1000);
+
+		TableColumn<ProcessedEvent, String> eventType = new TableColumn<>("Event Type");
+		eventType.setPrefWidth(80);
+		eventType.setCellValueFactory(valueOf(ProcessedEvent::getEventType));
+		
+		TableColumn<ProcessedEvent, Integer> numberOfEvents = new TableColumn<>("# of Events");
+		numberOfEvents.setPrefWidth(80);
+		numberOfEvents.setCellValueFactory(valueOf(ProcessedEvent::getNumberOfEvents));
+
+		TableColumn<ProcessedEvent, String> scale = new TableColumn<>("Event Scale");
+		scale.setPrefWidth(100);
+		scale.setCellValueFactory(valueOf(ProcessedEvent::getScale));
+
+		TableColumn<ProcessedEvent, String> sector = new TableColumn<>("Sector");
+		sector.setPrefWidth(150);
+		sector.setCellValueFactory(valueOf(ProcessedEvent::getSector));
+
+		TableColumn<ProcessedEvent, Integer> numberOfParticipants = new TableColumn<>("Participants");
+		numberOfParticipants.setPrefWidth(80);
+		numberOfParticipants.setCellValueFactory(valueOf(ProcessedEvent::getNumberOfParticipants));
+
+		TableColumn<ProcessedEvent, Timestamp> startTime = new TableColumn<>("Start time");
+		startTime.setPrefWidth(160);
+		startTime.setCellValueFactory(valueOf(ProcessedEvent::getStartTime));
+
+		TableColumn<ProcessedEvent, Timestamp> endTime = new TableColumn<>("End time");
+		endTime.setPrefWidth(160);
+		endTime.setCellValueFactory(valueOf(ProcessedEvent::getEndTime));
+
+		eventTable.getColumns().addAll(eventType, numberOfEvents, scale, sector, numberOfParticipants, startTime, endTime);
+
+		return eventTable;
+	}
+
+	/**
+	 * Creates a cell value factory reading the values with a getter, so the
+	 * model does not have to be open to JavaFX reflection
+	 * 
+	 * @param getter the getter of the column value
+	 * @return the cell value factory
+	 */
+	private static <S, T> Callback<CellDataFeatures<S, T>, ObservableValue<T>> valueOf(Function<S, T> getter) {
+		return cell -> new ReadOnlyObjectWrapper<>(getter.apply(cell.getValue()));
+	}
+}